@@ -1,6 +1,7 @@
 module uk.ac.leeds.ccg.data {
     requires transitive java.logging;
     requires java.desktop;
+    requires java.management;
     requires transitive uk.ac.leeds.ccg.io;
     requires transitive uk.ac.leeds.ccg.generic;
     requires transitive uk.ac.leeds.ccg.math;
@@ -9,6 +10,8 @@ module uk.ac.leeds.ccg.data {
     exports uk.ac.leeds.ccg.data.core;
     exports uk.ac.leeds.ccg.data.format;
     exports uk.ac.leeds.ccg.data.id;
+    exports uk.ac.leeds.ccg.data.index;
     exports uk.ac.leeds.ccg.data.interval;
     exports uk.ac.leeds.ccg.data.io;
+    exports uk.ac.leeds.ccg.data.memory;
 }
\ No newline at end of file
@@ -19,29 +19,165 @@ import java.io.Serializable;
 import uk.ac.leeds.ccg.data.id.Data_RecordID;
 import uk.ac.leeds.ccg.data.id.Data_CollectionID;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 /**
  * For a {@link Data_Record} collection.
  *
+ * By default the records are held in {@link #data}. Subclasses such as
+ * {@link Data_SortedCollection} and {@link Data_ColumnarCollection} hold
+ * their records in other ways, and for these {@link #data} is an empty
+ * {@link NoData} map that cannot be added to. So records should be accessed
+ * using {@link #getRecord(Data_RecordID)},
+ * {@link #putRecord(Data_Record)}, {@link #removeRecord(Data_RecordID)} and
+ * {@link #iterator()} rather than via {@link #data} unless the class of the
+ * collection is known.
+ *
  * @author Andy Turner
  * @version 1.0.0
  */
-public class Data_Collection implements Serializable {
+public class Data_Collection implements Serializable, Iterable<Data_Record> {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The maximum number of records sampled by {@link #getSizeEstimate()}.
+     */
+    public static final int SIZE_SAMPLE = 16;
+
     public final Data_CollectionID ID;
     public final HashMap<? super Data_RecordID, ? super Data_Record> data;
 
+    /**
+     * An empty map that cannot be added to for use as {@link #data} by
+     * subclasses that hold their records in other ways.
+     */
+    protected static final class NoData
+            extends HashMap<Data_RecordID, Data_Record> {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Creates a new instance.
+         */
+        public NoData() {
+            super(0);
+        }
+
+        private static UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException("Records are not held "
+                    + "in the data map of this collection");
+        }
+
+        @Override
+        public Data_Record put(Data_RecordID k, Data_Record v) {
+            throw unsupported();
+        }
+
+        @Override
+        public void putAll(
+                Map<? extends Data_RecordID, ? extends Data_Record> m) {
+            throw unsupported();
+        }
+
+        @Override
+        public Data_Record putIfAbsent(Data_RecordID k, Data_Record v) {
+            throw unsupported();
+        }
+
+        @Override
+        public Data_Record computeIfAbsent(Data_RecordID k,
+                Function<? super Data_RecordID, ? extends Data_Record> f) {
+            throw unsupported();
+        }
+
+        @Override
+        public Data_Record compute(Data_RecordID k,
+                BiFunction<? super Data_RecordID, ? super Data_Record,
+                        ? extends Data_Record> f) {
+            throw unsupported();
+        }
+
+        @Override
+        public Data_Record merge(Data_RecordID k, Data_Record v,
+                BiFunction<? super Data_Record, ? super Data_Record,
+                        ? extends Data_Record> f) {
+            throw unsupported();
+        }
+    }
+
+    /**
+     * {@code true} iff this may differ from any cached copy. This is
+     * transient so collections that are deserialized start clean, whereas
+     * those constructed start dirty.
+     */
+    private transient volatile boolean dirty;
+
     public Data_Collection(Data_CollectionID ID) {
         this.ID = ID;
         data = new HashMap<>();
+        dirty = true;
     }
 
     public Data_Collection(Data_CollectionID ID,
             HashMap<Data_RecordID, Data_Record> data) {
         this.ID = ID;
         this.data = data;
+        dirty = true;
+    }
+
+    /**
+     * @return {@code true} iff this has been modified since it was last
+     * cached or loaded.
+     */
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    /**
+     * For recording that this has been modified. This should be called after
+     * changing {@link #data} or any record directly, otherwise the change can
+     * be lost if the collection is cleared from memory by a {@link Data_Data}
+     * that skips writing clean collections (see
+     * {@link Data_Data#setSkipCleanWrites(boolean)}).
+     */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * For recording that this is the same as its cached copy.
+     */
+    public void markClean() {
+        dirty = false;
+    }
+
+    /**
+     * For adding or replacing a record and marking this as dirty.
+     *
+     * @param r The record to add.
+     * @return The record replaced or {@code null}.
+     */
+    public Data_Record putRecord(Data_Record r) {
+        dirty = true;
+        return (Data_Record) data.put(r.id, r);
+    }
+
+    /**
+     * For removing a record and marking this as dirty if it was present.
+     *
+     * @param rID The ID of the record to remove.
+     * @return The record removed or {@code null}.
+     */
+    public Data_Record removeRecord(Data_RecordID rID) {
+        Data_Record r = (Data_Record) data.remove(rID);
+        if (r != null) {
+            dirty = true;
+        }
+        return r;
     }
 
     /**
@@ -53,4 +189,69 @@ public class Data_Collection implements Serializable {
         return data.size();
     }
 
+    /**
+     * For estimating the number of bytes of memory retained by this
+     * collection, assuming a 64 bit JVM with compressed references. The
+     * estimate includes the {@link #data} map and its entries, and the size of
+     * the records extrapolated from up to {@link #SIZE_SAMPLE} of them using
+     * {@link Data_Record#getSizeEstimate()}.
+     *
+     * @return An estimate of the bytes retained by this collection.
+     */
+    public long getSizeEstimate() {
+        int n = getN();
+        // This, the map and the map table header.
+        long r = 16L + 48L + 16L;
+        long capacity = 16L;
+        while (capacity * 3L / 4L < n) {
+            capacity <<= 1;
+        }
+        r += 4L * capacity + 32L * n;
+        long s = 0L;
+        int k = 0;
+        Iterator<Data_Record> ite = iterator();
+        while (k < SIZE_SAMPLE && ite.hasNext()) {
+            Data_Record x = ite.next();
+            if (x != null) {
+                s += x.getSizeEstimate();
+            }
+            k++;
+        }
+        if (k > 0) {
+            r += n * s / k;
+        }
+        return r;
+    }
+
+    /**
+     * For getting a record.
+     *
+     * @param rID The record ID.
+     * @return The record with ID {@code rID} or {@code null} if there is no
+     * such record in this collection.
+     */
+    public Data_Record getRecord(Data_RecordID rID) {
+        return (Data_Record) data.get(rID);
+    }
+
+    /**
+     * @return An iterator over the records in this collection. The order is
+     * unspecified.
+     */
+    @Override
+    public Iterator<Data_Record> iterator() {
+        Iterator<?> ite = data.values().iterator();
+        return new Iterator<Data_Record>() {
+            @Override
+            public boolean hasNext() {
+                return ite.hasNext();
+            }
+
+            @Override
+            public Data_Record next() {
+                return (Data_Record) ite.next();
+            }
+        };
+    }
+
 }
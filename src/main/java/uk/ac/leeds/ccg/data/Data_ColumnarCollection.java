@@ -0,0 +1,1084 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import uk.ac.leeds.ccg.data.index.Data_LongIntMap;
+
+/**
+ * A {@link Data_Collection} that stores records by column rather than as
+ * individual record objects. Each column is a primitive array of the type
+ * given for the variable (see {@link Data_VariableType}), except for
+ * {@code String} columns which are dictionary encoded as {@code int} codes,
+ * and {@code BigDecimal} and {@code BigInteger} columns which are object
+ * arrays. Missing values are recorded in a {@link BitSet} for each column.
+ *
+ * The {@link #data} map of a columnar collection is an empty
+ * {@link Data_Collection.NoData} map that cannot be added to. Records are
+ * accessed via {@link #getRecord(Data_RecordID)} and {@link #iterator()}
+ * which return {@link Data_ColumnarRecord} views. These hold only a
+ * reference to this collection and a row index, so all the values stay in the
+ * column arrays. {@link #putRecord(Data_Record)} copies the values of a
+ * record from a collection with the same columns into a row and
+ * {@link #removeRecord(Data_RecordID)} moves the last row into the row
+ * removed.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_ColumnarCollection extends Data_Collection {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Type code for a String column.
+     */
+    public static final int STRING = 0;
+
+    /**
+     * Type code for a BigDecimal column.
+     */
+    public static final int BIGDECIMAL = 1;
+
+    /**
+     * Type code for a double column.
+     */
+    public static final int DOUBLE = 2;
+
+    /**
+     * Type code for a float column.
+     */
+    public static final int FLOAT = 3;
+
+    /**
+     * Type code for a BigInteger column.
+     */
+    public static final int BIGINTEGER = 4;
+
+    /**
+     * Type code for a long column.
+     */
+    public static final int LONG = 5;
+
+    /**
+     * Type code for an int column.
+     */
+    public static final int INT = 6;
+
+    /**
+     * Type code for a short column.
+     */
+    public static final int SHORT = 7;
+
+    /**
+     * Type code for a byte column.
+     */
+    public static final int BYTE = 8;
+
+    /**
+     * The column names.
+     */
+    protected final String[] names;
+
+    /**
+     * The column types.
+     */
+    protected final int[] types;
+
+    /**
+     * For looking up a column index from a column name.
+     */
+    protected final HashMap<String, Integer> nameToColumn;
+
+    /**
+     * The record ID values in row order.
+     */
+    protected long[] ids;
+
+    /**
+     * The number of rows.
+     */
+    protected int n;
+
+    /**
+     * The columns. Each is an array the type of which depends on the column
+     * type.
+     */
+    protected final Object[] columns;
+
+    /**
+     * The dictionaries for String columns. Elements for other columns are
+     * {@code null}.
+     */
+    protected final Dictionary[] dictionaries;
+
+    /**
+     * For recording missing values. Elements are {@code null} for columns with
+     * no missing values.
+     */
+    protected final BitSet[] nulls;
+
+    /**
+     * For looking up a row from a record ID value.
+     */
+    protected final Data_LongIntMap rows;
+
+    /**
+     * @param ID The collection ID.
+     * @param vnt The variable names and types. The columns are in the order of
+     * {@link Data_VariableType.Data_VariableNamesAndTypes#order2FieldNames}.
+     */
+    public Data_ColumnarCollection(Data_CollectionID ID,
+            Data_VariableType.Data_VariableNamesAndTypes vnt) {
+        this(ID, getNames(vnt), getTypes(vnt));
+    }
+
+    /**
+     * @param ID The collection ID.
+     * @param names What {@link #names} is set to.
+     * @param types What {@link #types} is set to. These are the type codes
+     * given by the constants of this class.
+     */
+    public Data_ColumnarCollection(Data_CollectionID ID, String[] names,
+            int[] types) {
+        super(ID, new NoData());
+        if (names.length != types.length) {
+            throw new IllegalArgumentException("There are " + names.length
+                    + " names and " + types.length + " types");
+        }
+        this.names = names.clone();
+        this.types = types.clone();
+        int nc = names.length;
+        nameToColumn = new HashMap<>();
+        for (int i = 0; i < nc; i++) {
+            nameToColumn.put(names[i], i);
+        }
+        columns = new Object[nc];
+        dictionaries = new Dictionary[nc];
+        nulls = new BitSet[nc];
+        int capacity = 16;
+        ids = new long[capacity];
+        for (int i = 0; i < nc; i++) {
+            columns[i] = newColumn(types[i], capacity);
+            if (types[i] == STRING) {
+                dictionaries[i] = new Dictionary();
+            }
+        }
+        rows = new Data_LongIntMap();
+    }
+
+    private static String[] getNames(
+            Data_VariableType.Data_VariableNamesAndTypes vnt) {
+        String[] r = new String[vnt.order2FieldNames.size()];
+        int i = 0;
+        for (String name : vnt.order2FieldNames.values()) {
+            r[i] = name;
+            i++;
+        }
+        return r;
+    }
+
+    private static int[] getTypes(
+            Data_VariableType.Data_VariableNamesAndTypes vnt) {
+        int[] r = new int[vnt.order2FieldNames.size()];
+        int i = 0;
+        for (Integer order : vnt.order2FieldNames.keySet()) {
+            Integer type = vnt.order2Type.get(order);
+            r[i] = type == null ? STRING : type;
+            i++;
+        }
+        return r;
+    }
+
+    private static Object newColumn(int type, int capacity) {
+        switch (type) {
+            case STRING:
+                return new int[capacity];
+            case BIGDECIMAL:
+                return new BigDecimal[capacity];
+            case DOUBLE:
+                return new double[capacity];
+            case FLOAT:
+                return new float[capacity];
+            case BIGINTEGER:
+                return new BigInteger[capacity];
+            case LONG:
+                return new long[capacity];
+            case INT:
+                return new int[capacity];
+            case SHORT:
+                return new short[capacity];
+            case BYTE:
+                return new byte[capacity];
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    private static Object copyOf(Object column, int capacity) {
+        if (column instanceof int[] a) {
+            return Arrays.copyOf(a, capacity);
+        } else if (column instanceof long[] a) {
+            return Arrays.copyOf(a, capacity);
+        } else if (column instanceof double[] a) {
+            return Arrays.copyOf(a, capacity);
+        } else if (column instanceof float[] a) {
+            return Arrays.copyOf(a, capacity);
+        } else if (column instanceof short[] a) {
+            return Arrays.copyOf(a, capacity);
+        } else if (column instanceof byte[] a) {
+            return Arrays.copyOf(a, capacity);
+        } else {
+            return Arrays.copyOf((Object[]) column, capacity);
+        }
+    }
+
+    /**
+     * For ensuring there is space for at least {@code capacity} rows.
+     *
+     * @param capacity The number of rows needed.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int c = Math.max(capacity, (int) Math.min(Integer.MAX_VALUE - 8,
+                    ids.length * 2L));
+            resize(c);
+        }
+    }
+
+    /**
+     * For releasing any unused space at the end of the columns.
+     */
+    public void trimToSize() {
+        if (n < ids.length) {
+            resize(n);
+        }
+    }
+
+    private void resize(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = copyOf(columns[i], capacity);
+        }
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * For estimating the number of bytes of memory retained by this
+     * collection from the capacity of the columns, the dictionaries, the
+     * missing value sets and {@link #rows}.
+     *
+     * @return An estimate of the bytes retained by this collection.
+     */
+    @Override
+    public long getSizeEstimate() {
+        int capacity = ids.length;
+        long r = 128L + 16L + 8L * capacity + rows.getSizeEstimate();
+        for (int col = 0; col < columns.length; col++) {
+            r += 16L;
+            switch (types[col]) {
+                case STRING:
+                    r += 4L * capacity + dictionaries[col].getSizeEstimate();
+                    break;
+                case BIGDECIMAL:
+                case BIGINTEGER:
+                    r += 4L * capacity;
+                    Object[] a = (Object[]) columns[col];
+                    for (int row = 0; row < n; row++) {
+                        if (a[row] != null) {
+                            r += 64L;
+                        }
+                    }
+                    break;
+                case DOUBLE:
+                case LONG:
+                    r += 8L * capacity;
+                    break;
+                case FLOAT:
+                case INT:
+                    r += 4L * capacity;
+                    break;
+                case SHORT:
+                    r += 2L * capacity;
+                    break;
+                default:
+                    r += capacity;
+            }
+            if (nulls[col] != null) {
+                r += 40L + nulls[col].size() / 8;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * @return The number of columns.
+     */
+    public int getNColumns() {
+        return names.length;
+    }
+
+    /**
+     * @param col The column index.
+     * @return The name of column {@code col}.
+     */
+    public String getColumnName(int col) {
+        return names[col];
+    }
+
+    /**
+     * @param col The column index.
+     * @return The type code of column {@code col}.
+     */
+    public int getColumnType(int col) {
+        return types[col];
+    }
+
+    /**
+     * @param name The column name.
+     * @return The index of the column called {@code name} or {@code -1} if
+     * there is no such column.
+     */
+    public int getColumnIndex(String name) {
+        Integer r = nameToColumn.get(name);
+        return r == null ? -1 : r;
+    }
+
+    /**
+     * @param id The record ID value.
+     * @return The row of the record or {@code -1} if there is no such record.
+     */
+    public int getRow(long id) {
+        int r = rows.get(id);
+        return r == Data_LongIntMap.NO_VALUE ? -1 : r;
+    }
+
+    /**
+     * @param row The row.
+     * @return The record ID value of the record in {@code row}.
+     */
+    public long getRecordId(int row) {
+        checkRow(row);
+        return ids[row];
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= n) {
+            throw new IndexOutOfBoundsException("row " + row + " is not in "
+                    + "the range [0, " + n + ")");
+        }
+    }
+
+    /**
+     * For adding a row with all values missing.
+     *
+     * @param rID The ID of the record.
+     * @return The row added.
+     */
+    public int addRow(Data_RecordID rID) {
+        if (rows.containsKey(rID.id)) {
+            throw new IllegalArgumentException(rID + " is already in " + ID);
+        }
+        markDirty();
+        ensureCapacity(n + 1);
+        int row = n;
+        ids[row] = rID.id;
+        rows.put(rID.id, row);
+        n++;
+        for (int col = 0; col < columns.length; col++) {
+            setNull(row, col, true);
+        }
+        return row;
+    }
+
+    /**
+     * For adding a row and parsing its values.
+     *
+     * @param rID The ID of the record.
+     * @param values The values in column order. Blank values are missing.
+     * @return The row added.
+     */
+    public int addRow(Data_RecordID rID, String[] values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("There are " + values.length
+                    + " values and " + columns.length + " columns");
+        }
+        int row = addRow(rID);
+        for (int col = 0; col < columns.length; col++) {
+            set(row, col, values[col]);
+        }
+        return row;
+    }
+
+    /**
+     * For setting a value by parsing a String.
+     *
+     * @param row The row.
+     * @param col The column.
+     * @param s The value. If this is {@code null} or blank then the value is
+     * set to be missing.
+     */
+    public void set(int row, int col, String s) {
+        checkRow(row);
+        if (s == null || s.isBlank()) {
+            setNull(row, col, true);
+            return;
+        }
+        String t = s.trim();
+        Object c = columns[col];
+        switch (types[col]) {
+            case STRING:
+                ((int[]) c)[row] = dictionaries[col].code(s);
+                break;
+            case BIGDECIMAL:
+                ((BigDecimal[]) c)[row] = new BigDecimal(t);
+                break;
+            case DOUBLE:
+                ((double[]) c)[row] = Double.parseDouble(t);
+                break;
+            case FLOAT:
+                ((float[]) c)[row] = Float.parseFloat(t);
+                break;
+            case BIGINTEGER:
+                ((BigInteger[]) c)[row] = new BigInteger(t);
+                break;
+            case LONG:
+                ((long[]) c)[row] = Long.parseLong(t);
+                break;
+            case INT:
+                ((int[]) c)[row] = Integer.parseInt(t);
+                break;
+            case SHORT:
+                ((short[]) c)[row] = Short.parseShort(t);
+                break;
+            default:
+                ((byte[]) c)[row] = Byte.parseByte(t);
+        }
+        setNull(row, col, false);
+    }
+
+    private void setNull(int row, int col, boolean b) {
+        markDirty();
+        BitSet bs = nulls[col];
+        if (bs == null) {
+            if (!b) {
+                return;
+            }
+            bs = new BitSet();
+            nulls[col] = bs;
+        }
+        bs.set(row, b);
+    }
+
+    private void checkType(int col, int type) {
+        if (types[col] != type) {
+            throw new IllegalArgumentException("Column " + names[col]
+                    + " has type " + types[col] + " not " + type);
+        }
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #BYTE}.
+     * @param v The value to set.
+     */
+    public void setByte(int row, int col, byte v) {
+        checkRow(row);
+        checkType(col, BYTE);
+        ((byte[]) columns[col])[row] = v;
+        setNull(row, col, false);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #SHORT}.
+     * @param v The value to set.
+     */
+    public void setShort(int row, int col, short v) {
+        checkRow(row);
+        checkType(col, SHORT);
+        ((short[]) columns[col])[row] = v;
+        setNull(row, col, false);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #INT}.
+     * @param v The value to set.
+     */
+    public void setInt(int row, int col, int v) {
+        checkRow(row);
+        checkType(col, INT);
+        ((int[]) columns[col])[row] = v;
+        setNull(row, col, false);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #LONG}.
+     * @param v The value to set.
+     */
+    public void setLong(int row, int col, long v) {
+        checkRow(row);
+        checkType(col, LONG);
+        ((long[]) columns[col])[row] = v;
+        setNull(row, col, false);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #FLOAT}.
+     * @param v The value to set.
+     */
+    public void setFloat(int row, int col, float v) {
+        checkRow(row);
+        checkType(col, FLOAT);
+        ((float[]) columns[col])[row] = v;
+        setNull(row, col, false);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #DOUBLE}.
+     * @param v The value to set.
+     */
+    public void setDouble(int row, int col, double v) {
+        checkRow(row);
+        checkType(col, DOUBLE);
+        ((double[]) columns[col])[row] = v;
+        setNull(row, col, false);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column.
+     * @return {@code true} iff the value is missing.
+     */
+    public boolean isNull(int row, int col) {
+        checkRow(row);
+        BitSet bs = nulls[col];
+        return bs != null && bs.get(row);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #BYTE}.
+     * @return The value ({@code 0} if missing).
+     */
+    public byte getByte(int row, int col) {
+        checkRow(row);
+        checkType(col, BYTE);
+        return ((byte[]) columns[col])[row];
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #BYTE} or
+     * {@link #SHORT}.
+     * @return The value ({@code 0} if missing).
+     */
+    public short getShort(int row, int col) {
+        checkRow(row);
+        Object c = columns[col];
+        if (c instanceof short[] a) {
+            return a[row];
+        } else if (c instanceof byte[] a) {
+            return a[row];
+        }
+        throw new IllegalArgumentException("Column " + names[col]
+                + " cannot be read as a short");
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #BYTE},
+     * {@link #SHORT} or {@link #INT}.
+     * @return The value ({@code 0} if missing).
+     */
+    public int getInt(int row, int col) {
+        checkRow(row);
+        Object c = columns[col];
+        if (types[col] == INT) {
+            return ((int[]) c)[row];
+        }
+        return getShort(row, col);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of type {@link #BYTE},
+     * {@link #SHORT}, {@link #INT} or {@link #LONG}.
+     * @return The value ({@code 0} if missing).
+     */
+    public long getLong(int row, int col) {
+        checkRow(row);
+        if (types[col] == LONG) {
+            return ((long[]) columns[col])[row];
+        }
+        return getInt(row, col);
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column which must be of a primitive numeric type.
+     * @return The value ({@code 0} if missing).
+     */
+    public double getDouble(int row, int col) {
+        checkRow(row);
+        switch (types[col]) {
+            case DOUBLE:
+                return ((double[]) columns[col])[row];
+            case FLOAT:
+                return ((float[]) columns[col])[row];
+            default:
+                return getLong(row, col);
+        }
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column.
+     * @return The value as an object ({@code null} if missing).
+     */
+    public Object get(int row, int col) {
+        if (isNull(row, col)) {
+            return null;
+        }
+        Object c = columns[col];
+        switch (types[col]) {
+            case STRING:
+                return dictionaries[col].value(((int[]) c)[row]);
+            case BIGDECIMAL:
+                return ((BigDecimal[]) c)[row];
+            case DOUBLE:
+                return ((double[]) c)[row];
+            case FLOAT:
+                return ((float[]) c)[row];
+            case BIGINTEGER:
+                return ((BigInteger[]) c)[row];
+            case LONG:
+                return ((long[]) c)[row];
+            case INT:
+                return ((int[]) c)[row];
+            case SHORT:
+                return ((short[]) c)[row];
+            default:
+                return ((byte[]) c)[row];
+        }
+    }
+
+    /**
+     * @param row The row.
+     * @param col The column.
+     * @return The value as a String ({@code null} if missing).
+     */
+    public String getString(int row, int col) {
+        Object r = get(row, col);
+        return r == null ? null : r.toString();
+    }
+
+    /**
+     * @param rID The record ID.
+     * @return A view of the record with ID {@code rID} or {@code null} if there
+     * is no such record in this collection.
+     */
+    @Override
+    public Data_Record getRecord(Data_RecordID rID) {
+        int row = getRow(rID.id);
+        if (row < 0) {
+            return null;
+        }
+        return new Data_ColumnarRecord(rID, this, row);
+    }
+
+    /**
+     * For adding or replacing a record. The values of {@code r} are copied
+     * into a new row or, if there is already a record with the same ID, into
+     * its row.
+     *
+     * @param r The record. This must be a {@link Data_ColumnarRecord} of a
+     * collection with the same column names and types.
+     * @return A copy of the record replaced or {@code null}.
+     * @throws IllegalArgumentException If {@code r} does not have the same
+     * columns.
+     */
+    @Override
+    public Data_Record putRecord(Data_Record r) {
+        if (!(r instanceof Data_ColumnarRecord cr) || !hasSameColumns(cr.c)) {
+            throw new IllegalArgumentException("Only records with the columns "
+                    + Arrays.toString(names) + " can be put in " + ID);
+        }
+        int row = getRow(r.id.id);
+        Data_Record o = null;
+        if (row < 0) {
+            row = addRow(r.id);
+        } else {
+            o = copy(row);
+        }
+        for (int col = 0; col < columns.length; col++) {
+            setValue(row, col, cr.get(col));
+        }
+        return o;
+    }
+
+    /**
+     * For removing a record. The last row is moved into the row removed, so
+     * any {@link Data_ColumnarRecord} views of the last row obtained before
+     * should not be used afterwards.
+     *
+     * @param rID The ID of the record to remove.
+     * @return A copy of the record removed or {@code null} if there was no
+     * such record.
+     */
+    @Override
+    public Data_Record removeRecord(Data_RecordID rID) {
+        int row = getRow(rID.id);
+        if (row < 0) {
+            return null;
+        }
+        markDirty();
+        Data_Record r = copy(row);
+        int last = n - 1;
+        rows.remove(rID.id);
+        if (row != last) {
+            ids[row] = ids[last];
+            rows.put(ids[row], row);
+            for (int col = 0; col < columns.length; col++) {
+                Object c = columns[col];
+                System.arraycopy(c, last, c, row, 1);
+                BitSet bs = nulls[col];
+                if (bs != null) {
+                    bs.set(row, bs.get(last));
+                }
+            }
+        }
+        for (int col = 0; col < columns.length; col++) {
+            if (columns[col] instanceof Object[] a) {
+                a[last] = null;
+            }
+            BitSet bs = nulls[col];
+            if (bs != null) {
+                bs.clear(last);
+            }
+        }
+        n--;
+        return r;
+    }
+
+    /**
+     * @param ID The ID of the new collection.
+     * @return A new empty collection with the same columns as this.
+     */
+    public Data_ColumnarCollection emptyCopy(Data_CollectionID ID) {
+        return new Data_ColumnarCollection(ID, names.clone(), types.clone());
+    }
+
+    /**
+     * @param c Another collection.
+     * @return {@code true} iff {@code c} has the same column names and types.
+     */
+    public boolean hasSameColumns(Data_ColumnarCollection c) {
+        return c == this || (Arrays.equals(names, c.names)
+                && Arrays.equals(types, c.types));
+    }
+
+    /**
+     * @param row The row.
+     * @return A record with the values in {@code row} that does not change
+     * when this collection does. It is the only row of its collection.
+     */
+    Data_Record copy(int row) {
+        Data_ColumnarCollection r = new Data_ColumnarCollection(ID, names,
+                types);
+        Data_RecordID rID = new Data_RecordID(ids[row]);
+        r.addRow(rID);
+        for (int col = 0; col < columns.length; col++) {
+            r.setValue(0, col, get(row, col));
+        }
+        r.trimToSize();
+        return r.getRecord(rID);
+    }
+
+    /**
+     * For setting a value from an object of the type given by
+     * {@link #get(int, int)}.
+     *
+     * @param row The row.
+     * @param col The column.
+     * @param v The value. If this is {@code null} then the value is set to be
+     * missing. For {@link #STRING} columns this is converted to a String, for
+     * {@link #BIGDECIMAL} and {@link #BIGINTEGER} columns it must be of that
+     * type and for other columns it must be a {@link Number}.
+     */
+    public void setValue(int row, int col, Object v) {
+        checkRow(row);
+        if (v == null) {
+            setNull(row, col, true);
+            return;
+        }
+        Object c = columns[col];
+        switch (types[col]) {
+            case STRING:
+                ((int[]) c)[row] = dictionaries[col].code(v.toString());
+                break;
+            case BIGDECIMAL:
+                ((BigDecimal[]) c)[row] = (BigDecimal) v;
+                break;
+            case DOUBLE:
+                ((double[]) c)[row] = ((Number) v).doubleValue();
+                break;
+            case FLOAT:
+                ((float[]) c)[row] = ((Number) v).floatValue();
+                break;
+            case BIGINTEGER:
+                ((BigInteger[]) c)[row] = (BigInteger) v;
+                break;
+            case LONG:
+                ((long[]) c)[row] = ((Number) v).longValue();
+                break;
+            case INT:
+                ((int[]) c)[row] = ((Number) v).intValue();
+                break;
+            case SHORT:
+                ((short[]) c)[row] = ((Number) v).shortValue();
+                break;
+            default:
+                ((byte[]) c)[row] = ((Number) v).byteValue();
+        }
+        setNull(row, col, false);
+    }
+
+    /**
+     * For writing the values in a row in a compact binary form. Each value is
+     * written as a byte that is {@code 0} if the value is missing and
+     * {@code 1} otherwise followed by the value if it is not missing.
+     * Primitive values are written as their primitive type, Strings and
+     * BigDecimals as the length and UTF-8 bytes of a String and BigIntegers as
+     * the length and bytes of their two's complement representation. This is
+     * what {@link Data_ColumnarRecord#writeFields(DataOutput)} writes.
+     *
+     * @param row The row.
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    public void writeRow(int row, DataOutput out) throws IOException {
+        checkRow(row);
+        for (int col = 0; col < columns.length; col++) {
+            if (isNull(row, col)) {
+                out.writeByte(0);
+                continue;
+            }
+            out.writeByte(1);
+            Object c = columns[col];
+            switch (types[col]) {
+                case STRING:
+                    writeBytes(out, dictionaries[col].value(((int[]) c)[row])
+                            .getBytes(StandardCharsets.UTF_8));
+                    break;
+                case BIGDECIMAL:
+                    writeBytes(out, ((BigDecimal[]) c)[row].toString()
+                            .getBytes(StandardCharsets.UTF_8));
+                    break;
+                case DOUBLE:
+                    out.writeDouble(((double[]) c)[row]);
+                    break;
+                case FLOAT:
+                    out.writeFloat(((float[]) c)[row]);
+                    break;
+                case BIGINTEGER:
+                    writeBytes(out, ((BigInteger[]) c)[row].toByteArray());
+                    break;
+                case LONG:
+                    out.writeLong(((long[]) c)[row]);
+                    break;
+                case INT:
+                    out.writeInt(((int[]) c)[row]);
+                    break;
+                case SHORT:
+                    out.writeShort(((short[]) c)[row]);
+                    break;
+                default:
+                    out.writeByte(((byte[]) c)[row]);
+            }
+        }
+    }
+
+    private static void writeBytes(DataOutput out, byte[] b)
+            throws IOException {
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] r = new byte[in.getInt()];
+        in.get(r);
+        return r;
+    }
+
+    /**
+     * For reading a record written by {@link #writeRow(int, DataOutput)} of a
+     * collection with the same columns as this. This can be used as a
+     * {@link uk.ac.leeds.ccg.data.io.Data_RecordCodec.Reader}. This
+     * collection is not changed.
+     *
+     * @param rID The record ID which has already been read.
+     * @param in The buffer to read the values from.
+     * @return A record holding the values read which can be added to this or
+     * another collection with the same columns using
+     * {@link #putRecord(Data_Record)}.
+     */
+    public Data_Record readRecord(Data_RecordID rID, ByteBuffer in) {
+        Data_ColumnarCollection r = new Data_ColumnarCollection(ID, names,
+                types);
+        r.addRow(rID);
+        for (int col = 0; col < columns.length; col++) {
+            if (in.get() == 0) {
+                continue;
+            }
+            Object v;
+            switch (types[col]) {
+                case STRING:
+                    v = new String(readBytes(in), StandardCharsets.UTF_8);
+                    break;
+                case BIGDECIMAL:
+                    v = new BigDecimal(new String(readBytes(in),
+                            StandardCharsets.UTF_8));
+                    break;
+                case DOUBLE:
+                    v = in.getDouble();
+                    break;
+                case FLOAT:
+                    v = in.getFloat();
+                    break;
+                case BIGINTEGER:
+                    v = new BigInteger(readBytes(in));
+                    break;
+                case LONG:
+                    v = in.getLong();
+                    break;
+                case INT:
+                    v = in.getInt();
+                    break;
+                case SHORT:
+                    v = in.getShort();
+                    break;
+                default:
+                    v = in.get();
+            }
+            r.setValue(0, col, v);
+        }
+        return r.getRecord(rID);
+    }
+
+    /**
+     * @return An iterator over views of the records in row order.
+     */
+    @Override
+    public Iterator<Data_Record> iterator() {
+        return new Iterator<Data_Record>() {
+            int row;
+
+            @Override
+            public boolean hasNext() {
+                return row < n;
+            }
+
+            @Override
+            public Data_Record next() {
+                if (row >= n) {
+                    throw new NoSuchElementException();
+                }
+                Data_Record r = new Data_ColumnarRecord(
+                        new Data_RecordID(ids[row]),
+                        Data_ColumnarCollection.this, row);
+                row++;
+                return r;
+            }
+        };
+    }
+
+    /**
+     * A dictionary for encoding Strings as int codes.
+     */
+    protected static class Dictionary implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        private final ArrayList<String> values = new ArrayList<>();
+
+        /**
+         * @param s The String.
+         * @return The code for {@code s} adding it if necessary.
+         */
+        int code(String s) {
+            Integer r = codes.get(s);
+            if (r == null) {
+                r = values.size();
+                codes.put(s, r);
+                values.add(s);
+            }
+            return r;
+        }
+
+        /**
+         * @param code The code.
+         * @return The String for {@code code}.
+         */
+        String value(int code) {
+            return values.get(code);
+        }
+
+        /**
+         * @return An estimate of the number of bytes of memory retained by
+         * this.
+         */
+        long getSizeEstimate() {
+            long r = 128L;
+            for (String v : values) {
+                r += 120L + v.length();
+            }
+            return r;
+        }
+
+        /**
+         * @return The number of distinct Strings.
+         */
+        int size() {
+            return values.size();
+        }
+    }
+}
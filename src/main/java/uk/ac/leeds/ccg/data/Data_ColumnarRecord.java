@@ -0,0 +1,191 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import uk.ac.leeds.ccg.data.id.Data_ID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ * A view of a row of a {@link Data_ColumnarCollection}. This holds no values
+ * itself, only the collection and the row, so creating one is cheap and the
+ * values stay in the columns. When serialized on its own a copy of the row in
+ * a collection with just that row is written (see {@link #writeReplace()}),
+ * so the size written does not depend on the size of the collection.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_ColumnarRecord extends Data_Record {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The collection.
+     */
+    public final Data_ColumnarCollection c;
+
+    /**
+     * The row in {@link #c}.
+     */
+    public final int row;
+
+    /**
+     * @param id The record ID.
+     * @param c What {@link #c} is set to.
+     * @param row What {@link #row} is set to.
+     */
+    public Data_ColumnarRecord(Data_RecordID id, Data_ColumnarCollection c,
+            int row) {
+        super(id);
+        this.c = c;
+        this.row = row;
+    }
+
+    @Override
+    public Data_ID getId() {
+        return id;
+    }
+
+    /**
+     * For serializing a copy of {@link #row} in a collection with just that
+     * row rather than all of {@link #c}.
+     *
+     * @return This if {@link #c} has just this row, otherwise a copy.
+     * @throws ObjectStreamException Not thrown.
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        if (row == 0 && c.getN() == 1) {
+            return this;
+        }
+        return c.copy(row);
+    }
+
+    /**
+     * @param col The column.
+     * @return {@code true} iff the value is missing.
+     */
+    public boolean isNull(int col) {
+        return c.isNull(row, col);
+    }
+
+    /**
+     * @param col The column.
+     * @return The value (see
+     * {@link Data_ColumnarCollection#getByte(int, int)}).
+     */
+    public byte getByte(int col) {
+        return c.getByte(row, col);
+    }
+
+    /**
+     * @param col The column.
+     * @return The value (see
+     * {@link Data_ColumnarCollection#getShort(int, int)}).
+     */
+    public short getShort(int col) {
+        return c.getShort(row, col);
+    }
+
+    /**
+     * @param col The column.
+     * @return The value (see {@link Data_ColumnarCollection#getInt(int, int)}).
+     */
+    public int getInt(int col) {
+        return c.getInt(row, col);
+    }
+
+    /**
+     * @param col The column.
+     * @return The value (see
+     * {@link Data_ColumnarCollection#getLong(int, int)}).
+     */
+    public long getLong(int col) {
+        return c.getLong(row, col);
+    }
+
+    /**
+     * @param col The column.
+     * @return The value (see
+     * {@link Data_ColumnarCollection#getDouble(int, int)}).
+     */
+    public double getDouble(int col) {
+        return c.getDouble(row, col);
+    }
+
+    /**
+     * @param col The column.
+     * @return The value (see {@link Data_ColumnarCollection#get(int, int)}).
+     */
+    public Object get(int col) {
+        return c.get(row, col);
+    }
+
+    /**
+     * @param name The column name.
+     * @return The value or {@code null} if missing or there is no such column.
+     */
+    public Object get(String name) {
+        int col = c.getColumnIndex(name);
+        return col < 0 ? null : c.get(row, col);
+    }
+
+    /**
+     * @param col The column.
+     * @return The value (see
+     * {@link Data_ColumnarCollection#getString(int, int)}).
+     */
+    public String getString(int col) {
+        return c.getString(row, col);
+    }
+
+    /**
+     * For writing the values in {@link #row} (see
+     * {@link Data_ColumnarCollection#writeRow(int, DataOutput)}). They can be
+     * read back with {@link Data_ColumnarCollection#readRecord}.
+     *
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    @Override
+    public void writeFields(DataOutput out) throws IOException {
+        c.writeRow(row, out);
+    }
+
+    @Override
+    public String toCSV() {
+        StringBuilder sb = new StringBuilder(super.toCSV());
+        for (int col = 0; col < c.getNColumns(); col++) {
+            sb.append(',');
+            String s = c.getString(row, col);
+            if (s != null) {
+                sb.append(s);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toCSVHeader() {
+        StringBuilder sb = new StringBuilder(super.toCSVHeader());
+        for (int col = 0; col < c.getNColumns(); col++) {
+            sb.append(',').append(c.getColumnName(col));
+        }
+        return sb.toString();
+    }
+}
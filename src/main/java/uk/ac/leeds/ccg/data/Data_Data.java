@@ -19,128 +19,1478 @@ import uk.ac.leeds.ccg.data.id.Data_RecordID;
 import uk.ac.leeds.ccg.data.id.Data_CollectionID;
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import uk.ac.leeds.ccg.data.core.Data_Environment;
 import uk.ac.leeds.ccg.data.core.Data_Object;
-import uk.ac.leeds.ccg.data.core.Data_Strings;
+import uk.ac.leeds.ccg.data.index.Data_AttributeIndex;
+import uk.ac.leeds.ccg.data.index.Data_CollectionSummary;
+import uk.ac.leeds.ccg.data.index.Data_LongIntMap;
+import uk.ac.leeds.ccg.data.index.Data_MapPartitioner;
+import uk.ac.leeds.ccg.data.index.Data_Partitioner;
+import uk.ac.leeds.ccg.data.index.Data_SortedIndex;
+import uk.ac.leeds.ccg.data.io.Data_CollectionStore;
+import uk.ac.leeds.ccg.data.io.Data_LogStructuredStore;
+import uk.ac.leeds.ccg.data.io.Data_Manifest;
+import uk.ac.leeds.ccg.data.io.Data_RecordCollectionCodec;
+import uk.ac.leeds.ccg.data.io.Data_SerializedCollectionStore;
+import uk.ac.leeds.ccg.data.io.Data_WriteBehindStore;
+import uk.ac.leeds.ccg.data.memory.Data_CacheStats;
+import uk.ac.leeds.ccg.data.memory.Data_EvictionPolicy;
+import uk.ac.leeds.ccg.data.memory.Data_LRUEvictionPolicy;
+import uk.ac.leeds.ccg.data.memory.Data_MemoryMonitor;
+import uk.ac.leeds.ccg.data.memory.Data_Prefetcher;
+import uk.ac.leeds.ccg.data.memory.Data_SoftCache;
 import uk.ac.leeds.ccg.generic.core.Generic_Environment;
 import uk.ac.leeds.ccg.generic.io.Generic_IO;
 
 /**
  * Represents collections of data.
  *
+ * An instance can be created in concurrent mode (see
+ * {@link #Data_Data(Data_Environment, boolean)}) so that it can be shared by
+ * many threads. In this mode {@link #data} is a {@link ConcurrentHashMap},
+ * lookups in {@link #partitioner} are guarded by a read/write lock, and if
+ * several threads need the same collection that is not in memory, only one
+ * of them loads it while the others wait for the result. Collections can be
+ * cleared from memory while other threads are reading them, but not while
+ * other threads are modifying them.
+ *
+ * By default collections are written to {@link #getCollectionStore()}
+ * whenever they are cleared from memory. If
+ * {@link #setSkipCleanWrites(boolean)} is set {@code true}, then collections
+ * that are not dirty (see {@link Data_Collection#isDirty()}) and are already
+ * in the store are not written again. Only changes made using
+ * {@link Data_Collection#putRecord(Data_Record)} and
+ * {@link Data_Collection#removeRecord(Data_RecordID)} mark a collection
+ * dirty, so code that changes {@link Data_Collection#data} or any record
+ * directly must call {@link Data_Collection#markDirty()} or the changes can
+ * be lost when the collection is cleared.
+ *
  * @author Andy Turner
  * @version 1.0.0
  */
 public abstract class Data_Data extends Data_Object {
 
+    /**
+     * The default false positive rate of the Bloom filters in collection
+     * summaries (see {@link #setBloomFpp(double)}).
+     */
+    public static final double DEFAULT_BLOOM_FPP = 0.01d;
+
     private static final long serialVersionUID = 1L;
 
     /**
      * For convenience. Not declared to be final as when a cached version of
      * this is loaded back in it might need initialising.
      */
-    public transient Generic_Environment env;
-    public transient Generic_IO io;
+    public transient Generic_Environment env;
+    public transient Generic_IO io;
+
+    /**
+     * The collections that are in memory. This is protected as typically it
+     * needs casting for use and should be found via a getData() method.
+     * Collections that are not in memory are not in this map. It should be
+     * added to using {@link #putCollection(Data_CollectionID, Data_Collection)}
+     * and in concurrent mode it cannot contain {@code null} values.
+     */
+    protected final Map<Data_CollectionID, Data_Collection> data;
+
+    /**
+     * The IDs of all the collections whether in memory or not.
+     */
+    protected final NavigableSet<Data_CollectionID> cIDs;
+
+    /**
+     * The estimated sizes in bytes of the collections in {@link #data} (see
+     * {@link Data_Collection#getSizeEstimate()}). These are updated when
+     * collections are loaded, put and cleared, and by
+     * {@link #updateSizeEstimate(Data_CollectionID)}.
+     */
+    protected final Map<Data_CollectionID, Long> sizes;
+
+    /**
+     * The sum of {@link #sizes}.
+     */
+    protected final AtomicLong residentBytes;
+
+    /**
+     * {@code true} iff this can be shared between threads.
+     */
+    protected final boolean concurrent;
+
+    /**
+     * Collections that are being loaded. This is for ensuring that only one
+     * thread loads any collection at a time.
+     */
+    private transient ConcurrentHashMap<Data_CollectionID, CompletableFuture<Data_Collection>> loading;
+
+    /**
+     * Collections requested asynchronously that are being got. This is for
+     * sharing one future between all the outstanding requests for any
+     * collection.
+     */
+    private transient ConcurrentHashMap<Data_CollectionID, CompletableFuture<Data_Collection>> asyncLoading;
+
+    /**
+     * Summaries of the record IDs in collections that are kept when the
+     * collections are cleared from memory, so that lookups for records that
+     * are not in a collection need not load it. A summary is made when a
+     * collection is loaded or cleared, and is removed when a collection is
+     * put.
+     */
+    private transient Map<Data_CollectionID, Data_CollectionSummary> summaries;
+
+    /**
+     * The false positive rate of the Bloom filters in {@link #summaries}.
+     */
+    private transient volatile double bloomFpp;
+
+    /**
+     * If {@code true} then collections that are not dirty and are already in
+     * {@link #store} are not written when they are cleared from memory.
+     */
+    private transient volatile boolean skipCleanWrites;
+
+    /**
+     * Secondary indexes on record attributes keyed by name.
+     */
+    private transient Map<String, Data_AttributeIndex<?>> indexes;
+
+    /**
+     * For getting collections asynchronously. If this is {@code null} then an
+     * executor that starts a new virtual thread for each task is used.
+     */
+    protected transient volatile Executor executor;
+
+    /**
+     * For guarding {@link #partitioner} in concurrent mode.
+     */
+    private transient ReentrantReadWriteLock rIDLock;
+
+    /**
+     * For recording statistics about getting, loading, caching and clearing
+     * collections.
+     */
+    private transient Data_CacheStats stats;
+
+    /**
+     * For looking up a collection ID from a record ID. Keys are
+     * {@link Data_RecordID#id} and values are {@link Data_CollectionID#id}.
+     * This is only used if {@link #partitioner} is a
+     * {@link Data_MapPartitioner} of it, which it is by default.
+     */
+    public final Data_LongIntMap rID_2_cID;
+
+    /**
+     * For looking up a collection ID from a record ID.
+     */
+    protected Data_Partitioner partitioner;
+
+    /**
+     * The directory containing any cached data.
+     */
+    protected File dir;
+
+    /**
+     * For caching and loading collections. If this is {@code null} then a
+     * {@link Data_SerializedCollectionStore} is used.
+     */
+    protected transient volatile Data_CollectionStore store;
+
+    /**
+     * For deciding which collection to cache and clear when memory is needed.
+     * If this is {@code null} then a {@link Data_LRUEvictionPolicy} is used.
+     */
+    protected transient volatile Data_EvictionPolicy evictionPolicy;
+
+    /**
+     * For loading collections in the background ahead of them being needed.
+     * If this is {@code null} then there is no prefetching.
+     */
+    protected transient volatile Data_Prefetcher prefetcher;
+
+    /**
+     * For holding collections that have been cached and cleared so they can
+     * be got back without loading them if the garbage collector has not
+     * reclaimed them. If this is {@code null} then there is no such tier.
+     */
+    protected transient volatile Data_SoftCache softCache;
+
+    /**
+     * @param e What {@link #de} is set to.
+     */
+    public Data_Data(Data_Environment e) {
+        this(e, false);
+    }
+
+    /**
+     * @param e What {@link #de} is set to.
+     * @param concurrent What {@link #concurrent} is set to.
+     */
+    public Data_Data(Data_Environment e, boolean concurrent) {
+        super(e);
+        de = e;
+        env = e.env;
+        this.concurrent = concurrent;
+        if (concurrent) {
+            data = new ConcurrentHashMap<>();
+            cIDs = new ConcurrentSkipListSet<>();
+            sizes = new ConcurrentHashMap<>();
+        } else {
+            data = new HashMap<>();
+            cIDs = new TreeSet<>();
+            sizes = new HashMap<>();
+        }
+        residentBytes = new AtomicLong();
+        rID_2_cID = new Data_LongIntMap();
+        partitioner = new Data_MapPartitioner(rID_2_cID);
+        initTransients();
+    }
+
+    private void initTransients() {
+        loading = new ConcurrentHashMap<>();
+        asyncLoading = new ConcurrentHashMap<>();
+        indexes = new ConcurrentHashMap<>();
+        summaries = new ConcurrentHashMap<>();
+        bloomFpp = DEFAULT_BLOOM_FPP;
+        rIDLock = new ReentrantReadWriteLock();
+        stats = new Data_CacheStats(this);
+    }
+
+    private void readObject(ObjectInputStream ois) throws IOException,
+            ClassNotFoundException {
+        ois.defaultReadObject();
+        if (partitioner == null) {
+            partitioner = new Data_MapPartitioner(rID_2_cID);
+        }
+        initTransients();
+    }
+
+    /**
+     * @return {@link #concurrent}
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * @return The IDs of all the collections whether in memory or not.
+     */
+    public NavigableSet<Data_CollectionID> getCollectionIDs() {
+        return cIDs;
+    }
+
+    /**
+     * @return The number of records stored in all the collections whether in
+     * memory or not as known to {@link #partitioner}.
+     */
+    public long getN() {
+        if (concurrent) {
+            rIDLock.readLock().lock();
+        }
+        try {
+            return partitioner.getN();
+        } finally {
+            if (concurrent) {
+                rIDLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * For looking up the collection ID for a record ID without creating any
+     * objects.
+     *
+     * @param recordId The {@link Data_RecordID#id} of a record.
+     * @return The {@link Data_CollectionID#id} of the collection containing
+     * the record or {@link Data_LongIntMap#NO_VALUE} if the record is not
+     * known.
+     */
+    public int getCollectionId(long recordId) {
+        if (concurrent) {
+            rIDLock.readLock().lock();
+            try {
+                return partitioner.getCollectionId(recordId);
+            } finally {
+                rIDLock.readLock().unlock();
+            }
+        }
+        return partitioner.getCollectionId(recordId);
+    }
+
+    /**
+     * @param rID The record ID.
+     * @return The ID of the collection containing the record with ID
+     * {@code rID} or {@code null} if the record is not known.
+     */
+    public Data_CollectionID getCollectionID(Data_RecordID rID) {
+        int cid = getCollectionId(rID.id);
+        if (cid == Data_LongIntMap.NO_VALUE) {
+            return null;
+        }
+        return new Data_CollectionID(cid);
+    }
+
+    /**
+     * For recording that the record with ID {@code rID} is in the collection
+     * with ID {@code cID}.
+     *
+     * @param rID The record ID.
+     * @param cID The collection ID.
+     */
+    public void putCollectionID(Data_RecordID rID, Data_CollectionID cID) {
+        if (concurrent) {
+            rIDLock.writeLock().lock();
+            try {
+                partitioner.put(rID.id, cID.id);
+            } finally {
+                rIDLock.writeLock().unlock();
+            }
+        } else {
+            partitioner.put(rID.id, cID.id);
+        }
+    }
+
+    /**
+     * @return {@link #partitioner}
+     */
+    public Data_Partitioner getPartitioner() {
+        return partitioner;
+    }
+
+    /**
+     * For setting how collection IDs are looked up from record IDs. For data
+     * where each collection holds a contiguous block of record IDs, a
+     * {@link uk.ac.leeds.ccg.data.index.Data_BlockPartitioner} needs memory
+     * independent of the number of records. Any mappings already recorded are
+     * not copied.
+     *
+     * @param p What {@link #partitioner} is set to.
+     */
+    public void setPartitioner(Data_Partitioner p) {
+        rIDLock.writeLock().lock();
+        try {
+            partitioner = p;
+        } finally {
+            rIDLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return An {@link Data_Record} for the given RecordID or {@code null} if
+     * the record is not known.
+     * @param rID The {@link Data_RecordID} of the {@link Data_Record} to be
+     * returned.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public Data_Record getDataRecord(Data_RecordID rID) throws IOException,
+            ClassNotFoundException {
+        Data_CollectionID cID = getCollectionID(rID);
+        if (cID == null || !mightContain(cID, rID.id)) {
+            return null;
+        }
+        Data_Collection c = getCollection(cID);
+        return c.getRecord(rID);
+    }
+
+    /**
+     * For getting a record asynchronously (see
+     * {@link #getCollectionAsync(Data_CollectionID)}).
+     *
+     * @param rID The {@link Data_RecordID} of the {@link Data_Record} to be
+     * returned.
+     * @return A future for the record or {@code null} if the record is not
+     * known. This completes exceptionally with any {@link IOException} or
+     * {@link ClassNotFoundException} encountered.
+     */
+    public CompletableFuture<Data_Record> getDataRecordAsync(
+            Data_RecordID rID) {
+        Data_CollectionID cID = getCollectionID(rID);
+        if (cID == null || !mightContain(cID, rID.id)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return getCollectionAsync(cID).thenApply(c -> c.getRecord(rID));
+    }
+
+    /**
+     * For getting a collection asynchronously. If the collection is in memory
+     * the future returned is already complete. Otherwise the collection is got
+     * using {@link #getCollection(Data_CollectionID)} on
+     * {@link #getExecutor()}, and all the requests made for the collection
+     * while that is outstanding share it. If this is not {@link #concurrent}
+     * the collection is got in the calling thread as {@link #data} cannot be
+     * shared between threads.
+     *
+     * @param cID Identifier for the collection to be returned.
+     * @return A future for the collection. This completes exceptionally with
+     * any {@link IOException} or {@link ClassNotFoundException} encountered.
+     * Completing it does not affect other requests.
+     */
+    protected CompletableFuture<Data_Collection> getCollectionAsync(
+            Data_CollectionID cID) {
+        Data_Collection r = data.get(cID);
+        if (r != null || !concurrent) {
+            try {
+                return CompletableFuture.completedFuture(getCollection(cID));
+            } catch (IOException | ClassNotFoundException | RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        CompletableFuture<Data_Collection> f = new CompletableFuture<>();
+        CompletableFuture<Data_Collection> g = asyncLoading.putIfAbsent(cID, f);
+        if (g != null) {
+            return g.copy();
+        }
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    f.complete(getCollection(cID));
+                } catch (Throwable t) {
+                    f.completeExceptionally(t);
+                } finally {
+                    asyncLoading.remove(cID, f);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            asyncLoading.remove(cID, f);
+            f.completeExceptionally(e);
+        }
+        return f.copy();
+    }
+
+    /**
+     * @return {@link #executor} initialising it first if it is {@code null}.
+     */
+    public Executor getExecutor() {
+        Executor r = executor;
+        if (r == null) {
+            synchronized (this) {
+                r = executor;
+                if (r == null) {
+                    r = Executors.newVirtualThreadPerTaskExecutor();
+                    executor = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * For setting the executor used to get collections asynchronously. The
+     * previous executor is not shut down.
+     *
+     * @param e What {@link #executor} is set to.
+     */
+    public void setExecutor(Executor e) {
+        executor = e;
+    }
+
+    /**
+     * For getting many records (see {@link #getDataRecords(long[], boolean)}).
+     *
+     * @param ids The {@link Data_RecordID#id} values of the records.
+     * @return The records in the order of {@code ids}.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public Data_Record[] getDataRecords(long[] ids) throws IOException,
+            ClassNotFoundException {
+        return getDataRecords(ids, false);
+    }
+
+    /**
+     * For getting many records. The collection of each record is looked up
+     * and the requests are grouped by collection, so each collection needed
+     * is got once and all the records wanted from it are got together.
+     *
+     * @param ids The {@link Data_RecordID#id} values of the records.
+     * @param parallel If {@code true} and {@link #concurrent} then different
+     * collections are processed in parallel. If this is not concurrent then
+     * this is ignored.
+     * @return The records in the order of {@code ids}. Elements are
+     * {@code null} for records that are not known.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public Data_Record[] getDataRecords(long[] ids, boolean parallel)
+            throws IOException, ClassNotFoundException {
+        Data_Record[] r = new Data_Record[ids.length];
+        /*
+         * Each key is the collection ID in the high 32 bits and the index into
+         * ids in the low 32 bits, so sorting the keys groups the requests by
+         * collection.
+         */
+        long[] keys = new long[ids.length];
+        int n = 0;
+        if (concurrent) {
+            rIDLock.readLock().lock();
+        }
+        try {
+            for (int i = 0; i < ids.length; i++) {
+                int cid = partitioner.getCollectionId(ids[i]);
+                if (cid != Data_LongIntMap.NO_VALUE) {
+                    keys[n] = ((long) cid << 32) | i;
+                    n++;
+                }
+            }
+        } finally {
+            if (concurrent) {
+                rIDLock.readLock().unlock();
+            }
+        }
+        Arrays.sort(keys, 0, n);
+        // Find the start of each group.
+        int[] starts = new int[n + 1];
+        int ngroups = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || (keys[i] >> 32) != (keys[i - 1] >> 32)) {
+                starts[ngroups] = i;
+                ngroups++;
+            }
+        }
+        starts[ngroups] = n;
+        if (parallel && concurrent && ngroups > 1) {
+            AtomicReference<Exception> failure = new AtomicReference<>();
+            IntStream.range(0, ngroups).parallel().forEach(g -> {
+                if (failure.get() == null) {
+                    try {
+                        getDataRecords(ids, keys, starts[g], starts[g + 1], r);
+                    } catch (IOException | ClassNotFoundException
+                            | RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            Exception e = failure.get();
+            if (e instanceof IOException x) {
+                throw x;
+            } else if (e instanceof ClassNotFoundException x) {
+                throw x;
+            } else if (e instanceof RuntimeException x) {
+                throw x;
+            }
+        } else {
+            for (int g = 0; g < ngroups; g++) {
+                getDataRecords(ids, keys, starts[g], starts[g + 1], r);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * For getting the records of a group of requests that are all for the
+     * same collection.
+     *
+     * @param ids The {@link Data_RecordID#id} values of the records.
+     * @param keys The sorted keys for the requests (see
+     * {@link #getDataRecords(long[], boolean)}).
+     * @param from The index in {@code keys} of the first request in the group.
+     * @param to The index in {@code keys} after the last request in the group.
+     * @param r The array to put the records in.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    private void getDataRecords(long[] ids, long[] keys, int from, int to,
+            Data_Record[] r) throws IOException, ClassNotFoundException {
+        Data_CollectionID cID = new Data_CollectionID(
+                (int) (keys[from] >> 32));
+        boolean any = false;
+        for (int k = from; k < to; k++) {
+            if (mightContain(cID, ids[(int) keys[k]])) {
+                any = true;
+                break;
+            }
+        }
+        if (!any) {
+            return;
+        }
+        Data_Collection c = getCollection(cID);
+        for (int k = from; k < to; k++) {
+            int i = (int) keys[k];
+            r[i] = c.getRecord(new Data_RecordID(ids[i]));
+        }
+    }
+
+    /**
+     * For deciding whether a collection might contain a record without
+     * loading it. Collections in memory are assumed to.
+     *
+     * @param cID The collection ID.
+     * @param id The {@link Data_RecordID#id} of the record.
+     * @return {@code false} if the collection is not in memory and its
+     * summary shows it does not contain the record.
+     */
+    private boolean mightContain(Data_CollectionID cID, long id) {
+        if (data.get(cID) != null) {
+            return true;
+        }
+        Data_CollectionSummary s = summaries.get(cID);
+        if (s == null || s.mightContain(id)) {
+            return true;
+        }
+        stats.pruned();
+        return false;
+    }
+
+    /**
+     * For summarising a collection in {@link #summaries}.
+     *
+     * @param cID The collection ID.
+     * @param c The collection.
+     */
+    private void summarise(Data_CollectionID cID, Data_Collection c) {
+        summaries.put(cID, Data_CollectionSummary.build(c, bloomFpp));
+    }
+
+    /**
+     * @param cID The collection ID.
+     * @return The summary of the collection or {@code null} if there is none.
+     */
+    public Data_CollectionSummary getSummary(Data_CollectionID cID) {
+        return summaries.get(cID);
+    }
+
+    /**
+     * @return The false positive rate of the Bloom filters in the summaries of
+     * collections.
+     */
+    public double getBloomFpp() {
+        return bloomFpp;
+    }
+
+    /**
+     * For tuning the Bloom filters in the summaries of collections. Lower
+     * rates mean fewer needless loads and more memory: about 10 bits per
+     * record for 1% and 14 bits for 0.1%. Existing summaries are kept until
+     * their collections are next loaded or cleared.
+     *
+     * @param fpp The false positive rate. If this is not in the range (0, 1)
+     * then summaries only hold the range of record IDs.
+     */
+    public void setBloomFpp(double fpp) {
+        bloomFpp = fpp;
+    }
+
+    /**
+     * For getting the IDs of the collections that might contain records with
+     * IDs in a range. Collections that are not in memory are excluded if their
+     * summaries show no overlap with the range.
+     *
+     * @param fromId The smallest record ID wanted.
+     * @param toId The largest record ID wanted.
+     * @return The IDs of the collections that might contain records with IDs
+     * from {@code fromId} to {@code toId} inclusive.
+     */
+    public List<Data_CollectionID> getCollectionIDs(long fromId, long toId) {
+        List<Data_CollectionID> r = new ArrayList<>();
+        for (Data_CollectionID cID : cIDs) {
+            if (data.get(cID) == null) {
+                Data_CollectionSummary s = summaries.get(cID);
+                if (s != null && !s.overlaps(fromId, toId)) {
+                    stats.pruned();
+                    continue;
+                }
+            }
+            r.add(cID);
+        }
+        return r;
+    }
+
+    /**
+     * For adding a secondary index. Records added after this using
+     * {@link #putRecord(Data_CollectionID, Data_Record)} or
+     * {@link #putCollection(Data_CollectionID, Data_Collection)} are added to
+     * the index. To index existing records, either load the index using
+     * {@link #loadIndexes()} or build it using {@link #buildIndex(String)}.
+     * Indexes are not serialized with this, so need adding again after this
+     * is deserialized.
+     *
+     * @param index The index to add. This replaces any index with the same
+     * name.
+     */
+    public void addIndex(Data_AttributeIndex<?> index) {
+        indexes.put(index.name, index);
+    }
+
+    /**
+     * @param name The name of the index.
+     * @return The index with the given name or {@code null}.
+     */
+    public Data_AttributeIndex<?> getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * @param name The name of the index to remove.
+     * @return The index removed or {@code null}.
+     */
+    public Data_AttributeIndex<?> removeIndex(String name) {
+        return indexes.remove(name);
+    }
+
+    /**
+     * For building an index from all the records (see {@link #records()}).
+     *
+     * @param name The name of the index to build.
+     * @throws java.io.IOException If encountered.
+     */
+    public void buildIndex(String name) throws IOException {
+        Data_AttributeIndex<?> index = indexes.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("No index " + name);
+        }
+        index.clear();
+        try {
+            records().forEach(index::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * For adding a record to a collection and updating {@link #partitioner}
+     * and any indexes. The collection must already exist unless
+     * {@link #getCollectionStore()} is a {@link Data_LogStructuredStore}, in
+     * which case if the collection is not in memory and is not being loaded
+     * the record is appended to the log without loading the collection. While
+     * appending, loads of the collection wait so that they read the log after
+     * the record has been appended.
+     *
+     * @param cID The collection ID.
+     * @param r The record.
+     * @return The record replaced or {@code null}. This is always
+     * {@code null} if the record was appended to the log.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public Data_Record putRecord(Data_CollectionID cID, Data_Record r)
+            throws IOException, ClassNotFoundException {
+        if (getCollectionStore() instanceof Data_LogStructuredStore s
+                && !data.containsKey(cID)) {
+            // Take the place of a load so none starts until appended.
+            CompletableFuture<Data_Collection> f = new CompletableFuture<>();
+            if (loading.putIfAbsent(cID, f) == null) {
+                try {
+                    if (!data.containsKey(cID)) {
+                        append(s, cID, r);
+                        return null;
+                    }
+                } finally {
+                    loading.remove(cID, f);
+                    f.complete(null);
+                }
+            }
+        }
+        Data_Collection c = getCollection(cID);
+        Data_Record o = c.putRecord(r);
+        putCollectionID(r.id, cID);
+        for (Data_AttributeIndex<?> index : indexes.values()) {
+            if (o != null) {
+                index.remove(o);
+            }
+            index.add(r);
+        }
+        return o;
+    }
+
+    /**
+     * For appending a record to the log for a collection that is not in memory
+     * (see {@link #putRecord(Data_CollectionID, Data_Record)}).
+     *
+     * @param s The store.
+     * @param cID The collection ID.
+     * @param r The record.
+     * @throws java.io.IOException If encountered.
+     */
+    private void append(Data_LogStructuredStore s, Data_CollectionID cID,
+            Data_Record r) throws IOException {
+        s.append(cID, r);
+        Data_Prefetcher p = prefetcher;
+        if (p != null) {
+            p.discard(cID);
+        }
+        Data_SoftCache sc = softCache;
+        if (sc != null) {
+            sc.remove(cID);
+        }
+        summaries.remove(cID);
+        cIDs.add(cID);
+        putCollectionID(r.id, cID);
+        // Any record replaced stays in the indexes under its old values
+        // but queries check matches. Indexes hold each record ID at most
+        // once for each value.
+        for (Data_AttributeIndex<?> index : indexes.values()) {
+            index.add(r);
+        }
+    }
+
+    /**
+     * For getting the records with an attribute value using an index. Only
+     * the collections containing records in the index with the value are
+     * got.
+     *
+     * @param <K> The type of the attribute values.
+     * @param index The index.
+     * @param value The attribute value.
+     * @return The records with attribute {@code value}.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public <K> List<Data_Record> getDataRecords(Data_AttributeIndex<K> index,
+            K value) throws IOException, ClassNotFoundException {
+        List<Data_Record> r = new ArrayList<>();
+        for (Data_Record x : getDataRecords(index.get(value))) {
+            if (x != null && index.matches(x, value)) {
+                r.add(x);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * For getting the records with an attribute value in a range using a
+     * sorted index. Only the collections containing records in the index with
+     * values in the range are got.
+     *
+     * @param <K> The type of the attribute values.
+     * @param index The index.
+     * @param from The smallest attribute value wanted.
+     * @param to The largest attribute value wanted.
+     * @return The records with attribute values from {@code from} to
+     * {@code to} inclusive in order of value. Each record is included once.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public <K extends Comparable<? super K>> List<Data_Record> getDataRecords(
+            Data_SortedIndex<K> index, K from, K to) throws IOException,
+            ClassNotFoundException {
+        List<Data_Record> r = new ArrayList<>();
+        HashSet<Long> ids = new HashSet<>();
+        for (Data_Record x : getDataRecords(index.getRange(from, to))) {
+            if (x != null && index.inRange(x, from, to) && ids.add(x.id.id)) {
+                r.add(x);
+            }
+        }
+        /*
+         * A record replaced by appending to the log is also indexed under its
+         * old value, so it may be out of order.
+         */
+        r.sort(Comparator.comparing(index::getValue));
+        return r;
+    }
+
+    /**
+     * For caching all the indexes to {@link #getIndexFile(String)}.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    public void cacheIndexes() throws IOException {
+        for (Data_AttributeIndex<?> index : indexes.values()) {
+            Path f = getIndexFile(index.name);
+            String m = "cache index to " + f.toString();
+            env.logStartTag(m);
+            index.cache(f);
+            env.logEndTag(m);
+        }
+    }
+
+    /**
+     * For loading the indexes that have been cached to
+     * {@link #getIndexFile(String)}.
+     *
+     * @return The number of indexes loaded.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public int loadIndexes() throws IOException, ClassNotFoundException {
+        int r = 0;
+        for (Data_AttributeIndex<?> index : indexes.values()) {
+            Path f = getIndexFile(index.name);
+            if (Files.exists(f)) {
+                String m = "load index from " + f.toString();
+                env.logStartTag(m);
+                index.load(f);
+                env.logEndTag(m);
+                r++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * @param name The name of the index.
+     * @return The file the index with the given name is cached to.
+     * @throws java.io.IOException If encountered.
+     */
+    public Path getIndexFile(String name) throws IOException {
+        return Paths.get(de.files.getGeneratedDir().toString(),
+                "index_" + name + de.files.DOT_DAT);
+    }
+
+    /**
+     * For streaming all the records in all the collections whether in memory
+     * or not (see {@link #records(boolean)}).
+     *
+     * @return A sequential stream of all the records.
+     */
+    public Stream<Data_Record> records() {
+        return records(false);
+    }
+
+    /**
+     * For streaming all the records in all the collections whether in memory
+     * or not. Collections are got one at a time as the stream is consumed
+     * using {@link #readCollection(Data_CollectionID)}, so collections not
+     * already in memory are not added to {@link #data} and can be garbage
+     * collected once their records have been processed. So the memory needed
+     * for a full scan is bounded by the size of the largest collections
+     * rather than the total size of the data. A parallel stream is split at
+     * collection boundaries. The order of records is unspecified.
+     *
+     * IOExceptions are thrown as {@link java.io.UncheckedIOException}s.
+     *
+     * @param parallel If {@code true} then the stream is parallel.
+     * @return A stream of all the records.
+     */
+    public Stream<Data_Record> records(boolean parallel) {
+        Data_CollectionID[] a = cIDs.toArray(new Data_CollectionID[0]);
+        return StreamSupport.stream(new Data_RecordSpliterator(a,
+                getRecordCounts(a), this::readCollection), parallel);
+    }
+
+    /**
+     * For streaming the records with IDs in a range in the same way as
+     * {@link #records(boolean)}. Only the collections that might contain such
+     * records (see {@link #getCollectionIDs(long, long)}) are read.
+     *
+     * @param fromId The smallest record ID wanted.
+     * @param toId The largest record ID wanted.
+     * @param parallel If {@code true} then the stream is parallel.
+     * @return A stream of the records with IDs from {@code fromId} to
+     * {@code toId} inclusive.
+     */
+    public Stream<Data_Record> records(long fromId, long toId,
+            boolean parallel) {
+        Data_CollectionID[] a = getCollectionIDs(fromId, toId).toArray(
+                new Data_CollectionID[0]);
+        return StreamSupport.stream(new Data_RecordSpliterator(a,
+                getRecordCounts(a), this::readCollection), parallel)
+                .filter(x -> x.id.id >= fromId && x.id.id <= toId);
+    }
+
+    /**
+     * For visiting the records with IDs in a range. Only the collections that
+     * might contain such records (see {@link #getCollectionIDs(long, long)})
+     * are read, and as for {@link #records(boolean)}, those not in memory are
+     * not kept in memory. Collections are visited in order of their smallest
+     * record ID and the records of each in order of ID, so the records are
+     * visited in order of ID if collections hold disjoint ranges of IDs.
+     * Collections are ordered without being read: those that are neither in
+     * memory nor summarised (see {@link #getSummary(Data_CollectionID)}) are
+     * ordered using the ranges of IDs known to {@link #partitioner}, so each
+     * collection is read once. The records of a {@link Data_SortedCollection}
+     * are visited without creating any objects; the records in the range from
+     * each other collection are copied into a new list which is sorted.
+     *
+     * @param fromId The smallest record ID wanted.
+     * @param toId The largest record ID wanted.
+     * @param visitor What is done with each record.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    public void scan(long fromId, long toId,
+            Consumer<? super Data_Record> visitor) throws IOException,
+            ClassNotFoundException {
+        List<Data_CollectionID> l = getCollectionIDs(fromId, toId);
+        long[] mins = new long[l.size()];
+        TreeMap<Integer, long[]> ranges = null;
+        for (int i = 0; i < mins.length; i++) {
+            Data_CollectionID cID = l.get(i);
+            Data_Collection c = data.get(cID);
+            if (c != null) {
+                mins[i] = getMinId(c);
+                continue;
+            }
+            Data_CollectionSummary s = summaries.get(cID);
+            if (s != null) {
+                mins[i] = s.min;
+                continue;
+            }
+            if (ranges == null) {
+                ranges = getRecordIdRanges();
+            }
+            long[] range = ranges.get(cID.id);
+            mins[i] = range == null ? Long.MAX_VALUE : range[0];
+        }
+        Integer[] order = new Integer[mins.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (x, y) -> Long.compare(mins[x], mins[y]));
+        for (int i : order) {
+            Data_Collection c = readCollection(l.get(i));
+            if (c instanceof Data_SortedCollection sc) {
+                sc.forEach(fromId, toId, visitor);
+            } else {
+                List<Data_Record> rs = new ArrayList<>();
+                for (Data_Record r : c) {
+                    if (r != null && r.id.id >= fromId && r.id.id <= toId) {
+                        rs.add(r);
+                    }
+                }
+                rs.sort((x, y) -> Long.compare(x.id.id, y.id.id));
+                rs.forEach(visitor);
+            }
+        }
+    }
+
+    /**
+     * @param c The collection.
+     * @return The smallest record ID in {@code c} or {@link Long#MAX_VALUE}
+     * if it has no records.
+     */
+    private static long getMinId(Data_Collection c) {
+        if (c instanceof Data_SortedCollection sc) {
+            return sc.getMinId();
+        }
+        long r = Long.MAX_VALUE;
+        for (Data_Record x : c) {
+            if (x != null) {
+                r = Math.min(r, x.id.id);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * For getting a collection for reading without bringing it into memory
+     * for later use. If the collection is in memory (or held in
+     * {@link #softCache} or prefetched) that is returned, otherwise it is
+     * loaded but not added to {@link #data}.
+     *
+     * @param cID The collection ID.
+     * @return The collection.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    protected Data_Collection readCollection(Data_CollectionID cID)
+            throws IOException, ClassNotFoundException {
+        Data_Collection r = data.get(cID);
+        if (r == null) {
+            Data_SoftCache sc = softCache;
+            if (sc != null) {
+                r = sc.get(cID);
+            }
+            Data_Prefetcher p = prefetcher;
+            if (r == null && p != null) {
+                r = p.take(cID);
+            }
+            if (r == null) {
+                r = loadCollection(cID);
+            }
+            if (!summaries.containsKey(cID)) {
+                summarise(cID, r);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Prints a random sample of {@code n} {@link Data_Record}s drawn using a
+     * {@link Data_Sampler}.
+     *
+     * @param n the number of {@link Data_Record}s to print out.
+     * @param random the {@link Random} used for selecting {@link Data_Record}s
+     * to print.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    protected void print(int n, Random random) throws IOException,
+            ClassNotFoundException {
+        for (Data_Record rec : new Data_Sampler(this, random).sample(n)) {
+            env.log(rec.toString());
+        }
+    }
+
+    /**
+     * @return The ranges of record IDs known to {@link #partitioner} (see
+     * {@link Data_Partitioner#getRecordIdRanges()}).
+     */
+    private TreeMap<Integer, long[]> getRecordIdRanges() {
+        if (concurrent) {
+            rIDLock.readLock().lock();
+        }
+        try {
+            return partitioner.getRecordIdRanges();
+        } finally {
+            if (concurrent) {
+                rIDLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @param a Collection IDs.
+     * @return The number of records in each collection in {@code a} (see
+     * {@link #getRecordCounts()}) in the same order.
+     */
+    private int[] getRecordCounts(Data_CollectionID[] a) {
+        TreeMap<Data_CollectionID, Integer> m = getRecordCounts();
+        int[] r = new int[a.length];
+        for (int i = 0; i < a.length; i++) {
+            r[i] = m.getOrDefault(a[i], 0);
+        }
+        return r;
+    }
+
+    /**
+     * For counting the records in each collection using {@link #partitioner}
+     * so without reading any collection.
+     *
+     * @return The number of records in each collection keyed by collection
+     * ID. Collections with no records known to {@link #partitioner} are not
+     * included.
+     */
+    public TreeMap<Data_CollectionID, Integer> getRecordCounts() {
+        TreeMap<Integer, Integer> m;
+        if (concurrent) {
+            rIDLock.readLock().lock();
+        }
+        try {
+            m = partitioner.getRecordCounts();
+        } finally {
+            if (concurrent) {
+                rIDLock.readLock().unlock();
+            }
+        }
+        TreeMap<Data_CollectionID, Integer> r = new TreeMap<>();
+        m.forEach((k, v) -> r.put(new Data_CollectionID(k), v));
+        return r;
+    }
+
+    /**
+     * For getting a collection.
+     *
+     * @param cID Identifier for the collection to be returned.
+     * @return The {@link Data_Collection} in {@link #data}. If this is null,
+     * then the collection is taken from {@link #softCache} or
+     * {@link #prefetcher} or else loaded from the cache via
+     * {@link #loadCollection(Data_CollectionID)}.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    protected Data_Collection getCollection(Data_CollectionID cID)
+            throws IOException, ClassNotFoundException {
+        Data_Collection r = data.get(cID);
+        if (r == null) {
+            stats.miss();
+            r = loadOnce(cID);
+        } else {
+            stats.hit();
+        }
+        getEvictionPolicy().accessed(cID, getSizeEstimate(cID));
+        if (prefetcher != null) {
+            prefetch(cID);
+        }
+        return r;
+    }
+
+    /**
+     * For getting a collection that was not in memory into memory. The
+     * collection is got from {@link #softCache}, {@link #prefetcher} or the
+     * cache, in that order. If another thread is already loading the
+     * collection, this waits for it and returns the same collection. If
+     * another thread is appending a record for the collection to the log (see
+     * {@link #putRecord(Data_CollectionID, Data_Record)}), this waits for it
+     * and then loads the collection.
+     *
+     * @param cID Identifier for the collection to be returned.
+     * @return The collection.
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    private Data_Collection loadOnce(Data_CollectionID cID)
+            throws IOException, ClassNotFoundException {
+        CompletableFuture<Data_Collection> f = new CompletableFuture<>();
+        CompletableFuture<Data_Collection> g;
+        while ((g = loading.putIfAbsent(cID, f)) != null) {
+            Data_Collection r = await(cID, g);
+            if (r != null) {
+                return r;
+            }
+        }
+        try {
+            Data_Collection r = data.get(cID);
+            if (r == null) {
+                Data_MemoryMonitor m = de.monitor;
+                if (m != null) {
+                    m.relieve();
+                }
+                Data_SoftCache sc = softCache;
+                if (sc != null) {
+                    r = sc.take(cID);
+                    if (r != null) {
+                        stats.softCacheHit();
+                    }
+                }
+                Data_Prefetcher p = prefetcher;
+                if (r == null && p != null) {
+                    r = p.take(cID);
+                    if (r != null) {
+                        r.markClean();
+                        stats.prefetchHit();
+                    }
+                }
+                if (r == null) {
+                    r = loadCollection(cID);
+                    if (r == null) {
+                        throw new NoSuchFileException("No stored copy of "
+                                + "collection " + cID);
+                    }
+                }
+                if (!summaries.containsKey(cID)) {
+                    summarise(cID, r);
+                }
+                data.put(cID, r);
+                cIDs.add(cID);
+                account(cID, r);
+            }
+            f.complete(r);
+            return r;
+        } catch (IOException | ClassNotFoundException | RuntimeException
+                | Error e) {
+            f.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(cID, f);
+        }
+    }
+
+    /**
+     * For waiting for another thread to load a collection.
+     *
+     * @param cID The collection ID.
+     * @param f The future for the load.
+     * @return The collection loaded.
+     * @throws IOException If the load failed with one or if interrupted.
+     * @throws ClassNotFoundException If the load failed with one.
+     */
+    private static Data_Collection await(Data_CollectionID cID,
+            CompletableFuture<Data_Collection> f) throws IOException,
+            ClassNotFoundException {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for " + cID);
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            if (t instanceof IOException x) {
+                throw x;
+            } else if (t instanceof ClassNotFoundException x) {
+                throw x;
+            } else if (t instanceof RuntimeException x) {
+                throw x;
+            } else if (t instanceof Error x) {
+                throw x;
+            }
+            throw new IOException(t);
+        }
+    }
+
+    /**
+     * For prefetching the collections {@link #prefetcher} predicts will be
+     * accessed after the collection with ID {@code cID}. Only collections that
+     * are known but not in memory are prefetched.
+     *
+     * @param cID The ID of the collection accessed.
+     */
+    protected void prefetch(Data_CollectionID cID) {
+        Data_Prefetcher p = prefetcher;
+        if (p == null) {
+            return;
+        }
+        for (Data_CollectionID n : p.predict(cID)) {
+            if (cIDs.contains(n) && data.get(n) == null
+                    && !loading.containsKey(n)) {
+                p.prefetch(n, getCollectionStore());
+            }
+        }
+    }
+
+    /**
+     * @return {@link #prefetcher} which may be {@code null}.
+     */
+    public Data_Prefetcher getPrefetcher() {
+        return prefetcher;
+    }
+
+    /**
+     * For enabling or disabling prefetching.
+     *
+     * @param p What {@link #prefetcher} is set to. If this is {@code null}
+     * then any existing prefetcher is shut down.
+     */
+    public synchronized void setPrefetcher(Data_Prefetcher p) {
+        if (prefetcher != null && prefetcher != p) {
+            prefetcher.shutdown();
+        }
+        prefetcher = p;
+    }
 
     /**
-     * The data stored in a number of collections. This is protected as
-     * typically it needs casting for use and should be found via a getData()
-     * method.
+     * For adding a collection to {@link #data}. Collections should be added
+     * this way rather than directly so that {@link #evictionPolicy} knows
+     * about them and their records are added to any indexes. If a different
+     * collection with the same ID is in memory, then its records are removed
+     * from the indexes first.
+     *
+     * @param cID The collection ID.
+     * @param c The collection.
      */
-    protected final HashMap<Data_CollectionID, Data_Collection> data;
+    public void putCollection(Data_CollectionID cID, Data_Collection c) {
+        Data_Prefetcher p = prefetcher;
+        if (p != null) {
+            p.discard(cID);
+        }
+        Data_SoftCache sc = softCache;
+        if (sc != null) {
+            sc.remove(cID);
+        }
+        summaries.remove(cID);
+        Data_Collection o = data.put(cID, c);
+        cIDs.add(cID);
+        account(cID, c);
+        getEvictionPolicy().accessed(cID, getSizeEstimate(cID));
+        if (!indexes.isEmpty()) {
+            if (o != null && o != c) {
+                for (Data_Record r : o) {
+                    for (Data_AttributeIndex<?> index : indexes.values()) {
+                        index.remove(r);
+                    }
+                }
+            }
+            for (Data_Record r : c) {
+                for (Data_AttributeIndex<?> index : indexes.values()) {
+                    index.add(r);
+                }
+            }
+        }
+    }
 
     /**
-     * For looking up a collection ID from a record ID.
+     * For recording the estimated size of a collection in memory.
+     *
+     * @param cID The collection ID.
+     * @param c The collection.
      */
-    public final HashMap<Data_RecordID, Data_CollectionID> rID_2_cID;
+    private void account(Data_CollectionID cID, Data_Collection c) {
+        long s = c.getSizeEstimate();
+        Long o = sizes.put(cID, s);
+        residentBytes.addAndGet(o == null ? s : s - o);
+    }
 
     /**
-     * The directory containing any cached data.
+     * For forgetting the estimated size of a collection no longer in memory.
+     *
+     * @param cID The collection ID.
+     * @return The estimated size of the collection or {@code 0} if it was not
+     * accounted for.
      */
-    protected File dir;
+    private long unaccount(Data_CollectionID cID) {
+        Long o = sizes.remove(cID);
+        if (o == null) {
+            return 0L;
+        }
+        residentBytes.addAndGet(-o);
+        return o;
+    }
 
     /**
-     * @param e What {@link #de} is set to.
+     * For updating the estimated size of a collection in memory. This should
+     * be called after records are added to or removed from a collection in
+     * memory.
+     *
+     * @param cID The collection ID.
      */
-    public Data_Data(Data_Environment e) {
-        super(e);
-        de = e;
-        env = e.env;
-        data = new HashMap<>();
-        rID_2_cID = new HashMap<>();
+    public void updateSizeEstimate(Data_CollectionID cID) {
+        Data_Collection c = data.get(cID);
+        if (c != null) {
+            account(cID, c);
+        }
     }
 
     /**
-     * @return The number of records stored in all the collections.
+     * @param cID The collection ID.
+     * @return The estimated size in bytes of the collection with ID
+     * {@code cID} or {@code 0} if it is not in memory.
      */
-    public long getN() {
-        return data.values().stream().mapToLong(c -> c.getN()).sum();
+    public long getSizeEstimate(Data_CollectionID cID) {
+        Long r = sizes.get(cID);
+        return r == null ? 0L : r;
     }
 
     /**
-     * @return An {@link Data_Record} for the given RecordID.
-     * @param rID The {@link Data_RecordID} of the {@link Data_Record} to be
-     * returned.
-     * @throws java.io.IOException If encountered.
-     * @throws java.lang.ClassNotFoundException If encountered.
+     * @return The estimated total size in bytes of the collections in memory.
      */
-    public Data_Record getDataRecord(Data_RecordID rID) throws IOException,
-            ClassNotFoundException {
-        Data_CollectionID cID = rID_2_cID.get(rID);
-        Data_Collection c = getCollection(cID);
-        Data_Record r = (Data_Record) c.data.get(rID);
-//        Data_Record r = c.data.get(rID);
-        return r;
+    public long getResidentBytes() {
+        return residentBytes.get();
     }
 
     /**
-     * Prints a random set of {@code >n} {@link Data_Record}s obtained via
-     * {@link #getDataRecord(Data_RecordID)}.
-     *
-     * @param n the number of {@link Data_Record}s to print out.
-     * @param random the {@link Random} used for selecting {@link Data_Record}s
-     * to print.
-     * @throws java.io.IOException If encountered.
-     * @throws java.lang.ClassNotFoundException If encountered.
+     * @return The number of collections in memory.
      */
-    protected void print(int n, Random random) throws IOException,
-            ClassNotFoundException {
-        long N = getN();
-        for (int i0 = 0; i0 < n; i0++) {
-            double double0 = random.nextDouble() * N;
-            Data_RecordID rID = new Data_RecordID((long) double0);
-            Data_Record rec = getDataRecord(rID);
-            env.log(rec.toString());
-        }
+    public int getResidentCount() {
+        return data.size();
     }
 
     /**
-     * For getting a collection.
-     *
-     * @param cID Identifier for the collection to be returned.
-     * @return The {@link Data_Collection} in {@link #data}. If this is null,
-     * then the collection is loaded from the cache via
-     * {@link #loadCollection(Data_CollectionID)}.
-     * @throws java.io.IOException If encountered.
-     * @throws java.lang.ClassNotFoundException If encountered.
+     * @return The statistics about getting, loading, caching and clearing
+     * collections. These can be exposed via JMX using
+     * {@link Data_CacheStats#register(String)}.
      */
-    protected Data_Collection getCollection(Data_CollectionID cID)
-            throws IOException, ClassNotFoundException {
-        Data_Collection r = data.get(cID);
-        if (r == null) {
-            r = (Data_Collection) loadCollection(cID);
-            data.put(cID, r);
-        }
-        return r;
+    public Data_CacheStats getStats() {
+        return stats;
     }
 
     /**
-     * For getting a collection.
+     * For getting a collection. Handling {@link OutOfMemoryError}s should be a
+     * last resort: a memory monitor (see
+     * {@link Data_Environment#startMemoryMonitor(double, double)}) can clear
+     * data before the heap fills.
      *
      * @param cID Identifier for the collection to be returned.
      * @param hoome IFF true then an attempt is made to handle any
@@ -171,68 +1521,408 @@ public abstract class Data_Data extends Data_Object {
     }
 
     /**
-     * For clearing a collection.
+     * For clearing a collection from memory without caching it.
      *
      * @param cID Identifier for the collection to be cleared.
      */
-    public void clearCollection(Data_CollectionID cID) {
+    public synchronized void clearCollection(Data_CollectionID cID) {
         String m = "clearCollection" + cID.toString();
         de.logStartTagMem(m);
-        data.put(cID, null);
+        if (data.remove(cID) != null) {
+            stats.evicted(Data_CacheStats.Reason.EXPLICIT);
+        }
+        unaccount(cID);
+        Data_SoftCache sc = softCache;
+        if (sc != null) {
+            sc.remove(cID);
+        }
+        getEvictionPolicy().removed(cID);
         de.logEndTagMem(m);
     }
 
     /**
-     * Caches and clears the first subset collection retrieved from an iterator.
+     * @return {@link #evictionPolicy} initialising it first if it is
+     * {@code null}.
+     */
+    public Data_EvictionPolicy getEvictionPolicy() {
+        Data_EvictionPolicy r = evictionPolicy;
+        if (r == null) {
+            synchronized (this) {
+                r = evictionPolicy;
+                if (r == null) {
+                    r = new Data_LRUEvictionPolicy();
+                    evictionPolicy = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * For setting the eviction policy. The new policy is told about all the
+     * collections currently in memory.
+     *
+     * @param p What {@link #evictionPolicy} is set to.
+     */
+    public synchronized void setEvictionPolicy(Data_EvictionPolicy p) {
+        evictionPolicy = p;
+        data.forEach((cID, c) -> {
+            if (c != null) {
+                p.accessed(cID, getSizeEstimate(cID));
+            }
+        });
+    }
+
+    /**
+     * Caches and clears the subset collection selected by
+     * {@link #getEvictionPolicy()}. If the policy selects nothing, then the
+     * first subset collection in memory retrieved from an iterator is cached
+     * and cleared. Any prefetched collections are discarded first as these
+     * have not yet been used, and then any collections held in
+     * {@link #softCache} as these are already cached.
      *
-     * @return {@code true} iff a subset collection was cached and cleared.
+     * @return {@code true} iff a subset collection was cached and cleared or
+     * some prefetched or soft cached collections were discarded.
      * @throws java.io.IOException If encountered.
      */
-    public boolean clearSomeData() throws IOException {
-        Iterator<Data_CollectionID> ite = data.keySet().iterator();
-        while (ite.hasNext()) {
-            Data_CollectionID cID = ite.next();
+    public synchronized boolean clearSomeData() throws IOException {
+        Data_Prefetcher pf = prefetcher;
+        if (pf != null && pf.clear() > 0) {
+            return true;
+        }
+        Data_SoftCache sc = softCache;
+        if (sc != null && sc.clear() > 0L) {
+            return true;
+        }
+        return clearOne(Data_CacheStats.Reason.MEMORY) >= 0L;
+    }
+
+    /**
+     * Caches and clears subset collections selected by
+     * {@link #getEvictionPolicy()} until the estimated sizes of those cleared
+     * add up to at least {@code bytes} or there are no more to clear. Any
+     * prefetched collections are discarded first, and then any collections
+     * held in {@link #softCache} which count towards the bytes cleared.
+     *
+     * @param bytes The number of bytes wanted.
+     * @return The estimated number of bytes cleared.
+     * @throws java.io.IOException If encountered.
+     */
+    public synchronized long clearData(long bytes) throws IOException {
+        Data_Prefetcher pf = prefetcher;
+        if (pf != null) {
+            pf.clear();
+        }
+        Data_SoftCache sc = softCache;
+        long r = sc == null ? 0L : sc.clear();
+        while (r < bytes) {
+            long s = clearOne(Data_CacheStats.Reason.MEMORY);
+            if (s < 0L) {
+                break;
+            }
+            r += s;
+        }
+        return r;
+    }
+
+    /**
+     * Caches and clears the subset collection selected by
+     * {@link #getEvictionPolicy()} or if that selects nothing, the first
+     * subset collection in memory retrieved from an iterator.
+     *
+     * @param reason Why the collection is being cleared.
+     * @return The estimated size of the collection cleared or {@code -1} if
+     * nothing was cleared.
+     * @throws java.io.IOException If encountered.
+     */
+    private long clearOne(Data_CacheStats.Reason reason) throws IOException {
+        Data_EvictionPolicy p = getEvictionPolicy();
+        Data_CollectionID cID = p.selectVictim();
+        while (cID != null) {
+            p.removed(cID);
             Data_Collection c = data.get(cID);
             if (c != null) {
-                cacheCollection(cID, c);
-                data.put(cID, null);
+                return release(cID, c, reason);
             }
-            return true;
+            cID = p.selectVictim();
         }
-        return false;
+        Iterator<Map.Entry<Data_CollectionID, Data_Collection>> ite
+                = data.entrySet().iterator();
+        while (ite.hasNext()) {
+            Map.Entry<Data_CollectionID, Data_Collection> e = ite.next();
+            Data_Collection c = e.getValue();
+            if (c != null) {
+                cID = e.getKey();
+                return release(cID, c, reason);
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * For caching a collection and clearing it from {@link #data}. The
+     * collection is then held in {@link #softCache} if there is one.
+     *
+     * @param cID The collection ID.
+     * @param c The collection.
+     * @param reason Why the collection is being cleared.
+     * @return The estimated size of the collection.
+     * @throws java.io.IOException If encountered.
+     */
+    private long release(Data_CollectionID cID, Data_Collection c,
+            Data_CacheStats.Reason reason) throws IOException {
+        cacheIfDirty(cID, c);
+        stats.evicted(reason);
+        data.remove(cID, c);
+        Data_SoftCache sc = softCache;
+        if (sc != null) {
+            sc.put(cID, c);
+        }
+        return unaccount(cID);
+    }
+
+    /**
+     * @return {@link #softCache} which may be {@code null}.
+     */
+    public Data_SoftCache getSoftCache() {
+        return softCache;
+    }
+
+    /**
+     * For enabling or disabling the second chance tier for collections
+     * cleared from memory.
+     *
+     * @param sc What {@link #softCache} is set to.
+     */
+    public synchronized void setSoftCache(Data_SoftCache sc) {
+        if (softCache != null && softCache != sc) {
+            softCache.clear();
+        }
+        softCache = sc;
+    }
+
+    /**
+     * For caching a collection that is about to be cleared from memory unless
+     * {@link #skipCleanWrites} is {@code true}, it is not dirty and
+     * {@link #getCollectionStore()} already has it. The collection is
+     * summarised if it has no summary.
+     *
+     * @param cID The collection ID.
+     * @param c The collection.
+     * @throws java.io.IOException If encountered.
+     */
+    private void cacheIfDirty(Data_CollectionID cID, Data_Collection c)
+            throws IOException {
+        if (!skipCleanWrites || c.isDirty()
+                || !getCollectionStore().contains(cID)) {
+            cacheCollection(cID, c);
+        } else {
+            if (!summaries.containsKey(cID)) {
+                summarise(cID, c);
+            }
+            stats.skippedWrite();
+        }
+    }
+
+    /**
+     * @return The number of collections written since this was constructed or
+     * deserialized.
+     */
+    public long getWriteCount() {
+        return stats.getWriteCount();
+    }
+
+    /**
+     * @return The number of collections cleared from memory without being
+     * written because they were unchanged since they were last cached or
+     * loaded.
+     */
+    public long getSkippedWriteCount() {
+        return stats.getSkippedWriteCount();
+    }
+
+    /**
+     * @return {@link #skipCleanWrites}.
+     */
+    public boolean isSkipCleanWrites() {
+        return skipCleanWrites;
+    }
+
+    /**
+     * For setting whether collections that are unchanged since they were last
+     * cached or loaded are written again when they are cleared from memory.
+     * This should only be set {@code true} if all changes to collections are
+     * made using {@link Data_Collection#putRecord(Data_Record)} and
+     * {@link Data_Collection#removeRecord(Data_RecordID)} or are followed by
+     * {@link Data_Collection#markDirty()}.
+     *
+     * @param skipCleanWrites What {@link #skipCleanWrites} is set to.
+     */
+    public void setSkipCleanWrites(boolean skipCleanWrites) {
+        this.skipCleanWrites = skipCleanWrites;
     }
 
     /**
-     * Caches and cleared all subset collections.
+     * Caches (unless unchanged and {@link #skipCleanWrites} is {@code true})
+     * and clears all subset collections.
      *
      * @return The number of subset collections cached and cleared.
-        * @throws java.io.IOException If encountered.
-  */
-    public int clearAllData() throws IOException {
+     * @throws java.io.IOException If encountered.
+     */
+    public synchronized int clearAllData() throws IOException {
         int r = 0;
-        Iterator<Data_CollectionID> ite = data.keySet().iterator();
+        Iterator<Map.Entry<Data_CollectionID, Data_Collection>> ite
+                = data.entrySet().iterator();
         while (ite.hasNext()) {
-            Data_CollectionID cID = ite.next();
-            Data_Collection c = data.get(cID);
+            Map.Entry<Data_CollectionID, Data_Collection> e = ite.next();
+            Data_Collection c = e.getValue();
             if (c != null) {
-                cacheCollection(cID, c);
-                data.put(cID, null);
+                cacheIfDirty(e.getKey(), c);
+                stats.evicted(Data_CacheStats.Reason.CLEAR_ALL);
+                Data_SoftCache sc = softCache;
+                if (sc != null) {
+                    sc.put(e.getKey(), c);
+                }
                 r++;
             }
+            ite.remove();
+        }
+        sizes.clear();
+        residentBytes.set(0L);
+        getEvictionPolicy().clear();
+        return r;
+    }
+
+    /**
+     * @return {@link #store} initialising it first if it is {@code null}.
+     */
+    public Data_CollectionStore getCollectionStore() {
+        Data_CollectionStore r = store;
+        if (r == null) {
+            synchronized (this) {
+                r = store;
+                if (r == null) {
+                    r = new Data_SerializedCollectionStore(de.files);
+                    store = r;
+                }
+            }
+        }
+        return r;
+    }
+
+    /**
+     * For setting how collections are cached and loaded. By default
+     * collections are cached with Java serialization by a
+     * {@link Data_SerializedCollectionStore}. Stores such as
+     * {@link uk.ac.leeds.ccg.data.io.Data_MappedCollectionStore} take a
+     * {@link uk.ac.leeds.ccg.data.io.Data_CollectionCodec} such as a
+     * {@link uk.ac.leeds.ccg.data.io.Data_RecordCodec} which avoids
+     * serialization. This should be set before any collections are cached.
+     *
+     * @param s What {@link #store} is set to.
+     */
+    public void setCollectionStore(Data_CollectionStore s) {
+        store = s;
+    }
+
+    /**
+     * For caching collections asynchronously. The current store is wrapped in
+     * a {@link Data_WriteBehindStore} so that {@link #clearSomeData()} and
+     * {@link #clearAllData()} do not wait for collections to be written. If
+     * both this and {@link #enableLog(Data_RecordCollectionCodec)} are wanted
+     * then this must be called first, so that the log is written to directly
+     * and its base store is written to asynchronously.
+     *
+     * @param nThreads The number of background writer threads.
+     * @param maxPending The maximum number of collections waiting to be
+     * written.
+     * @return The store now in use.
+     * @throws IllegalStateException If write-behind or the log is already
+     * enabled.
+     */
+    public synchronized Data_WriteBehindStore enableWriteBehind(int nThreads,
+            int maxPending) {
+        Data_CollectionStore s = getCollectionStore();
+        if (s instanceof Data_WriteBehindStore
+                || s instanceof Data_LogStructuredStore) {
+            throw new IllegalStateException("Write-behind must be enabled "
+                    + "once and before the log, not on " + s);
+        }
+        Data_WriteBehindStore r = new Data_WriteBehindStore(
+                s, nThreads, maxPending);
+        store = r;
+        return r;
+    }
+
+    /**
+     * For caching changes to collections by appending them to a log. The
+     * current store becomes the base store of a {@link Data_LogStructuredStore}
+     * in {@link uk.ac.leeds.ccg.data.io.Data_Files#getLogDir()} which changes
+     * are merged into by {@link Data_LogStructuredStore#compact()}. This must
+     * be called after {@link #enableWriteBehind(int, int)} if that is also
+     * wanted, as {@link #putRecord(Data_CollectionID, Data_Record)} only
+     * appends to the log if it is the store in use.
+     *
+     * @param codec For encoding records and collections in the log. This may
+     * be {@code null} in which case Java serialization is used.
+     * @return The store now in use.
+     * @throws java.io.IOException If encountered.
+     * @throws IllegalStateException If the log is already enabled.
+     */
+    public synchronized Data_LogStructuredStore enableLog(
+            Data_RecordCollectionCodec codec) throws IOException {
+        Data_CollectionStore s = getCollectionStore();
+        if (s instanceof Data_LogStructuredStore) {
+            throw new IllegalStateException("The log is already enabled "
+                    + "with " + s);
         }
+        Data_LogStructuredStore r = new Data_LogStructuredStore(de.files, s,
+                codec);
+        store = r;
         return r;
     }
 
     /**
-     * For caching a subset collection.
+     * For waiting until all collections cached so far have been written.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    public void flushCollections() throws IOException {
+        getCollectionStore().flush();
+    }
+
+    /**
+     * For caching a subset collection. The collection is also summarised (see
+     * {@link #getSummary(Data_CollectionID)}).
      *
      * @param cID the ID of subset collection to be cached.
-     * @param o the subset collection to be cached.
-       * @throws java.io.IOException If encountered.
-   */
-    public void cacheCollection(Data_CollectionID cID, Object o)
+     * @param c the subset collection to be cached.
+     * @throws java.io.IOException If encountered.
+     */
+    public void cacheCollection(Data_CollectionID cID, Data_Collection c)
             throws IOException {
-        cache(getCollectionFile(cID), o);
+        String m = "cache collection " + cID.toString();
+        env.logStartTag(m);
+        Data_Prefetcher p = prefetcher;
+        if (p != null) {
+            p.discard(cID);
+        }
+        /*
+         * Mark clean before writing so that any change made while writing
+         * leaves the collection dirty.
+         */
+        c.markClean();
+        summarise(cID, c);
+        Data_CollectionStore s = getCollectionStore();
+        try {
+            s.write(cID, c);
+        } catch (IOException | RuntimeException e) {
+            c.markDirty();
+            throw e;
+        }
+        stats.written(s.getSize(cID));
+        cIDs.add(cID);
+        env.logEndTag(m);
     }
 
     /**
@@ -243,9 +1933,132 @@ public abstract class Data_Data extends Data_Object {
      * @throws java.io.IOException If encountered.
      * @throws java.lang.ClassNotFoundException If encountered.
      */
-    public Object loadCollection(Data_CollectionID cID) throws IOException,
-            ClassNotFoundException {
-        return load(getCollectionFile(cID));
+    public Data_Collection loadCollection(Data_CollectionID cID)
+            throws IOException, ClassNotFoundException {
+        String m = "load collection " + cID.toString();
+        env.logStartTag(m);
+        long t0 = System.nanoTime();
+        Data_CollectionStore s = getCollectionStore();
+        Data_Collection r = s.read(cID);
+        if (r != null) {
+            r.markClean();
+            stats.loaded(System.nanoTime() - t0, s.getSize(cID));
+        }
+        env.logEndTag(m);
+        return r;
+    }
+
+    /**
+     * For caching {@link #rID_2_cID} to {@link #getRecordIndexFile()}. This is
+     * not needed unless {@link #partitioner} uses {@link #rID_2_cID}.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    public void cacheRecordIndex() throws IOException {
+        Path f = getRecordIndexFile();
+        String m = "cache record index to " + f.toString();
+        env.logStartTag(m);
+        rIDLock.readLock().lock();
+        try {
+            rID_2_cID.cache(f);
+        } finally {
+            rIDLock.readLock().unlock();
+        }
+        env.logEndTag(m);
+    }
+
+    /**
+     * For loading {@link #rID_2_cID} from {@link #getRecordIndexFile()}.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    public void loadRecordIndex() throws IOException {
+        Path f = getRecordIndexFile();
+        String m = "load record index from " + f.toString();
+        env.logStartTag(m);
+        rIDLock.writeLock().lock();
+        try {
+            rID_2_cID.load(f);
+        } finally {
+            rIDLock.writeLock().unlock();
+        }
+        env.logEndTag(m);
+    }
+
+    /**
+     * For writing a manifest of all the collections and {@link #partitioner}
+     * to {@link #getManifestFile()} (see {@link Data_Manifest}). Any collections
+     * waiting to be written are flushed first. The manifest describes the
+     * cache, so collections in memory should be cached before this is called
+     * if they are to be loadable after a restart.
+     *
+     * @return The manifest written.
+     * @throws java.io.IOException If encountered.
+     */
+    public Data_Manifest cacheManifest() throws IOException {
+        Path f = getManifestFile();
+        String m = "cache manifest to " + f.toString();
+        env.logStartTag(m);
+        flushCollections();
+        Data_Manifest r;
+        rIDLock.readLock().lock();
+        try {
+            r = Data_Manifest.build(cIDs, partitioner);
+            r.write(f, partitioner);
+        } finally {
+            rIDLock.readLock().unlock();
+        }
+        env.logEndTag(m);
+        return r;
+    }
+
+    /**
+     * For loading {@link #partitioner} and the collection IDs from
+     * {@link #getManifestFile()} so that any record can be got without first
+     * loading all the collections. If the partitioner is a
+     * {@link Data_MapPartitioner} then its map is read into
+     * {@link #rID_2_cID}. No collection is read.
+     *
+     * @return The manifest loaded or {@code null} if there is no manifest
+     * file.
+     * @throws java.io.IOException If encountered.
+     */
+    public Data_Manifest loadManifest() throws IOException {
+        Path f = getManifestFile();
+        if (!Files.exists(f)) {
+            return null;
+        }
+        String m = "load manifest from " + f.toString();
+        env.logStartTag(m);
+        Data_Manifest r;
+        rIDLock.writeLock().lock();
+        try {
+            r = Data_Manifest.read(f, rID_2_cID);
+            partitioner = r.getPartitioner();
+        } finally {
+            rIDLock.writeLock().unlock();
+        }
+        cIDs.addAll(r.getEntries().keySet());
+        env.logEndTag(m);
+        return r;
+    }
+
+    /**
+     * @return The file the manifest is cached to.
+     * @throws java.io.IOException If encountered.
+     */
+    public Path getManifestFile() throws IOException {
+        return Paths.get(de.files.getGeneratedDir().toString(),
+                "manifest" + de.files.DOT_DAT);
+    }
+
+    /**
+     * @return The file {@link #rID_2_cID} is cached to.
+     * @throws java.io.IOException If encountered.
+     */
+    public Path getRecordIndexFile() throws IOException {
+        return Paths.get(de.files.getGeneratedDir().toString(),
+                "rID_2_cID" + de.files.DOT_DAT);
     }
 
     /**
@@ -256,9 +2069,7 @@ public abstract class Data_Data extends Data_Object {
        * @throws java.io.IOException If encountered.
    */
     public Path getCollectionFile(Data_CollectionID cID) throws IOException {
-        return Paths.get(de.files.getGeneratedDir().toString(),
-                Data_Strings.s_DATA + Data_Strings.symbol_underscore + cID
-                + de.files.DOT_DAT);
+        return de.files.getCollectionFile(cID, de.files.DOT_DAT);
     }
 
     /**
@@ -16,6 +16,8 @@
 package uk.ac.leeds.ccg.data;
 
 import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Objects;
 import uk.ac.leeds.ccg.data.core.Data_Strings;
@@ -46,6 +48,33 @@ public abstract class Data_Record implements Serializable, Comparable<Data_Recor
      */
     public abstract Data_ID getId();
 
+    /**
+     * For writing the fields of this record other than {@link #id} in a
+     * compact binary form. This is the hook used by
+     * {@link uk.ac.leeds.ccg.data.io.Data_RecordCodec} which writes the
+     * {@link #id} and then calls this. Subclasses with fields should override
+     * this and provide a {@link uk.ac.leeds.ccg.data.io.Data_RecordCodec.Reader}
+     * that reads the fields back in the same order. Records whose fields are
+     * all written as primitives take the same number of bytes each. This
+     * default implementation writes nothing.
+     *
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    public void writeFields(DataOutput out) throws IOException {
+    }
+
+    /**
+     * For estimating the number of bytes of memory retained by this record
+     * including {@link #id}, assuming a 64 bit JVM with compressed references.
+     * Subclasses with fields should override this to add the size of those.
+     *
+     * @return An estimate of the bytes retained by this record.
+     */
+    public long getSizeEstimate() {
+        return 40L;
+    }
+
     /**
      * @return A String representation of this.
      */
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * A {@link Spliterator} over all the records in a sequence of collections.
+ * Collections are got one at a time as the records are traversed, and the
+ * reference to each is dropped once all its records have been traversed, so
+ * at most one collection is held by each spliterator at any time. Splitting is
+ * done at collection boundaries, so a parallel stream processes whole
+ * collections in each thread.
+ *
+ * If the number of records in each collection is given then
+ * {@link #estimateSize()} is the number of records remaining in the current
+ * collection plus those in the collections not yet started, otherwise it is
+ * {@link Long#MAX_VALUE}. Null records are skipped.
+ *
+ * IOExceptions encountered getting a collection are thrown as
+ * {@link UncheckedIOException}s, and ClassNotFoundExceptions are wrapped in
+ * these too.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_RecordSpliterator implements Spliterator<Data_Record> {
+
+    /**
+     * For getting collections.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        /**
+         * @param cID The collection ID.
+         * @return The collection with ID {@code cID}.
+         * @throws IOException If encountered.
+         * @throws ClassNotFoundException If encountered.
+         */
+        Data_Collection get(Data_CollectionID cID) throws IOException,
+                ClassNotFoundException;
+    }
+
+    /**
+     * The IDs of the collections to traverse.
+     */
+    protected final Data_CollectionID[] cIDs;
+
+    /**
+     * For getting the collections.
+     */
+    protected final Loader loader;
+
+    /**
+     * The cumulative numbers of records: element {@code i} is the number of
+     * records in the collections with IDs {@code cIDs[0]} to
+     * {@code cIDs[i - 1]}. This is {@code null} if the numbers are not known.
+     */
+    protected final long[] cumulativeCounts;
+
+    /**
+     * The index in {@link #cIDs} of the next collection to get.
+     */
+    protected int lo;
+
+    /**
+     * The index in {@link #cIDs} after the last collection to get.
+     */
+    protected final int hi;
+
+    /**
+     * For iterating over the records of the current collection. This is
+     * {@code null} between collections.
+     */
+    protected Iterator<Data_Record> ite;
+
+    /**
+     * The number of records of the current collection not yet traversed.
+     */
+    protected int remaining;
+
+    /**
+     * @param cIDs What {@link #cIDs} is set to.
+     * @param loader What {@link #loader} is set to.
+     */
+    public Data_RecordSpliterator(Data_CollectionID[] cIDs, Loader loader) {
+        this(cIDs, 0, cIDs.length, loader, null);
+    }
+
+    /**
+     * @param cIDs What {@link #cIDs} is set to.
+     * @param counts The number of records in each collection, in the same
+     * order as {@code cIDs}, used for estimating the size.
+     * @param loader What {@link #loader} is set to.
+     */
+    public Data_RecordSpliterator(Data_CollectionID[] cIDs, int[] counts,
+            Loader loader) {
+        this(cIDs, 0, cIDs.length, loader, cumulate(counts));
+    }
+
+    /**
+     * @param cIDs What {@link #cIDs} is set to.
+     * @param lo What {@link #lo} is set to.
+     * @param hi What {@link #hi} is set to.
+     * @param loader What {@link #loader} is set to.
+     * @param cumulativeCounts What {@link #cumulativeCounts} is set to.
+     */
+    protected Data_RecordSpliterator(Data_CollectionID[] cIDs, int lo, int hi,
+            Loader loader, long[] cumulativeCounts) {
+        this.cIDs = cIDs;
+        this.lo = lo;
+        this.hi = hi;
+        this.loader = loader;
+        this.cumulativeCounts = cumulativeCounts;
+    }
+
+    private static long[] cumulate(int[] counts) {
+        long[] r = new long[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            r[i + 1] = r[i] + Math.max(0, counts[i]);
+        }
+        return r;
+    }
+
+    /**
+     * For getting the next collection and setting {@link #ite} to iterate
+     * over its records.
+     *
+     * @return {@code false} iff there are no more collections.
+     */
+    private boolean next() {
+        if (lo >= hi) {
+            return false;
+        }
+        Data_CollectionID cID = cIDs[lo];
+        lo++;
+        try {
+            Data_Collection c = loader.get(cID);
+            ite = c == null ? null : c.iterator();
+            remaining = c == null ? 0 : c.getN();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Data_Record> action) {
+        while (true) {
+            while (ite == null || !ite.hasNext()) {
+                ite = null;
+                if (!next()) {
+                    return false;
+                }
+            }
+            Data_Record r = ite.next();
+            remaining--;
+            if (r != null) {
+                action.accept(r);
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Data_Record> action) {
+        do {
+            if (ite != null) {
+                while (ite.hasNext()) {
+                    Data_Record r = ite.next();
+                    if (r != null) {
+                        action.accept(r);
+                    }
+                }
+                ite = null;
+                remaining = 0;
+            }
+        } while (next());
+    }
+
+    /**
+     * Splits off the first half of the collections not yet started.
+     *
+     * @return A spliterator for the first half of the remaining collections
+     * or {@code null} if there are fewer than two.
+     */
+    @Override
+    public Spliterator<Data_Record> trySplit() {
+        int n = hi - lo;
+        if (n < 2) {
+            return null;
+        }
+        int mid = lo + (n >>> 1);
+        Data_RecordSpliterator r = new Data_RecordSpliterator(cIDs, lo, mid,
+                loader, cumulativeCounts);
+        lo = mid;
+        return r;
+    }
+
+    /**
+     * @return The number of records remaining or {@link Long#MAX_VALUE} if
+     * the numbers of records in the collections were not given.
+     */
+    @Override
+    public long estimateSize() {
+        if (cumulativeCounts == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, remaining) + cumulativeCounts[hi]
+                - cumulativeCounts[lo];
+    }
+
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+}
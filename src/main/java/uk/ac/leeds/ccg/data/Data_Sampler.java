@@ -0,0 +1,264 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import uk.ac.leeds.ccg.data.index.Data_LongIntMap;
+
+/**
+ * For sampling records from a {@link Data_Data}. The draws are planned before
+ * any collection is read so that each collection is read at most once, and
+ * only collections from which records are drawn are read. Collections are
+ * read using {@link Data_Data#readCollection(Data_CollectionID)} so sampling
+ * does not bring collections into memory for later use.
+ *
+ * Samples are reproducible: with the same seed and the same data the same
+ * records are drawn. To achieve this, collections are visited in ID order
+ * and the records in each collection are ordered by ID.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_Sampler {
+
+    /**
+     * The data to sample.
+     */
+    protected final Data_Data d;
+
+    /**
+     * The source of randomness.
+     */
+    protected final Random random;
+
+    /**
+     * @param d What {@link #d} is set to.
+     * @param seed The seed for {@link #random}.
+     */
+    public Data_Sampler(Data_Data d, long seed) {
+        this(d, new Random(seed));
+    }
+
+    /**
+     * @param d What {@link #d} is set to.
+     * @param random What {@link #random} is set to.
+     */
+    public Data_Sampler(Data_Data d, Random random) {
+        this.d = d;
+        this.random = random;
+    }
+
+    /**
+     * For drawing a uniform random sample without replacement from all the
+     * records. The number of records in each collection is got from
+     * {@link Data_Data#getRecordCounts()}, positions in the concatenation of
+     * all the collections are drawn, and then each collection containing a
+     * drawn position is read once. If no records are known to
+     * {@link Data_Data#getPartitioner()} then {@link #sampleStream(int)} is
+     * used instead.
+     *
+     * @param n The sample size.
+     * @return The sample ordered by collection ID and then record ID. If there
+     * are fewer than {@code n} records, then all are returned.
+     * @throws IOException If encountered.
+     * @throws ClassNotFoundException If encountered.
+     */
+    public List<Data_Record> sample(int n) throws IOException,
+            ClassNotFoundException {
+        TreeMap<Data_CollectionID, Integer> counts = d.getRecordCounts();
+        if (counts.isEmpty()) {
+            return sampleStream(n);
+        }
+        long N = 0L;
+        for (int m : counts.values()) {
+            N += m;
+        }
+        long[] ps = choose(N, (int) Math.min(n, N), random);
+        List<Data_Record> r = new ArrayList<>(ps.length);
+        int i = 0;
+        long offset = 0L;
+        for (Map.Entry<Data_CollectionID, Integer> e : counts.entrySet()) {
+            long end = offset + e.getValue();
+            int j = i;
+            while (j < ps.length && ps[j] < end) {
+                j++;
+            }
+            if (j > i) {
+                Data_Collection c = d.readCollection(e.getKey());
+                long[] ids = getSortedIds(c);
+                for (int k = i; k < j; k++) {
+                    long p = ps[k] - offset;
+                    if (p < ids.length) {
+                        r.add(c.getRecord(new Data_RecordID(ids[(int) p])));
+                    }
+                }
+            }
+            if (j == ps.length) {
+                break;
+            }
+            i = j;
+            offset = end;
+        }
+        return r;
+    }
+
+    /**
+     * For drawing a uniform random sample without replacement from each
+     * collection. Every collection is read once.
+     *
+     * @param n The sample size for each collection.
+     * @return The samples keyed by collection ID. Each sample is ordered by
+     * record ID and contains all the records of the collection if it has
+     * fewer than {@code n}.
+     * @throws IOException If encountered.
+     * @throws ClassNotFoundException If encountered.
+     */
+    public TreeMap<Data_CollectionID, List<Data_Record>> sampleStratified(
+            int n) throws IOException, ClassNotFoundException {
+        TreeMap<Data_CollectionID, List<Data_Record>> r = new TreeMap<>();
+        for (Data_CollectionID cID : d.getCollectionIDs()) {
+            Data_Collection c = d.readCollection(cID);
+            long[] ids = getSortedIds(c);
+            long[] ps = choose(ids.length, Math.min(n, ids.length), random);
+            List<Data_Record> s = new ArrayList<>(ps.length);
+            for (long p : ps) {
+                s.add(c.getRecord(new Data_RecordID(ids[(int) p])));
+            }
+            r.put(cID, s);
+        }
+        return r;
+    }
+
+    /**
+     * For drawing a uniform random sample without replacement in a single
+     * pass over all the records using reservoir sampling. This does not need
+     * {@link Data_Data#getPartitioner()} but reads every collection. The
+     * collections are visited in ID order and the records of each are
+     * visited in ID order, so the sample is reproducible.
+     *
+     * IOExceptions are thrown as {@link java.io.UncheckedIOException}s.
+     *
+     * @param n The sample size.
+     * @return The sample in no particular order. If there are fewer than
+     * {@code n} records, then all are returned.
+     */
+    public List<Data_Record> sampleStream(int n) {
+        Data_CollectionID[] cIDs = d.getCollectionIDs().toArray(
+                new Data_CollectionID[0]);
+        try (Stream<Data_Record> s = StreamSupport.stream(
+                new Data_RecordSpliterator(cIDs, cID -> {
+                    Data_Collection c = d.readCollection(cID);
+                    if (c == null || c instanceof Data_SortedCollection) {
+                        return c;
+                    }
+                    return new Data_SortedCollection(c);
+                }), false)) {
+            return reservoir(s.iterator(), n, random);
+        }
+    }
+
+    /**
+     * For drawing a uniform random sample of {@code n} distinct values from
+     * {@code [0, N)} using Floyd's algorithm, which takes time and space
+     * proportional to {@code n} rather than {@code N}.
+     *
+     * @param N The size of the population.
+     * @param n The sample size which must not be greater than {@code N}.
+     * @param random The source of randomness.
+     * @return The values drawn in ascending order.
+     */
+    public static long[] choose(long N, int n, Random random) {
+        if (n < 0 || n > N) {
+            throw new IllegalArgumentException("Cannot choose " + n
+                    + " from " + N);
+        }
+        Data_LongIntMap drawn = new Data_LongIntMap(n);
+        long[] r = new long[n];
+        int k = 0;
+        for (long j = N - n; j < N; j++) {
+            long t = random.nextLong(j + 1);
+            if (drawn.containsKey(t)) {
+                t = j;
+            }
+            drawn.put(t, k);
+            r[k] = t;
+            k++;
+        }
+        Arrays.sort(r);
+        return r;
+    }
+
+    /**
+     * For drawing a uniform random sample without replacement from the
+     * elements of an iterator (Algorithm R).
+     *
+     * @param <T> The type of element.
+     * @param ite The iterator.
+     * @param n The sample size.
+     * @param random The source of randomness.
+     * @return The sample in no particular order. If there are fewer than
+     * {@code n} elements, then all are returned.
+     */
+    public static <T> List<T> reservoir(Iterator<T> ite, int n,
+            Random random) {
+        List<T> r = new ArrayList<>(n);
+        long i = 0L;
+        while (ite.hasNext()) {
+            T x = ite.next();
+            if (i < n) {
+                r.add(x);
+            } else {
+                long j = random.nextLong(i + 1);
+                if (j < n) {
+                    r.set((int) j, x);
+                }
+            }
+            i++;
+        }
+        return r;
+    }
+
+    /**
+     * @param c The collection.
+     * @return The record ID values of the records in {@code c} in ascending
+     * order.
+     */
+    private static long[] getSortedIds(Data_Collection c) {
+        long[] r = new long[c.getN()];
+        int i = 0;
+        for (Data_Record x : c) {
+            if (i == r.length) {
+                r = Arrays.copyOf(r, i * 2 + 1);
+            }
+            r[i] = x.id.id;
+            i++;
+        }
+        r = Arrays.copyOf(r, i);
+        Arrays.sort(r);
+        return r;
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ * A {@link Data_Collection} that holds its records in order of
+ * {@link Data_RecordID#id}. The IDs are held in a sorted primitive array and
+ * the records in a parallel array, so a record is found by binary search and
+ * the records with IDs in a range can be visited in order without creating
+ * any objects (see {@link #forEach(long, long, Consumer)}).
+ *
+ * Adding records in increasing order of ID is amortised constant time.
+ * Adding them out of order costs time proportional to the number of records
+ * with larger IDs.
+ *
+ * The {@link #data} map of a sorted collection is an empty
+ * {@link Data_Collection.NoData} map that cannot be added to.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_SortedCollection extends Data_Collection {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The record IDs in increasing order. Only the first {@link #n} are used.
+     */
+    private transient long[] ids;
+
+    /**
+     * The records in the same order as {@link #ids}.
+     */
+    private transient Data_Record[] records;
+
+    /**
+     * The number of records.
+     */
+    private int n;
+
+    /**
+     * @param ID The collection ID.
+     */
+    public Data_SortedCollection(Data_CollectionID ID) {
+        this(ID, 16);
+    }
+
+    /**
+     * @param ID The collection ID.
+     * @param capacity The initial capacity.
+     */
+    public Data_SortedCollection(Data_CollectionID ID, int capacity) {
+        super(ID, new NoData());
+        ids = new long[capacity];
+        records = new Data_Record[capacity];
+    }
+
+    /**
+     * For creating a sorted copy of a collection.
+     *
+     * @param c The collection to copy.
+     */
+    public Data_SortedCollection(Data_Collection c) {
+        this(c.ID, c.getN());
+        for (Data_Record r : c) {
+            if (r != null) {
+                records[n] = r;
+                n++;
+            }
+        }
+        Arrays.sort(records, 0, n, (x, y) -> Long.compare(x.id.id, y.id.id));
+        for (int i = 0; i < n; i++) {
+            ids[i] = records[i].id.id;
+            if (i > 0 && ids[i] == ids[i - 1]) {
+                throw new IllegalArgumentException("Duplicate record ID "
+                        + ids[i] + " in " + c.ID);
+            }
+        }
+    }
+
+    @Override
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * @param id The record ID.
+     * @return The index of the record with ID {@code id} if there is one,
+     * otherwise {@code (-(insertion point) - 1)} as for
+     * {@link Arrays#binarySearch(long[], int, int, long)}.
+     */
+    public int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, n, id);
+    }
+
+    /**
+     * @param id The record ID.
+     * @return The index of the first record with an ID greater than or equal
+     * to {@code id}, or {@link #getN()} if there is none.
+     */
+    public int lowerBound(long id) {
+        int i = indexOf(id);
+        return i < 0 ? -i - 1 : i;
+    }
+
+    /**
+     * @param i The index.
+     * @return The ID of the record at index {@code i}.
+     */
+    public long getId(int i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return ids[i];
+    }
+
+    /**
+     * @param i The index.
+     * @return The record at index {@code i}.
+     */
+    public Data_Record get(int i) {
+        if (i < 0 || i >= n) {
+            throw new IndexOutOfBoundsException(i);
+        }
+        return records[i];
+    }
+
+    /**
+     * @return The smallest record ID or {@link Long#MAX_VALUE} if there are
+     * no records.
+     */
+    public long getMinId() {
+        return n == 0 ? Long.MAX_VALUE : ids[0];
+    }
+
+    /**
+     * @return The largest record ID or {@link Long#MIN_VALUE} if there are no
+     * records.
+     */
+    public long getMaxId() {
+        return n == 0 ? Long.MIN_VALUE : ids[n - 1];
+    }
+
+    @Override
+    public Data_Record getRecord(Data_RecordID rID) {
+        int i = indexOf(rID.id);
+        return i < 0 ? null : records[i];
+    }
+
+    @Override
+    public Data_Record putRecord(Data_Record r) {
+        markDirty();
+        long id = r.id.id;
+        if (n > 0 && id > ids[n - 1]) {
+            ensureCapacity(n + 1);
+            ids[n] = id;
+            records[n] = r;
+            n++;
+            return null;
+        }
+        int i = indexOf(id);
+        if (i >= 0) {
+            Data_Record o = records[i];
+            records[i] = r;
+            return o;
+        }
+        i = -i - 1;
+        ensureCapacity(n + 1);
+        System.arraycopy(ids, i, ids, i + 1, n - i);
+        System.arraycopy(records, i, records, i + 1, n - i);
+        ids[i] = id;
+        records[i] = r;
+        n++;
+        return null;
+    }
+
+    @Override
+    public Data_Record removeRecord(Data_RecordID rID) {
+        int i = indexOf(rID.id);
+        if (i < 0) {
+            return null;
+        }
+        markDirty();
+        Data_Record o = records[i];
+        System.arraycopy(ids, i + 1, ids, i, n - i - 1);
+        System.arraycopy(records, i + 1, records, i, n - i - 1);
+        n--;
+        records[n] = null;
+        return o;
+    }
+
+    /**
+     * For ensuring there is space for at least {@code capacity} records.
+     *
+     * @param capacity The capacity wanted.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int c = Math.max(capacity, (int) Math.min(Integer.MAX_VALUE - 8,
+                    ids.length * 2L));
+            ids = Arrays.copyOf(ids, c);
+            records = Arrays.copyOf(records, c);
+        }
+    }
+
+    /**
+     * For releasing any unused capacity.
+     */
+    public void trimToSize() {
+        if (n < ids.length) {
+            ids = Arrays.copyOf(ids, n);
+            records = Arrays.copyOf(records, n);
+        }
+    }
+
+    /**
+     * For visiting the records with IDs in a range in order of ID.
+     *
+     * @param fromId The smallest record ID wanted.
+     * @param toId The largest record ID wanted.
+     * @param visitor What is done with each record.
+     */
+    public void forEach(long fromId, long toId,
+            Consumer<? super Data_Record> visitor) {
+        for (int i = lowerBound(fromId); i < n && ids[i] <= toId; i++) {
+            visitor.accept(records[i]);
+        }
+    }
+
+    /**
+     * For estimating the number of bytes of memory retained by this
+     * collection from the capacity of the arrays and a sample of the records.
+     *
+     * @return An estimate of the bytes retained by this collection.
+     */
+    @Override
+    public long getSizeEstimate() {
+        long r = 16L + 48L + 32L + 12L * ids.length;
+        long s = 0L;
+        int k = Math.min(n, SIZE_SAMPLE);
+        for (int i = 0; i < k; i++) {
+            s += records[i * (n / k)].getSizeEstimate();
+        }
+        if (k > 0) {
+            r += n * s / k;
+        }
+        return r;
+    }
+
+    /**
+     * @return An iterator over the records in order of ID.
+     */
+    @Override
+    public Iterator<Data_Record> iterator() {
+        return new Iterator<Data_Record>() {
+            int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < n;
+            }
+
+            @Override
+            public Data_Record next() {
+                if (i >= n) {
+                    throw new NoSuchElementException();
+                }
+                return records[i++];
+            }
+        };
+    }
+
+    /**
+     * For writing {@link #n} and then the first {@link #n} records. The
+     * arrays are not written, so unused capacity is not, and this is not
+     * changed.
+     *
+     * @param oos The stream to write to.
+     * @throws IOException If encountered.
+     */
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        oos.defaultWriteObject();
+        for (int i = 0; i < n; i++) {
+            oos.writeObject(records[i]);
+        }
+    }
+
+    /**
+     * For reading what was written by {@link #writeObject}.
+     *
+     * @param ois The stream to read from.
+     * @throws IOException If encountered.
+     * @throws ClassNotFoundException If encountered.
+     */
+    private void readObject(ObjectInputStream ois) throws IOException,
+            ClassNotFoundException {
+        ois.defaultReadObject();
+        ids = new long[n];
+        records = new Data_Record[n];
+        for (int i = 0; i < n; i++) {
+            records[i] = (Data_Record) ois.readObject();
+            ids[i] = records[i].id.id;
+        }
+    }
+}
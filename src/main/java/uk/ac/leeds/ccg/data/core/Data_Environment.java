@@ -18,6 +18,7 @@ package uk.ac.leeds.ccg.data.core;
 import java.io.IOException;
 import uk.ac.leeds.ccg.data.Data_Data;
 import uk.ac.leeds.ccg.data.io.Data_Files;
+import uk.ac.leeds.ccg.data.memory.Data_MemoryMonitor;
 import uk.ac.leeds.ccg.generic.core.Generic_Environment;
 import uk.ac.leeds.ccg.generic.io.Generic_Defaults;
 import uk.ac.leeds.ccg.generic.memory.Generic_MemoryManager;
@@ -35,6 +36,13 @@ public class Data_Environment extends Generic_MemoryManager {
     public final transient Generic_Environment env;
     public final transient Data_Files files;
     public transient Data_Data data;
+
+    /**
+     * For clearing data when memory pool thresholds are exceeded. This is
+     * {@code null} unless {@link #startMemoryMonitor(double, double)} has
+     * been called.
+     */
+    public transient volatile Data_MemoryMonitor monitor;
     
     /**
      * Stores the {@link #env} log ID for the log set up.
@@ -63,9 +71,42 @@ public class Data_Environment extends Generic_MemoryManager {
         data.de = this;
     }
 
+    /**
+     * For starting to clear data in response to memory pool threshold
+     * notifications from the JVM (see {@link Data_MemoryMonitor}). This aims
+     * to free memory before the heap fills so that handling
+     * {@link OutOfMemoryError}s is a last resort. Any existing monitor is
+     * stopped.
+     *
+     * @param high The fraction of the maximum size of each heap memory pool at
+     * which thresholds are set.
+     * @param low The fraction of the maximum size of a pool to clear down to
+     * when a threshold is exceeded.
+     * @return The monitor started.
+     */
+    public synchronized Data_MemoryMonitor startMemoryMonitor(double high,
+            double low) {
+        stopMemoryMonitor();
+        Data_MemoryMonitor r = new Data_MemoryMonitor(this, high, low);
+        r.start();
+        monitor = r;
+        return r;
+    }
+
+    /**
+     * For stopping {@link #monitor} if there is one.
+     */
+    public synchronized void stopMemoryMonitor() {
+        if (monitor != null) {
+            monitor.stop();
+            monitor = null;
+        }
+    }
+
     /**
      * Attempts to clear some of {@link #data} using
-     * {@link Data_Data#clearSomeData()}.
+     * {@link Data_Data#clearSomeData()}. What is cleared is decided by
+     * {@link Data_Data#getEvictionPolicy()}.
      *
      * @return {@code true} iff some data was successfully cleared.
      * @throws java.io.IOException If encountered.
@@ -74,6 +115,18 @@ public class Data_Environment extends Generic_MemoryManager {
         return data.clearSomeData();
     }
 
+    /**
+     * Attempts to clear at least {@code bytes} of {@link #data} using
+     * {@link Data_Data#clearData(long)}.
+     *
+     * @param bytes The number of bytes wanted.
+     * @return The estimated number of bytes cleared.
+     * @throws java.io.IOException If encountered.
+     */
+    public long clearData(long bytes) throws IOException {
+        return data.clearData(bytes);
+    }
+
     @Override
     public boolean swapSomeData() throws IOException {
         boolean r = clearSomeData();
@@ -108,17 +161,26 @@ public class Data_Environment extends Generic_MemoryManager {
         }
     }
 
+    /**
+     * If the total free memory is below {@link #Memory_Threshold}, then enough
+     * of {@link #data} to make up the shortfall is cleared in one go using
+     * {@link #clearData(long)}. The amount cleared is judged from the
+     * estimated sizes of the collections rather than by repeatedly running the
+     * garbage collector and checking the free memory.
+     *
+     * @return {@code true} iff the free memory was not below the threshold or
+     * enough data was cleared to make up the shortfall.
+     * @throws java.io.IOException If encountered.
+     */
     @Override
     public boolean checkAndMaybeFreeMemory() throws IOException {
-        System.gc();
-        while (getTotalFreeMemory() < Memory_Threshold) {
-//            int clear = clearAllData();
-//            if (clear == 0) {
-//                return false;
-//            }
-            if (!swapSomeData()) {
-                return false;
-            }
+        long shortfall = Memory_Threshold - getTotalFreeMemory();
+        if (shortfall <= 0L) {
+            return true;
+        }
+        if (data == null || clearData(shortfall) < shortfall) {
+            env.log("Unable to clear " + shortfall + " bytes of data.");
+            return false;
         }
         return true;
     }
@@ -15,6 +15,10 @@
  */
 package uk.ac.leeds.ccg.data.id;
 
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * A general identifier for a Data_Collection.
  *
@@ -28,4 +32,26 @@ public class Data_CollectionID extends Data_ID_int {
     public Data_CollectionID(int i) {
         super(i);
     }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_CollectionID read(DataInput in) throws IOException {
+        return new Data_CollectionID(Data_Varint.readInt(in));
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The buffer to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_CollectionID read(ByteBuffer in) throws IOException {
+        return new Data_CollectionID(Data_Varint.readInt(in));
+    }
 }
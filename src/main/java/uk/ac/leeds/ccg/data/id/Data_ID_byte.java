@@ -15,6 +15,11 @@
  */
 package uk.ac.leeds.ccg.data.id;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * An general identifier based on a byte. There are at most 2^8 unique ones of
  * these.
@@ -39,6 +44,38 @@ public class Data_ID_byte extends Data_ID implements Comparable<Data_ID_byte> {
         return id;
     }
 
+    /**
+     * For writing this in a compact form: {@link #id} as a raw {@code byte}.
+     *
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeByte(id);
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_ID_byte read(DataInput in) throws IOException {
+        return new Data_ID_byte(in.readByte());
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The buffer to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_ID_byte read(ByteBuffer in) throws IOException {
+        return new Data_ID_byte(in.get());
+    }
+
     @Override
     public String toString() {
         return getSimpleName() + "(id=" + id + ")";
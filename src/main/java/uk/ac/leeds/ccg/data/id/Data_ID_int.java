@@ -15,6 +15,11 @@
  */
 package uk.ac.leeds.ccg.data.id;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * A general identifier based on a int. There are at most 2^32 unique ones of
  * these.
@@ -62,6 +67,39 @@ public class Data_ID_int extends Data_ID implements Comparable<Data_ID_int> {
         return id;
     }
 
+    /**
+     * For writing this in a compact form: {@link #id} as a variable length
+     * integer (see {@link Data_Varint}).
+     *
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    public void write(DataOutput out) throws IOException {
+        Data_Varint.writeInt(out, id);
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_ID_int read(DataInput in) throws IOException {
+        return new Data_ID_int(Data_Varint.readInt(in));
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The buffer to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_ID_int read(ByteBuffer in) throws IOException {
+        return new Data_ID_int(Data_Varint.readInt(in));
+    }
+
     @Override
     public String toString() {
         return getSimpleName() + "(id=" + id + ")";
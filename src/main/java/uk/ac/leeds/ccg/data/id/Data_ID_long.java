@@ -15,6 +15,11 @@
  */
 package uk.ac.leeds.ccg.data.id;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * An general identifier based on a long. There are at most 2^64 unique ones of
  * these.
@@ -61,6 +66,39 @@ public class Data_ID_long extends Data_ID implements Comparable<Data_ID_long> {
         return id;
     }
 
+    /**
+     * For writing this in a compact form: {@link #id} as a variable length
+     * integer (see {@link Data_Varint}).
+     *
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    public void write(DataOutput out) throws IOException {
+        Data_Varint.writeLong(out, id);
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_ID_long read(DataInput in) throws IOException {
+        return new Data_ID_long(Data_Varint.readLong(in));
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The buffer to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_ID_long read(ByteBuffer in) throws IOException {
+        return new Data_ID_long(Data_Varint.readLong(in));
+    }
+
     @Override
     public String toString() {
         return getSimpleName() + "(id=" + id + ")";
@@ -15,6 +15,10 @@
  */
 package uk.ac.leeds.ccg.data.id;
 
+import java.io.DataInput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
 /**
  * A general identifier for a Data_Record.
  * 
@@ -28,4 +32,26 @@ public class Data_RecordID extends Data_ID_long {
     public Data_RecordID(long l) {
         super(l);
     }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The input to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_RecordID read(DataInput in) throws IOException {
+        return new Data_RecordID(Data_Varint.readLong(in));
+    }
+
+    /**
+     * For reading what was written by {@link #write(java.io.DataOutput)}.
+     *
+     * @param in The buffer to read from.
+     * @return A new instance.
+     * @throws IOException If encountered.
+     */
+    public static Data_RecordID read(ByteBuffer in) throws IOException {
+        return new Data_RecordID(Data_Varint.readLong(in));
+    }
 }
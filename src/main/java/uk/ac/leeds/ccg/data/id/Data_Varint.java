@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.id;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * For writing and reading variable length integers. Values are written 7 bits
+ * at a time, least significant first, with the top bit of each byte set if
+ * more bytes follow. Signed values are zigzag encoded first so that small
+ * negative values are short too. An {@code int} takes from 1 to 5 bytes and a
+ * {@code long} from 1 to 10 bytes.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_Varint {
+
+    private Data_Varint() {
+    }
+
+    /**
+     * @param v The value.
+     * @return {@code v} zigzag encoded.
+     */
+    public static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    /**
+     * @param v A zigzag encoded value.
+     * @return {@code v} decoded.
+     */
+    public static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * @param out The output to write to.
+     * @param v The value to write treated as unsigned.
+     * @throws IOException If encountered.
+     */
+    public static void writeUnsignedLong(DataOutput out, long v)
+            throws IOException {
+        while ((v & ~0x7FL) != 0L) {
+            out.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    /**
+     * @param out The output to write to.
+     * @param v The value to write.
+     * @throws IOException If encountered.
+     */
+    public static void writeLong(DataOutput out, long v) throws IOException {
+        writeUnsignedLong(out, zigzag(v));
+    }
+
+    /**
+     * @param out The output to write to.
+     * @param v The value to write.
+     * @throws IOException If encountered.
+     */
+    public static void writeInt(DataOutput out, int v) throws IOException {
+        writeUnsignedLong(out, zigzag(v) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param in The input to read from.
+     * @return The value read treated as unsigned.
+     * @throws IOException If encountered or if the value is malformed.
+     */
+    public static long readUnsignedLong(DataInput in) throws IOException {
+        long r = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            r |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return r;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * @param in The buffer to read from.
+     * @return The value read treated as unsigned.
+     * @throws IOException If the value is malformed.
+     */
+    public static long readUnsignedLong(ByteBuffer in) throws IOException {
+        long r = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            r |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return r;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * @param in The input to read from.
+     * @return The value read.
+     * @throws IOException If encountered or if the value is malformed.
+     */
+    public static long readLong(DataInput in) throws IOException {
+        return unzigzag(readUnsignedLong(in));
+    }
+
+    /**
+     * @param in The buffer to read from.
+     * @return The value read.
+     * @throws IOException If the value is malformed.
+     */
+    public static long readLong(ByteBuffer in) throws IOException {
+        return unzigzag(readUnsignedLong(in));
+    }
+
+    /**
+     * @param in The input to read from.
+     * @return The value read.
+     * @throws IOException If encountered or if the value is malformed.
+     */
+    public static int readInt(DataInput in) throws IOException {
+        return (int) unzigzag(readUnsignedLong(in));
+    }
+
+    /**
+     * @param in The buffer to read from.
+     * @return The value read.
+     * @throws IOException If the value is malformed.
+     */
+    public static int readInt(ByteBuffer in) throws IOException {
+        return (int) unzigzag(readUnsignedLong(in));
+    }
+}
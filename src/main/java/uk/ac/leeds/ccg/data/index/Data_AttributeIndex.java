@@ -0,0 +1,272 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.Function;
+import uk.ac.leeds.ccg.data.Data_Record;
+
+/**
+ * A secondary index mapping the values of a record attribute to the IDs of
+ * the records with those values, so that records can be found by attribute
+ * without reading every collection. The attribute is got from a record by
+ * {@link #key}. Records for which this returns {@code null} are not indexed.
+ *
+ * The record IDs for each value are held in a sorted primitive array, so a
+ * record ID is found by binary search and is held at most once for each
+ * value. An index may
+ * contain IDs of records that have since been changed or removed, so
+ * anything got using an index should be checked with {@link #matches}.
+ *
+ * Methods are synchronized so an index can be shared between threads.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ * @param <K> The type of the attribute values. These must be
+ * {@link java.io.Serializable} for {@link #cache(Path)}.
+ */
+public abstract class Data_AttributeIndex<K> {
+
+    /**
+     * For identifying files written by {@link #cache(Path)}.
+     */
+    public static final int MAGIC = 0x44434931;
+
+    /**
+     * The name of the index.
+     */
+    public final String name;
+
+    /**
+     * For getting the attribute value from a record.
+     */
+    protected final Function<? super Data_Record, ? extends K> key;
+
+    /**
+     * The record IDs for each attribute value.
+     */
+    protected final Map<K, Ids> map;
+
+    /**
+     * A growable sorted set of record IDs. Adding IDs in increasing order is
+     * amortised constant time.
+     */
+    protected static class Ids {
+
+        long[] ids;
+
+        int n;
+
+        Ids() {
+            ids = new long[2];
+        }
+
+        /**
+         * @param id The record ID to add.
+         * @return {@code false} iff {@code id} was already present.
+         */
+        boolean add(long id) {
+            int i = Arrays.binarySearch(ids, 0, n, id);
+            if (i >= 0) {
+                return false;
+            }
+            i = -i - 1;
+            if (n == ids.length) {
+                ids = Arrays.copyOf(ids, n * 2);
+            }
+            System.arraycopy(ids, i, ids, i + 1, n - i);
+            ids[i] = id;
+            n++;
+            return true;
+        }
+
+        /**
+         * @param id The record ID to remove.
+         * @return {@code true} iff {@code id} was present.
+         */
+        boolean remove(long id) {
+            int i = Arrays.binarySearch(ids, 0, n, id);
+            if (i < 0) {
+                return false;
+            }
+            n--;
+            System.arraycopy(ids, i + 1, ids, i, n - i);
+            return true;
+        }
+    }
+
+    /**
+     * @param name What {@link #name} is set to.
+     * @param key What {@link #key} is set to.
+     * @param map What {@link #map} is set to.
+     */
+    protected Data_AttributeIndex(String name,
+            Function<? super Data_Record, ? extends K> key, Map<K, Ids> map) {
+        this.name = name;
+        this.key = key;
+        this.map = map;
+    }
+
+    /**
+     * For adding a record to the index. Adding a record that is already
+     * indexed with the same attribute value changes nothing.
+     *
+     * @param r The record.
+     */
+    public synchronized void add(Data_Record r) {
+        K k = key.apply(r);
+        if (k != null) {
+            map.computeIfAbsent(k, x -> new Ids()).add(r.id.id);
+        }
+    }
+
+    /**
+     * For removing a record from the index.
+     *
+     * @param r The record as it was when added.
+     * @return {@code true} iff the record was in the index.
+     */
+    public synchronized boolean remove(Data_Record r) {
+        K k = key.apply(r);
+        if (k == null) {
+            return false;
+        }
+        Ids ids = map.get(k);
+        if (ids == null || !ids.remove(r.id.id)) {
+            return false;
+        }
+        if (ids.n == 0) {
+            map.remove(k);
+        }
+        return true;
+    }
+
+    /**
+     * @param value The attribute value.
+     * @return The IDs of the records indexed with {@code value} in
+     * ascending order.
+     */
+    public synchronized long[] get(K value) {
+        Ids ids = map.get(value);
+        return ids == null ? new long[0] : Arrays.copyOf(ids.ids, ids.n);
+    }
+
+    /**
+     * @param r The record.
+     * @param value The attribute value.
+     * @return {@code true} iff the attribute of {@code r} equals
+     * {@code value}.
+     */
+    public boolean matches(Data_Record r, K value) {
+        return value.equals(key.apply(r));
+    }
+
+    /**
+     * @param r The record.
+     * @return The attribute value of {@code r} which may be {@code null}.
+     */
+    public K getValue(Data_Record r) {
+        return key.apply(r);
+    }
+
+    /**
+     * @return The number of distinct attribute values indexed.
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * For removing everything from the index.
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    /**
+     * Writes the index to {@code f}. The file is written to a temporary file
+     * first and then moved so an existing file is replaced atomically.
+     *
+     * @param f The file to write to.
+     * @throws IOException If encountered.
+     */
+    public synchronized void cache(Path f) throws IOException {
+        Path t = f.resolveSibling(f.getFileName() + ".tmp");
+        try (ObjectOutputStream oos = new ObjectOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(t), 1 << 16))) {
+            oos.writeInt(MAGIC);
+            oos.writeUTF(name);
+            oos.writeInt(map.size());
+            for (Map.Entry<K, Ids> e : map.entrySet()) {
+                oos.writeObject(e.getKey());
+                Ids ids = e.getValue();
+                oos.writeInt(ids.n);
+                for (int i = 0; i < ids.n; i++) {
+                    oos.writeLong(ids.ids[i]);
+                }
+            }
+        }
+        Files.move(t, f, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the contents of the index with those read from a file written
+     * by {@link #cache(Path)}.
+     *
+     * @param f The file to read from.
+     * @throws IOException If encountered.
+     * @throws ClassNotFoundException If encountered.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void load(Path f) throws IOException,
+            ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(Files.newInputStream(f), 1 << 16))) {
+            if (ois.readInt() != MAGIC) {
+                throw new IOException("Not an index file " + f);
+            }
+            String s = ois.readUTF();
+            if (!s.equals(name)) {
+                throw new IOException("File " + f + " is for index " + s
+                        + " not " + name);
+            }
+            map.clear();
+            int size = ois.readInt();
+            for (int i = 0; i < size; i++) {
+                K k = (K) ois.readObject();
+                int n = ois.readInt();
+                Ids ids = new Ids();
+                ids.ids = new long[Math.max(n, 2)];
+                for (int j = 0; j < n; j++) {
+                    ids.ids[j] = ois.readLong();
+                }
+                Arrays.sort(ids.ids, 0, n);
+                ids.n = n;
+                map.put(k, ids);
+            }
+        }
+    }
+}
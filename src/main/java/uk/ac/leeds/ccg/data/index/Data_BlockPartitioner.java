@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.util.TreeMap;
+
+/**
+ * A {@link Data_Partitioner} for data where each collection holds a
+ * contiguous block of {@link #size} record IDs. The collection ID of a record
+ * is computed as
+ * {@code firstCollectionId + floorDiv(recordId - firstRecordId, size)}, so no
+ * state is held per record or per collection.
+ *
+ * Records are known if their IDs are in the range from {@link #getMin()} to
+ * {@link #getMax()} inclusive. This range is set on construction or extended
+ * by {@link #put(long, int)}, so record IDs are assumed to have no gaps.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_BlockPartitioner implements Data_Partitioner {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The ID of the first record in the collection with ID
+     * {@link #firstCollectionId}.
+     */
+    public final long firstRecordId;
+
+    /**
+     * The number of record IDs in each collection.
+     */
+    public final long size;
+
+    /**
+     * The ID of the collection containing the record with ID
+     * {@link #firstRecordId}.
+     */
+    public final int firstCollectionId;
+
+    /**
+     * The smallest record ID known.
+     */
+    private long min;
+
+    /**
+     * The largest record ID known.
+     */
+    private long max;
+
+    /**
+     * Creates a new instance with no records known.
+     *
+     * @param firstRecordId What {@link #firstRecordId} is set to.
+     * @param size What {@link #size} is set to.
+     * @param firstCollectionId What {@link #firstCollectionId} is set to.
+     */
+    public Data_BlockPartitioner(long firstRecordId, long size,
+            int firstCollectionId) {
+        if (size < 1L) {
+            throw new IllegalArgumentException("size " + size + " < 1");
+        }
+        this.firstRecordId = firstRecordId;
+        this.size = size;
+        this.firstCollectionId = firstCollectionId;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Creates a new instance where the records with IDs from
+     * {@code firstRecordId} to {@code firstRecordId + n - 1} are known.
+     *
+     * @param firstRecordId What {@link #firstRecordId} is set to.
+     * @param size What {@link #size} is set to.
+     * @param firstCollectionId What {@link #firstCollectionId} is set to.
+     * @param n The number of records.
+     */
+    public Data_BlockPartitioner(long firstRecordId, long size,
+            int firstCollectionId, long n) {
+        this(firstRecordId, size, firstCollectionId);
+        if (n > 0L) {
+            min = firstRecordId;
+            max = firstRecordId + n - 1L;
+        }
+    }
+
+    /**
+     * @param recordId The record ID.
+     * @return The collection ID computed for {@code recordId} whether or not
+     * the record is known.
+     */
+    public int compute(long recordId) {
+        return Math.toIntExact(firstCollectionId
+                + Math.floorDiv(recordId - firstRecordId, size));
+    }
+
+    @Override
+    public int getCollectionId(long recordId) {
+        if (recordId < min || recordId > max) {
+            return Data_LongIntMap.NO_VALUE;
+        }
+        return compute(recordId);
+    }
+
+    /**
+     * For recording that a record is in a collection. The range of known
+     * records is extended to include {@code recordId}.
+     *
+     * @param recordId The record ID.
+     * @param collectionId The collection ID.
+     * @throws IllegalArgumentException If {@code collectionId} is not the
+     * collection ID computed for {@code recordId}.
+     */
+    @Override
+    public void put(long recordId, int collectionId) {
+        int c = compute(recordId);
+        if (c != collectionId) {
+            throw new IllegalArgumentException("Record " + recordId
+                    + " is in collection " + c + " not " + collectionId);
+        }
+        min = Math.min(min, recordId);
+        max = Math.max(max, recordId);
+    }
+
+    /**
+     * @return The smallest record ID known or {@link Long#MAX_VALUE} if no
+     * records are known.
+     */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+     * @return The largest record ID known or {@link Long#MIN_VALUE} if no
+     * records are known.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public TreeMap<Integer, Integer> getRecordCounts() {
+        TreeMap<Integer, Integer> r = new TreeMap<>();
+        getRecordIdRanges().forEach((c, x) -> r.put(c,
+                (int) (x[1] - x[0] + 1L)));
+        return r;
+    }
+
+    @Override
+    public TreeMap<Integer, long[]> getRecordIdRanges() {
+        TreeMap<Integer, long[]> r = new TreeMap<>();
+        if (min > max) {
+            return r;
+        }
+        // A long counter so the loop ends if last is Integer.MAX_VALUE.
+        long last = compute(max);
+        for (long c = compute(min); c <= last; c++) {
+            long from = firstRecordId + (c - firstCollectionId) * size;
+            long to = from + size - 1L;
+            r.put((int) c, new long[]{Math.max(from, min),
+                Math.min(to, max)});
+        }
+        return r;
+    }
+
+    @Override
+    public long getN() {
+        return min > max ? 0L : max - min + 1L;
+    }
+
+    @Override
+    public long getSizeEstimate() {
+        return 48L;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.io.Serializable;
+
+/**
+ * A Bloom filter of {@code long} values for testing whether a value may have
+ * been added without holding the values. There are no false negatives and
+ * the false positive rate is about the rate the filter is constructed for,
+ * provided no more than the expected number of values are added.
+ *
+ * Bit positions are derived from two 64 bit hashes of a value using double
+ * hashing as described by Kirsch and Mitzenmacher, so the cost of hashing does
+ * not grow with the number of bits set per value.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_BloomFilter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The bits.
+     */
+    private final long[] bits;
+
+    /**
+     * The number of bits.
+     */
+    private final long m;
+
+    /**
+     * The number of bits set for each value.
+     */
+    private final int k;
+
+    /**
+     * @param n The expected number of values.
+     * @param fpp The wanted false positive rate in the range (0, 1).
+     */
+    public Data_BloomFilter(long n, double fpp) {
+        if (!(fpp > 0d && fpp < 1d)) {
+            throw new IllegalArgumentException("fpp " + fpp
+                    + " not in the range (0, 1)");
+        }
+        long nn = Math.max(n, 1L);
+        double ln2 = Math.log(2d);
+        long mm = (long) Math.ceil(-nn * Math.log(fpp) / (ln2 * ln2));
+        mm = Math.max(64L, (mm + 63L) & ~63L);
+        bits = new long[Math.toIntExact(mm >>> 6)];
+        m = mm;
+        k = Math.max(1, (int) Math.round((double) mm / nn * ln2));
+    }
+
+    /**
+     * A 64 bit mix function (the finaliser of MurmurHash3).
+     *
+     * @param x The value.
+     * @return The mixed value.
+     */
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb9fe1a85ec53L;
+        x ^= x >>> 33;
+        return x;
+    }
+
+    /**
+     * @param v The value to add.
+     */
+    public void add(long v) {
+        long h = mix(v);
+        long h1 = h;
+        long h2 = mix(h ^ 0x9e3779b97f4a7c15L) | 1L;
+        for (int i = 0; i < k; i++) {
+            long b = Long.remainderUnsigned(h1, m);
+            bits[(int) (b >>> 6)] |= 1L << b;
+            h1 += h2;
+        }
+    }
+
+    /**
+     * @param v The value to test.
+     * @return {@code false} if {@code v} has definitely not been added and
+     * {@code true} if it may have been.
+     */
+    public boolean mightContain(long v) {
+        long h = mix(v);
+        long h1 = h;
+        long h2 = mix(h ^ 0x9e3779b97f4a7c15L) | 1L;
+        for (int i = 0; i < k; i++) {
+            long b = Long.remainderUnsigned(h1, m);
+            if ((bits[(int) (b >>> 6)] & (1L << b)) == 0L) {
+                return false;
+            }
+            h1 += h2;
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of bits.
+     */
+    public long getBitCount() {
+        return m;
+    }
+
+    /**
+     * @return The number of bits set for each value.
+     */
+    public int getHashCount() {
+        return k;
+    }
+
+    /**
+     * @return An estimate of the number of bytes of memory retained by this.
+     */
+    public long getSizeEstimate() {
+        return 32L + 16L + 8L * bits.length;
+    }
+}
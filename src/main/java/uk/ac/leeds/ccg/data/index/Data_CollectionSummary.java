@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.io.Serializable;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_Record;
+
+/**
+ * A small summary of the record IDs in a collection for deciding without
+ * reading the collection whether it might contain a record: the smallest and
+ * largest record IDs and optionally a {@link Data_BloomFilter} of all the
+ * record IDs.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_CollectionSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The smallest record ID or {@link Long#MAX_VALUE} if there are no
+     * records.
+     */
+    public final long min;
+
+    /**
+     * The largest record ID or {@link Long#MIN_VALUE} if there are no records.
+     */
+    public final long max;
+
+    /**
+     * The number of records.
+     */
+    public final int n;
+
+    /**
+     * The record IDs or {@code null}.
+     */
+    public final Data_BloomFilter filter;
+
+    /**
+     * @param min What {@link #min} is set to.
+     * @param max What {@link #max} is set to.
+     * @param n What {@link #n} is set to.
+     * @param filter What {@link #filter} is set to.
+     */
+    public Data_CollectionSummary(long min, long max, int n,
+            Data_BloomFilter filter) {
+        this.min = min;
+        this.max = max;
+        this.n = n;
+        this.filter = filter;
+    }
+
+    /**
+     * For summarising a collection.
+     *
+     * @param c The collection.
+     * @param fpp The false positive rate of the Bloom filter. If this is not
+     * in the range (0, 1) then there is no Bloom filter.
+     * @return A summary of {@code c}.
+     */
+    public static Data_CollectionSummary build(Data_Collection c,
+            double fpp) {
+        int n = c.getN();
+        Data_BloomFilter f = null;
+        if (fpp > 0d && fpp < 1d) {
+            f = new Data_BloomFilter(n, fpp);
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (Data_Record r : c) {
+            if (r != null) {
+                long id = r.id.id;
+                min = Math.min(min, id);
+                max = Math.max(max, id);
+                if (f != null) {
+                    f.add(id);
+                }
+            }
+        }
+        return new Data_CollectionSummary(min, max, n, f);
+    }
+
+    /**
+     * @param id The record ID.
+     * @return {@code false} if the collection definitely does not contain a
+     * record with ID {@code id} and {@code true} if it may.
+     */
+    public boolean mightContain(long id) {
+        if (id < min || id > max) {
+            return false;
+        }
+        return filter == null || filter.mightContain(id);
+    }
+
+    /**
+     * @param from The smallest record ID wanted.
+     * @param to The largest record ID wanted.
+     * @return {@code true} iff the range of record IDs in the collection
+     * overlaps the range from {@code from} to {@code to} inclusive.
+     */
+    public boolean overlaps(long from, long to) {
+        return min <= max && min <= to && max >= from;
+    }
+
+    /**
+     * @return An estimate of the number of bytes of memory retained by this.
+     */
+    public long getSizeEstimate() {
+        return 40L + (filter == null ? 0L : filter.getSizeEstimate());
+    }
+}
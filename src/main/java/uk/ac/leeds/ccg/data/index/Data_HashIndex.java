@@ -0,0 +1,40 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.util.HashMap;
+import java.util.function.Function;
+import uk.ac.leeds.ccg.data.Data_Record;
+
+/**
+ * A {@link Data_AttributeIndex} backed by a {@link HashMap} for looking up
+ * records with a given attribute value.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ * @param <K> The type of the attribute values.
+ */
+public class Data_HashIndex<K> extends Data_AttributeIndex<K> {
+
+    /**
+     * @param name What {@link #name} is set to.
+     * @param key What {@link #key} is set to.
+     */
+    public Data_HashIndex(String name,
+            Function<? super Data_Record, ? extends K> key) {
+        super(name, key, new HashMap<>());
+    }
+}
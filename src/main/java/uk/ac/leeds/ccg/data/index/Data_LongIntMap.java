@@ -0,0 +1,516 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map with primitive {@code long} keys and primitive
+ * {@code int} values. Keys and values are held in parallel arrays and
+ * collisions are resolved by linear probing, so no objects are created per
+ * entry and lookups do not allocate.
+ *
+ * The key {@code 0} is used to mark free slots in the key array, so the
+ * mapping for that key (if any) is held separately.
+ *
+ * {@link #NO_VALUE} is returned for keys that are not mapped, so it should not
+ * be used as a value.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_LongIntMap implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The value returned for keys that are not mapped.
+     */
+    public static final int NO_VALUE = Integer.MIN_VALUE;
+
+    /**
+     * For identifying files written by {@link #cache(java.nio.file.Path)}.
+     */
+    private static final int MAGIC = 0x4C494D31;
+
+    /**
+     * The version of the file format written by
+     * {@link #cache(java.nio.file.Path)}.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * The maximum capacity of the arrays.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * The key used to mark free slots.
+     */
+    private static final long FREE_KEY = 0L;
+
+    /**
+     * The proportion of slots that may be used before the arrays are grown.
+     */
+    private final float loadFactor;
+
+    /**
+     * The keys.
+     */
+    private transient long[] keys;
+
+    /**
+     * The values.
+     */
+    private transient int[] values;
+
+    /**
+     * {@code true} iff {@link #FREE_KEY} is mapped.
+     */
+    private transient boolean hasFreeKey;
+
+    /**
+     * The value mapped to {@link #FREE_KEY} if {@link #hasFreeKey}.
+     */
+    private transient int freeValue;
+
+    /**
+     * The number of mappings.
+     */
+    private transient int size;
+
+    /**
+     * For masking hashes to array indexes.
+     */
+    private transient int mask;
+
+    /**
+     * The size at which the arrays are grown.
+     */
+    private transient int threshold;
+
+    /**
+     * Creates a new instance with a default initial capacity.
+     */
+    public Data_LongIntMap() {
+        this(16);
+    }
+
+    /**
+     * @param expected The number of mappings expected.
+     */
+    public Data_LongIntMap(int expected) {
+        this(expected, 0.75f);
+    }
+
+    /**
+     * @param expected The number of mappings expected.
+     * @param loadFactor What {@link #loadFactor} is set to. This must be
+     * greater than 0 and less than 1.
+     */
+    public Data_LongIntMap(int expected, float loadFactor) {
+        if (!(loadFactor > 0f && loadFactor < 1f)) {
+            throw new IllegalArgumentException("loadFactor " + loadFactor
+                    + " is not in the range (0, 1)");
+        }
+        this.loadFactor = loadFactor;
+        allocate(capacityFor(expected));
+    }
+
+    private int capacityFor(int expected) {
+        long c = 2;
+        long n = (long) Math.ceil(Math.max(expected, 1) / (double) loadFactor);
+        while (c < n) {
+            c <<= 1;
+        }
+        if (c > MAX_CAPACITY) {
+            throw new IllegalStateException("Capacity required for " + expected
+                    + " mappings exceeds " + MAX_CAPACITY);
+        }
+        return (int) c;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    /**
+     * Spreads the bits of {@code k} so that sequential keys are distributed
+     * across the arrays (the finaliser from MurmurHash3).
+     *
+     * @param k The key.
+     * @return The start index for probing for {@code k}.
+     */
+    private int index(long k) {
+        long h = k;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    /**
+     * @return The number of mappings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} iff there are no mappings.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return An estimate of the number of bytes of memory retained by this.
+     */
+    public long getSizeEstimate() {
+        return 48L + 16L + 8L * keys.length + 16L + 4L * values.length;
+    }
+
+    /**
+     * @param k The key.
+     * @return The value mapped to {@code k} or {@link #NO_VALUE} if there is no
+     * mapping.
+     */
+    public int get(long k) {
+        if (k == FREE_KEY) {
+            return hasFreeKey ? freeValue : NO_VALUE;
+        }
+        int i = index(k);
+        long x;
+        while ((x = keys[i]) != FREE_KEY) {
+            if (x == k) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * @param k The key.
+     * @return {@code true} iff there is a mapping for {@code k}.
+     */
+    public boolean containsKey(long k) {
+        if (k == FREE_KEY) {
+            return hasFreeKey;
+        }
+        int i = index(k);
+        long x;
+        while ((x = keys[i]) != FREE_KEY) {
+            if (x == k) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @param k The key.
+     * @param v The value. This should not be {@link #NO_VALUE}.
+     * @return The value previously mapped to {@code k} or {@link #NO_VALUE} if
+     * there was no mapping.
+     */
+    public int put(long k, int v) {
+        if (k == FREE_KEY) {
+            int r = hasFreeKey ? freeValue : NO_VALUE;
+            if (!hasFreeKey) {
+                hasFreeKey = true;
+                size++;
+            }
+            freeValue = v;
+            return r;
+        }
+        int i = index(k);
+        long x;
+        while ((x = keys[i]) != FREE_KEY) {
+            if (x == k) {
+                int r = values[i];
+                values[i] = v;
+                return r;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = k;
+        values[i] = v;
+        size++;
+        if (size > threshold) {
+            rehash(keys.length << 1);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * @param k The key.
+     * @return The value that was mapped to {@code k} or {@link #NO_VALUE} if
+     * there was no mapping.
+     */
+    public int remove(long k) {
+        if (k == FREE_KEY) {
+            if (!hasFreeKey) {
+                return NO_VALUE;
+            }
+            hasFreeKey = false;
+            size--;
+            return freeValue;
+        }
+        int i = index(k);
+        long x;
+        while ((x = keys[i]) != FREE_KEY) {
+            if (x == k) {
+                int r = values[i];
+                shiftKeys(i);
+                size--;
+                return r;
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Frees slot {@code i} and moves any following entries in the same probe
+     * sequence back so that no tombstones are needed.
+     *
+     * @param i The index of the slot to free.
+     */
+    private void shiftKeys(int i) {
+        int last;
+        long k;
+        while (true) {
+            last = i;
+            i = (i + 1) & mask;
+            while (true) {
+                if ((k = keys[i]) == FREE_KEY) {
+                    keys[last] = FREE_KEY;
+                    return;
+                }
+                int slot = index(k);
+                if (last <= i ? (last >= slot || slot > i)
+                        : (last >= slot && slot > i)) {
+                    break;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[last] = k;
+            values[last] = values[i];
+        }
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    /**
+     * For growing the arrays.
+     *
+     * @param capacity The new capacity.
+     */
+    private void rehash(int capacity) {
+        if (capacity > MAX_CAPACITY || capacity <= 0) {
+            throw new IllegalStateException("Capacity exceeds "
+                    + MAX_CAPACITY);
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            long k = oldKeys[j];
+            if (k != FREE_KEY) {
+                int i = index(k);
+                while (keys[i] != FREE_KEY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * For processing each mapping.
+     */
+    @FunctionalInterface
+    public interface LongIntConsumer {
+
+        /**
+         * @param k The key.
+         * @param v The value.
+         */
+        void accept(long k, int v);
+    }
+
+    /**
+     * Applies {@code c} to each mapping. The order is unspecified.
+     *
+     * @param c The consumer.
+     */
+    public void forEach(LongIntConsumer c) {
+        if (hasFreeKey) {
+            c.accept(FREE_KEY, freeValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            long k = keys[i];
+            if (k != FREE_KEY) {
+                c.accept(k, values[i]);
+            }
+        }
+    }
+
+    /**
+     * Writes the mappings to {@code f} in a compact binary form: a short
+     * header followed by a {@code long} key and an {@code int} value for each
+     * mapping.
+     *
+     * @param f The file to write to.
+     * @throws IOException If encountered.
+     */
+    public void cache(Path f) throws IOException {
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(f), 1 << 16))) {
+            write(dos);
+        }
+    }
+
+    /**
+     * Replaces the mappings with those read from a file written by
+     * {@link #cache(java.nio.file.Path)}.
+     *
+     * @param f The file to read from.
+     * @throws IOException If encountered.
+     */
+    public void load(Path f) throws IOException {
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(f), 1 << 16))) {
+            read(dis);
+        }
+    }
+
+    /**
+     * Writes the mappings in the form written by
+     * {@link #cache(java.nio.file.Path)}.
+     *
+     * @param dos The output to write to.
+     * @throws IOException If encountered.
+     */
+    public void write(DataOutput dos) throws IOException {
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(size);
+        if (hasFreeKey) {
+            dos.writeLong(FREE_KEY);
+            dos.writeInt(freeValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                dos.writeLong(keys[i]);
+                dos.writeInt(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Replaces the mappings with those read from input in the form written
+     * by {@link #write(java.io.DataOutput)}.
+     *
+     * @param dis The input to read from.
+     * @throws IOException If encountered.
+     */
+    public void read(DataInput dis) throws IOException {
+        int n = readHeader(dis.readInt(), dis.readInt(), dis.readInt());
+        for (int i = 0; i < n; i++) {
+            long k = dis.readLong();
+            put(k, dis.readInt());
+        }
+    }
+
+    /**
+     * Replaces the mappings with those read from a buffer (which may be a
+     * mapped file) in the form written by {@link #write(java.io.DataOutput)}.
+     * The buffer position is advanced past what is read.
+     *
+     * @param b The buffer to read from.
+     * @throws IOException If encountered.
+     */
+    public void read(ByteBuffer b) throws IOException {
+        int n = readHeader(b.getInt(), b.getInt(), b.getInt());
+        for (int i = 0; i < n; i++) {
+            long k = b.getLong();
+            put(k, b.getInt());
+        }
+    }
+
+    /**
+     * Checks the header and clears this ready for reading.
+     *
+     * @param magic The magic number read.
+     * @param v The version read.
+     * @param n The number of mappings read.
+     * @return {@code n}
+     * @throws IOException If the header is not valid.
+     */
+    private int readHeader(int magic, int v, int n) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException("Not a " + getClass().getSimpleName()
+                    + " file");
+        }
+        if (v != VERSION) {
+            throw new IOException("Unsupported version " + v);
+        }
+        allocate(capacityFor(n));
+        hasFreeKey = false;
+        size = 0;
+        return n;
+    }
+
+    private void writeObject(ObjectOutputStream oos) throws IOException {
+        oos.defaultWriteObject();
+        write(oos);
+    }
+
+    private void readObject(ObjectInputStream ois) throws IOException,
+            ClassNotFoundException {
+        ois.defaultReadObject();
+        read(ois);
+    }
+}
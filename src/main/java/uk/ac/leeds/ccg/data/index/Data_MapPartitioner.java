@@ -0,0 +1,96 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.util.HashMap;
+import java.util.TreeMap;
+
+/**
+ * A {@link Data_Partitioner} that holds the collection ID of every record in a
+ * {@link Data_LongIntMap}. This supports any layout of records in collections
+ * at a cost of memory proportional to the number of records.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_MapPartitioner implements Data_Partitioner {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Keys are record IDs and values are collection IDs.
+     */
+    public final Data_LongIntMap map;
+
+    /**
+     * Creates a new instance with an empty map.
+     */
+    public Data_MapPartitioner() {
+        this(new Data_LongIntMap());
+    }
+
+    /**
+     * @param map What {@link #map} is set to.
+     */
+    public Data_MapPartitioner(Data_LongIntMap map) {
+        this.map = map;
+    }
+
+    @Override
+    public int getCollectionId(long recordId) {
+        return map.get(recordId);
+    }
+
+    @Override
+    public void put(long recordId, int collectionId) {
+        map.put(recordId, collectionId);
+    }
+
+    @Override
+    public TreeMap<Integer, Integer> getRecordCounts() {
+        HashMap<Integer, int[]> m = new HashMap<>();
+        map.forEach((k, v) -> m.computeIfAbsent(v, x -> new int[1])[0]++);
+        TreeMap<Integer, Integer> r = new TreeMap<>();
+        m.forEach((k, v) -> r.put(k, v[0]));
+        return r;
+    }
+
+    @Override
+    public TreeMap<Integer, long[]> getRecordIdRanges() {
+        TreeMap<Integer, long[]> r = new TreeMap<>();
+        map.forEach((k, v) -> {
+            long[] x = r.get(v);
+            if (x == null) {
+                r.put(v, new long[]{k, k});
+            } else if (k < x[0]) {
+                x[0] = k;
+            } else if (k > x[1]) {
+                x[1] = k;
+            }
+        });
+        return r;
+    }
+
+    @Override
+    public long getN() {
+        return map.size();
+    }
+
+    @Override
+    public long getSizeEstimate() {
+        return 16L + map.getSizeEstimate();
+    }
+}
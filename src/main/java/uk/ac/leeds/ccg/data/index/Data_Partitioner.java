@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.io.Serializable;
+import java.util.TreeMap;
+
+/**
+ * For mapping record IDs to the IDs of the collections that contain them.
+ * {@link Data_MapPartitioner} holds an entry for every record so can
+ * represent any layout. {@link Data_BlockPartitioner} computes the collection
+ * ID from the record ID so holds no per record state, but requires each
+ * collection to hold a contiguous block of record IDs.
+ *
+ * Implementations need not be thread safe: {@code Data_Data} guards access
+ * in concurrent mode.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public interface Data_Partitioner extends Serializable {
+
+    /**
+     * @param recordId The {@code Data_RecordID.id} of a record.
+     * @return The {@code Data_CollectionID.id} of the collection containing
+     * the record or {@link Data_LongIntMap#NO_VALUE} if the record is not
+     * known.
+     */
+    public int getCollectionId(long recordId);
+
+    /**
+     * For recording that a record is in a collection.
+     *
+     * @param recordId The {@code Data_RecordID.id} of the record.
+     * @param collectionId The {@code Data_CollectionID.id} of the collection.
+     * @throws IllegalArgumentException If the partitioner cannot represent
+     * the mapping.
+     */
+    public void put(long recordId, int collectionId);
+
+    /**
+     * @return The number of records known in each collection keyed by
+     * {@code Data_CollectionID.id}. Collections with no records known are not
+     * included.
+     */
+    public TreeMap<Integer, Integer> getRecordCounts();
+
+    /**
+     * @return The smallest and largest record IDs known in each collection as
+     * {@code {min, max}} keyed by {@code Data_CollectionID.id}. Collections
+     * with no records known are not included.
+     */
+    public TreeMap<Integer, long[]> getRecordIdRanges();
+
+    /**
+     * @return The number of records known.
+     */
+    public long getN();
+
+    /**
+     * @return An estimate of the number of bytes of memory retained by this.
+     */
+    public long getSizeEstimate();
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import uk.ac.leeds.ccg.data.Data_Record;
+
+/**
+ * A {@link Data_AttributeIndex} backed by a {@link TreeMap} for looking up
+ * records with an attribute value in a range as well as with a given value.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ * @param <K> The type of the attribute values.
+ */
+public class Data_SortedIndex<K extends Comparable<? super K>>
+        extends Data_AttributeIndex<K> {
+
+    /**
+     * @param name What {@link #name} is set to.
+     * @param key What {@link #key} is set to.
+     */
+    public Data_SortedIndex(String name,
+            Function<? super Data_Record, ? extends K> key) {
+        super(name, key, new TreeMap<>());
+    }
+
+    /**
+     * @param from The smallest attribute value wanted.
+     * @param to The largest attribute value wanted.
+     * @return The IDs of the records indexed with values from {@code from} to
+     * {@code to} inclusive in order of value.
+     */
+    public synchronized long[] getRange(K from, K to) {
+        NavigableMap<K, Ids> m = ((TreeMap<K, Ids>) map).subMap(from, true,
+                to, true);
+        int n = 0;
+        for (Ids ids : m.values()) {
+            n += ids.n;
+        }
+        long[] r = new long[n];
+        int i = 0;
+        for (Ids ids : m.values()) {
+            System.arraycopy(ids.ids, 0, r, i, ids.n);
+            i += ids.n;
+        }
+        return r;
+    }
+
+    /**
+     * @param r The record.
+     * @param from The smallest attribute value wanted.
+     * @param to The largest attribute value wanted.
+     * @return {@code true} iff the attribute of {@code r} is from
+     * {@code from} to {@code to} inclusive.
+     */
+    public boolean inRange(Data_Record r, K from, K to) {
+        K k = key.apply(r);
+        return k != null && k.compareTo(from) >= 0 && k.compareTo(to) <= 0;
+    }
+}
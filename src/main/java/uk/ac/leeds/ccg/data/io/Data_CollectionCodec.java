@@ -0,0 +1,50 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * For encoding a {@link Data_Collection} in a compact binary form and decoding
+ * it again. This is what a {@link Data_MappedCollectionStore} uses.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public interface Data_CollectionCodec {
+
+    /**
+     * @param c The collection to encode.
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    public void encode(Data_Collection c, DataOutput out) throws IOException;
+
+    /**
+     * @param cID The ID of the collection.
+     * @param in The buffer to decode from. This is positioned at the start of
+     * what was written by {@link #encode(Data_Collection, DataOutput)} and is
+     * in big endian order.
+     * @return The collection decoded.
+     * @throws IOException If encountered.
+     */
+    public Data_Collection decode(Data_CollectionID cID, ByteBuffer in)
+            throws IOException;
+}
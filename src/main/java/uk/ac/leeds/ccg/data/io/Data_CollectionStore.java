@@ -0,0 +1,79 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * For storing {@link Data_Collection}s outside of memory so that they can be
+ * cleared from memory and loaded back in again when needed.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public interface Data_CollectionStore {
+
+    /**
+     * For writing a collection to the store.
+     *
+     * @param cID The ID of the collection.
+     * @param c The collection to write.
+     * @throws IOException If encountered.
+     */
+    public void write(Data_CollectionID cID, Data_Collection c)
+            throws IOException;
+
+    /**
+     * For reading a collection from the store.
+     *
+     * @param cID The ID of the collection.
+     * @return The collection read.
+     * @throws IOException If encountered.
+     * @throws ClassNotFoundException If encountered.
+     */
+    public Data_Collection read(Data_CollectionID cID) throws IOException,
+            ClassNotFoundException;
+
+    /**
+     * @param cID The ID of the collection.
+     * @return {@code true} iff the collection can be read from the store.
+     * @throws IOException If encountered.
+     */
+    public boolean contains(Data_CollectionID cID) throws IOException;
+
+    /**
+     * For getting the number of bytes a collection occupies in the store. This
+     * is used for statistics. This default implementation returns {@code -1}.
+     *
+     * @param cID The ID of the collection.
+     * @return The number of bytes or {@code -1} if this is not known.
+     * @throws IOException If encountered.
+     */
+    public default long getSize(Data_CollectionID cID) throws IOException {
+        return -1L;
+    }
+
+    /**
+     * For waiting until all writes made so far have been completed. This
+     * default implementation does nothing as writes are synchronous.
+     *
+     * @throws IOException If encountered.
+     */
+    public default void flush() throws IOException {
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.generic.io.Generic_IO;
+
+/**
+ * A {@link Data_CollectionStore} that compresses each collection file. Files
+ * start with a header giving the {@link Data_Compression#id} used and the
+ * uncompressed length, so files are decoded correctly whatever
+ * {@link #compression} is currently set to.
+ *
+ * Collections are encoded with a {@link Data_CollectionCodec} if one is given,
+ * otherwise Java serialization is used. If there is no compressed file for a
+ * collection, but there is a file written by a
+ * {@link Data_SerializedCollectionStore}, then that is read instead.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_CompressedCollectionStore implements Data_CollectionStore {
+
+    /**
+     * The file extension for compressed collection files.
+     */
+    public static final String DOT_Z = ".z";
+
+    /**
+     * For identifying compressed collection files.
+     */
+    public static final int MAGIC = 0x44435a31;
+
+    /**
+     * The version of the file layout.
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * For getting the files.
+     */
+    protected final Data_Files files;
+
+    /**
+     * For encoding and decoding collections. If this is {@code null} then Java
+     * serialization is used.
+     */
+    protected final Data_CollectionCodec codec;
+
+    /**
+     * The compression used for writing.
+     */
+    protected volatile Data_Compression compression;
+
+    /**
+     * Statistics.
+     */
+    protected final Data_CompressionStats stats;
+
+    /**
+     * @param files What {@link #files} is set to.
+     * @param compression What {@link #compression} is set to.
+     * @param codec What {@link #codec} is set to. This may be {@code null}.
+     */
+    public Data_CompressedCollectionStore(Data_Files files,
+            Data_Compression compression, Data_CollectionCodec codec) {
+        this.files = files;
+        this.compression = compression;
+        this.codec = codec;
+        stats = new Data_CompressionStats();
+    }
+
+    /**
+     * @param c What {@link #compression} is set to. This only affects files
+     * written subsequently.
+     */
+    public void setCompression(Data_Compression c) {
+        compression = c;
+    }
+
+    /**
+     * @return {@link #compression}
+     */
+    public Data_Compression getCompression() {
+        return compression;
+    }
+
+    /**
+     * @return {@link #stats}
+     */
+    public Data_CompressionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @param cID The ID of the collection.
+     * @return The compressed file the collection is stored in.
+     * @throws IOException If encountered.
+     */
+    public Path getFile(Data_CollectionID cID) throws IOException {
+        return files.getCollectionFile(cID, files.DOT_DAT + DOT_Z);
+    }
+
+    /**
+     * @param cID The ID of the collection.
+     * @return The file a {@link Data_SerializedCollectionStore} would store
+     * the collection in.
+     * @throws IOException If encountered.
+     */
+    public Path getLegacyFile(Data_CollectionID cID) throws IOException {
+        return files.getCollectionFile(cID, files.DOT_DAT);
+    }
+
+    @Override
+    public void write(Data_CollectionID cID, Data_Collection c)
+            throws IOException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream(1 << 16);
+        if (codec == null) {
+            try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+                oos.writeObject(c);
+            }
+        } else {
+            try (DataOutputStream dos = new DataOutputStream(b)) {
+                codec.encode(c, dos);
+            }
+        }
+        Data_Compression z = compression;
+        Path f = getFile(cID);
+        try (OutputStream os = Files.newOutputStream(f)) {
+            DataOutputStream h = new DataOutputStream(os);
+            h.writeInt(MAGIC);
+            h.writeByte(VERSION);
+            h.writeByte(z.id);
+            h.writeLong(b.size());
+            h.flush();
+            try (OutputStream zos = z.compress(os)) {
+                b.writeTo(zos);
+            }
+        }
+        stats.nWritten.increment();
+        stats.rawBytesWritten.add(b.size());
+        stats.compressedBytesWritten.add(Files.size(f));
+    }
+
+    @Override
+    public Data_Collection read(Data_CollectionID cID) throws IOException,
+            ClassNotFoundException {
+        Path f = getFile(cID);
+        if (!Files.exists(f)) {
+            Path lf = getLegacyFile(cID);
+            if (Files.exists(lf)) {
+                return (Data_Collection) Generic_IO.readObject(lf);
+            }
+            throw new NoSuchFileException(f.toString());
+        }
+        Data_Collection r;
+        long n;
+        byte id;
+        byte[] compressed;
+        try (DataInputStream dis = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(f), 1 << 16))) {
+            if (dis.readInt() != MAGIC) {
+                throw new IOException("Not a compressed collection file " + f);
+            }
+            byte v = dis.readByte();
+            if (v != VERSION) {
+                throw new IOException("Unsupported version " + v + " of " + f);
+            }
+            id = dis.readByte();
+            n = dis.readLong();
+            if (n > Integer.MAX_VALUE - 8) {
+                throw new IOException("Collection in " + f + " is too large");
+            }
+            compressed = dis.readAllBytes();
+        }
+        // Only decompressing and decoding are timed, not reading the file.
+        long t0 = System.nanoTime();
+        byte[] raw = new byte[(int) n];
+        try (InputStream zis = Data_Compression.decompress(id,
+                new ByteArrayInputStream(compressed))) {
+            int off = 0;
+            while (off < raw.length) {
+                int k = zis.read(raw, off, raw.length - off);
+                if (k < 0) {
+                    throw new EOFException("Truncated collection file " + f);
+                }
+                off += k;
+            }
+        }
+        if (codec == null) {
+            try (ObjectInputStream ois = new ObjectInputStream(
+                    new ByteArrayInputStream(raw))) {
+                r = (Data_Collection) ois.readObject();
+            }
+        } else {
+            r = codec.decode(cID, ByteBuffer.wrap(raw));
+        }
+        long t1 = System.nanoTime();
+        stats.nRead.increment();
+        stats.rawBytesRead.add(n);
+        stats.compressedBytesRead.add(Files.size(f));
+        stats.decodeNanos.add(t1 - t0);
+        return r;
+    }
+
+    @Override
+    public boolean contains(Data_CollectionID cID) throws IOException {
+        return Files.exists(getFile(cID)) || Files.exists(getLegacyFile(cID));
+    }
+
+    @Override
+    public long getSize(Data_CollectionID cID) throws IOException {
+        Path f = getFile(cID);
+        if (!Files.exists(f)) {
+            f = getLegacyFile(cID);
+            if (!Files.exists(f)) {
+                return -1L;
+            }
+        }
+        return Files.size(f);
+    }
+}
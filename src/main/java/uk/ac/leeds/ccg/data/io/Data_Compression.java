@@ -0,0 +1,166 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A compression codec for cache files. Each codec has an {@link #id} which is
+ * written into file headers so that the right decoder can be chosen when the
+ * file is read without needing to know how it was written.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_Compression {
+
+    /**
+     * The {@link #id} for no compression.
+     */
+    public static final byte ID_NONE = 0;
+
+    /**
+     * The {@link #id} for {@link Deflater} compression.
+     */
+    public static final byte ID_DEFLATE = 1;
+
+    /**
+     * No compression.
+     */
+    public static final Data_Compression NONE = new Data_Compression(ID_NONE,
+            0, 0);
+
+    /**
+     * Fast compression with a low compression ratio: Huffman coding only.
+     */
+    public static final Data_Compression FAST = new Data_Compression(
+            ID_DEFLATE, Deflater.BEST_SPEED, Deflater.HUFFMAN_ONLY);
+
+    /**
+     * The default {@link Deflater} compression.
+     */
+    public static final Data_Compression DEFAULT = new Data_Compression(
+            ID_DEFLATE, Deflater.DEFAULT_COMPRESSION,
+            Deflater.DEFAULT_STRATEGY);
+
+    /**
+     * The codec ID.
+     */
+    public final byte id;
+
+    /**
+     * The {@link Deflater} compression level.
+     */
+    public final int level;
+
+    /**
+     * The {@link Deflater} compression strategy.
+     */
+    public final int strategy;
+
+    /**
+     * @param id What {@link #id} is set to.
+     * @param level What {@link #level} is set to.
+     * @param strategy What {@link #strategy} is set to.
+     */
+    protected Data_Compression(byte id, int level, int strategy) {
+        this.id = id;
+        this.level = level;
+        this.strategy = strategy;
+    }
+
+    /**
+     * @param level The compression level in the range [0, 9] where 1 is the
+     * fastest and 9 gives the best compression. 0 is no compression.
+     * @return {@link Deflater} compression at {@code level}.
+     */
+    public static Data_Compression deflate(int level) {
+        if (level < Deflater.NO_COMPRESSION
+                || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("level " + level
+                    + " is not in the range [0, 9]");
+        }
+        return new Data_Compression(ID_DEFLATE, level,
+                Deflater.DEFAULT_STRATEGY);
+    }
+
+    @Override
+    public String toString() {
+        if (id == ID_NONE) {
+            return getClass().getSimpleName() + "(none)";
+        }
+        return getClass().getSimpleName() + "(deflate, level=" + level
+                + ", strategy=" + strategy + ")";
+    }
+
+    /**
+     * @param os The stream to wrap.
+     * @return A stream that compresses what is written to it and writes the
+     * result to {@code os}. Closing this closes {@code os}.
+     */
+    public OutputStream compress(OutputStream os) {
+        if (id == ID_NONE) {
+            return os;
+        }
+        Deflater d = new Deflater(level);
+        d.setStrategy(strategy);
+        return new DeflaterOutputStream(os, d, 1 << 16) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    d.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * @param id The codec ID.
+     * @param is The stream to wrap.
+     * @return A stream that decompresses what is read from {@code is}.
+     * Closing this closes {@code is}.
+     * @throws IOException If {@code id} is not known.
+     */
+    public static InputStream decompress(byte id, InputStream is)
+            throws IOException {
+        switch (id) {
+            case ID_NONE:
+                return is;
+            case ID_DEFLATE:
+                Inflater i = new Inflater();
+                return new InflaterInputStream(is, i, 1 << 16) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            i.end();
+                        }
+                    }
+                };
+            default:
+                throw new IOException("Unknown compression codec " + id);
+        }
+    }
+}
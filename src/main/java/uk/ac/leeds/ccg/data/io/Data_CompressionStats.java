@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * For recording statistics about compressed cache files: how many bytes were
+ * written and read before and after compression and how long decoding took.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_CompressionStats {
+
+    /**
+     * The number of files written.
+     */
+    public final LongAdder nWritten = new LongAdder();
+
+    /**
+     * The number of bytes written before compression.
+     */
+    public final LongAdder rawBytesWritten = new LongAdder();
+
+    /**
+     * The number of bytes written after compression.
+     */
+    public final LongAdder compressedBytesWritten = new LongAdder();
+
+    /**
+     * The number of files read.
+     */
+    public final LongAdder nRead = new LongAdder();
+
+    /**
+     * The number of bytes read after decompression.
+     */
+    public final LongAdder rawBytesRead = new LongAdder();
+
+    /**
+     * The number of compressed bytes read.
+     */
+    public final LongAdder compressedBytesRead = new LongAdder();
+
+    /**
+     * The time spent decompressing and decoding in nanoseconds. This does not
+     * include reading the files.
+     */
+    public final LongAdder decodeNanos = new LongAdder();
+
+    /**
+     * Creates a new instance.
+     */
+    public Data_CompressionStats() {
+    }
+
+    /**
+     * @return The ratio of compressed to uncompressed bytes written or
+     * {@code 1} if nothing has been written.
+     */
+    public double getCompressionRatio() {
+        long raw = rawBytesWritten.sum();
+        if (raw == 0) {
+            return 1d;
+        }
+        return compressedBytesWritten.sum() / (double) raw;
+    }
+
+    /**
+     * @return The mean time in milliseconds taken to decompress and decode a
+     * file or {@code 0} if nothing has been read.
+     */
+    public double getMeanDecodeMillis() {
+        long n = nRead.sum();
+        if (n == 0) {
+            return 0d;
+        }
+        return decodeNanos.sum() / (n * 1000000d);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(nWritten=" + nWritten.sum()
+                + ", rawBytesWritten=" + rawBytesWritten.sum()
+                + ", compressedBytesWritten=" + compressedBytesWritten.sum()
+                + ", compressionRatio=" + getCompressionRatio()
+                + ", nRead=" + nRead.sum()
+                + ", rawBytesRead=" + rawBytesRead.sum()
+                + ", compressedBytesRead=" + compressedBytesRead.sum()
+                + ", meanDecodeMillis=" + getMeanDecodeMillis() + ")";
+    }
+}
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import uk.ac.leeds.ccg.data.core.Data_Strings;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
 import uk.ac.leeds.ccg.generic.io.Generic_Defaults;
 import uk.ac.leeds.ccg.generic.io.Generic_Files;
 
@@ -50,4 +51,36 @@ public class Data_Files extends Generic_Files {
     public Path getEnvDataFile() throws IOException {
         return Paths.get(getGeneratedDir().toString(), "Env.dat");
     }
+
+    /**
+     * @param cID The collection ID.
+     * @param ext The file extension (including the dot).
+     * @return A file in the generated directory for storing the collection
+     * with ID {@code cID}.
+     * @throws java.io.IOException If encountered.
+     */
+    public Path getCollectionFile(Data_CollectionID cID, String ext)
+            throws IOException {
+        return Paths.get(getGeneratedDir().toString(),
+                Data_Strings.s_DATA + Data_Strings.symbol_underscore + cID
+                + ext);
+    }
+
+    /**
+     * @return The directory in the generated directory used by a
+     * {@link Data_PackedCollectionStore}.
+     * @throws java.io.IOException If encountered.
+     */
+    public Path getPackedDir() throws IOException {
+        return Paths.get(getGeneratedDir().toString(), "packed");
+    }
+
+    /**
+     * @return The directory in the generated directory used by a
+     * {@link Data_LogStructuredStore}.
+     * @throws java.io.IOException If encountered.
+     */
+    public Path getLogDir() throws IOException {
+        return Paths.get(getGeneratedDir().toString(), "log");
+    }
 }
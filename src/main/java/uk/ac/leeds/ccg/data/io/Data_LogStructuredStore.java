@@ -0,0 +1,967 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_ColumnarCollection;
+import uk.ac.leeds.ccg.data.Data_ColumnarRecord;
+import uk.ac.leeds.ccg.data.Data_Record;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ * A {@link Data_CollectionStore} that appends changes to a log rather than
+ * rewriting collections. Adding, replacing or removing a single record with
+ * {@link #append(Data_CollectionID, Data_Record)} or
+ * {@link #delete(Data_CollectionID, Data_RecordID)} appends just that change,
+ * and {@link #write(Data_CollectionID, Data_Collection)} appends the whole
+ * collection as a snapshot. Reads take the latest snapshot, or else what is
+ * in the {@link #base} store, and replay the later changes on it.
+ *
+ * {@link #compact()} merges the changes into the {@link #base} store, writing
+ * each collection with changes once, and deletes the log segments that are
+ * then no longer needed. It can be run in the background with
+ * {@link #startCompaction(long, TimeUnit, long)}.
+ *
+ * The log is a number of segment files. Each entry is an operation byte, the
+ * collection ID, the length of the payload, a CRC32C checksum of these and
+ * the payload, and the payload. When a merge is
+ * complete an entry is appended recording the last entry merged so that the
+ * merged entries are not replayed after reopening. Replaying a change that
+ * is already in the {@link #base} store makes no difference, so nothing is
+ * lost if a compaction is interrupted. On opening, all the segments are
+ * scanned and each is truncated at the first entry that is incomplete or
+ * fails its checksum, so a partially written entry at the end of a segment
+ * is removed. A segment is forced to storage when a new one is started, so
+ * {@link #flush()} only needs to force the segment being appended to.
+ *
+ * Records and snapshots are encoded with a {@link Data_RecordCollectionCodec}
+ * if one is given, otherwise Java serialization is used. Changes are
+ * replayed using {@link Data_Collection#putRecord(Data_Record)} and
+ * {@link Data_Collection#removeRecord(Data_RecordID)}. If there is neither a
+ * snapshot nor a collection in the {@link #base} store to replay them on,
+ * then they are replayed on a new {@link Data_ColumnarCollection} with the
+ * same columns if the first record added is a {@link Data_ColumnarRecord},
+ * otherwise on a new {@link Data_Collection}.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_LogStructuredStore implements Data_CollectionStore,
+        Closeable {
+
+    /**
+     * The operation of an entry for adding or replacing a record.
+     */
+    public static final byte PUT = 1;
+
+    /**
+     * The operation of an entry for removing a record.
+     */
+    public static final byte REMOVE = 2;
+
+    /**
+     * The operation of an entry for a whole collection.
+     */
+    public static final byte SNAPSHOT = 3;
+
+    /**
+     * The operation of an entry recording that the entries for a collection
+     * up to and including a location have been merged into the {@link #base}
+     * store.
+     */
+    public static final byte MERGED = 4;
+
+    /**
+     * The length of the header of each entry: the operation, the collection
+     * ID, the length and the checksum.
+     */
+    public static final int ENTRY_HEADER = 13;
+
+    /**
+     * The default maximum segment size.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 1L << 26;
+
+    /**
+     * The prefix of segment file names.
+     */
+    public static final String SEGMENT = "log_";
+
+    /**
+     * Where an entry is.
+     */
+    protected static class Location {
+
+        /**
+         * The operation.
+         */
+        final byte op;
+
+        /**
+         * The segment number.
+         */
+        final int segment;
+
+        /**
+         * The position of the payload in the segment.
+         */
+        final long offset;
+
+        /**
+         * The length of the payload.
+         */
+        final int length;
+
+        Location(byte op, int segment, long offset, int length) {
+            this.op = op;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * @param segment A segment number.
+         * @param offset A position in that segment.
+         * @return {@code true} iff this is at or before the position.
+         */
+        boolean isAtOrBefore(int segment, long offset) {
+            return this.segment < segment || (this.segment == segment
+                    && this.offset <= offset);
+        }
+    }
+
+    /**
+     * A segment file.
+     */
+    protected static class Segment {
+
+        /**
+         * The segment number.
+         */
+        final int id;
+
+        /**
+         * The file.
+         */
+        final Path file;
+
+        /**
+         * The channel for reading and writing.
+         */
+        final FileChannel channel;
+
+        /**
+         * The size of the segment in bytes.
+         */
+        long size;
+
+        /**
+         * The number of bytes in entries not yet merged.
+         */
+        long live;
+
+        Segment(int id, Path file) throws IOException {
+            this.id = id;
+            this.file = file;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+        }
+    }
+
+    /**
+     * The directory the segments are in.
+     */
+    protected final Path dir;
+
+    /**
+     * The store changes are merged into.
+     */
+    protected final Data_CollectionStore base;
+
+    /**
+     * For encoding and decoding records and snapshots. If this is
+     * {@code null} then Java serialization is used.
+     */
+    protected final Data_RecordCollectionCodec codec;
+
+    /**
+     * The size in bytes at which a new segment is started.
+     */
+    protected final long maxSegmentSize;
+
+    /**
+     * The entries not yet merged for each collection in the order they were
+     * appended. A snapshot is only ever the first.
+     */
+    protected final HashMap<Data_CollectionID, List<Location>> pending;
+
+    /**
+     * The segments keyed by segment number.
+     */
+    protected final TreeMap<Integer, Segment> segments;
+
+    /**
+     * The segment being appended to.
+     */
+    protected Segment active;
+
+    /**
+     * Reads hold the read lock, appends and merges the write lock.
+     */
+    protected final ReentrantReadWriteLock lock;
+
+    /**
+     * For running {@link #compact()} in the background. This is {@code null}
+     * unless {@link #startCompaction(long, TimeUnit, long)} has been called.
+     */
+    protected ScheduledExecutorService compactor;
+
+    /**
+     * The first failure of a background compaction not yet thrown.
+     */
+    protected volatile IOException failure;
+
+    /**
+     * Opens a store in {@link Data_Files#getLogDir()} with the default
+     * maximum segment size.
+     *
+     * @param files For the directory.
+     * @param base What {@link #base} is set to.
+     * @param codec What {@link #codec} is set to. This may be {@code null}.
+     * @throws IOException If encountered.
+     */
+    public Data_LogStructuredStore(Data_Files files, Data_CollectionStore base,
+            Data_RecordCollectionCodec codec) throws IOException {
+        this(files.getLogDir(), base, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param dir What {@link #dir} is set to.
+     * @param base What {@link #base} is set to.
+     * @param codec What {@link #codec} is set to. This may be {@code null}.
+     * @param maxSegmentSize What {@link #maxSegmentSize} is set to.
+     * @throws IOException If encountered.
+     */
+    public Data_LogStructuredStore(Path dir, Data_CollectionStore base,
+            Data_RecordCollectionCodec codec, long maxSegmentSize)
+            throws IOException {
+        if (maxSegmentSize < ENTRY_HEADER) {
+            throw new IllegalArgumentException("maxSegmentSize "
+                    + maxSegmentSize + " is too small");
+        }
+        this.dir = dir;
+        this.base = base;
+        this.codec = codec;
+        this.maxSegmentSize = maxSegmentSize;
+        pending = new HashMap<>();
+        segments = new TreeMap<>();
+        lock = new ReentrantReadWriteLock();
+        open();
+    }
+
+    /**
+     * For opening the segments and scanning them in order to find the entries
+     * not yet merged.
+     *
+     * @throws IOException If encountered.
+     */
+    private void open() throws IOException {
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir,
+                SEGMENT + "*")) {
+            for (Path f : ds) {
+                String n = f.getFileName().toString();
+                int id = Integer.parseInt(n.substring(SEGMENT.length(),
+                        n.length() - ".dat".length()));
+                segments.put(id, new Segment(id, f));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected segment file in " + dir, e);
+        }
+        for (Segment s : segments.values()) {
+            scan(s);
+        }
+        for (List<Location> ls : pending.values()) {
+            for (Location l : ls) {
+                segments.get(l.segment).live += ENTRY_HEADER + l.length;
+            }
+        }
+        if (segments.isEmpty()) {
+            active = newSegment();
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+    }
+
+    /**
+     * For adding the entries in a segment to {@link #pending}. The segment is
+     * truncated at the first entry that is incomplete or fails its checksum.
+     *
+     * @param s The segment.
+     * @throws IOException If encountered.
+     */
+    private void scan(Segment s) throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(ENTRY_HEADER);
+        long pos = 0L;
+        while (pos + ENTRY_HEADER <= s.size) {
+            h.clear();
+            readFully(s.channel, h, pos);
+            h.flip();
+            byte op = h.get();
+            int cid = h.getInt();
+            int length = h.getInt();
+            if (op < PUT || op > MERGED || length < 0
+                    || pos + ENTRY_HEADER + length > s.size) {
+                break;
+            }
+            ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER + length);
+            readFully(s.channel, entry, pos);
+            entry.flip();
+            if (entry.getInt(9) != checksum(entry)) {
+                break;
+            }
+            Data_CollectionID cID = new Data_CollectionID(cid);
+            Location l = new Location(op, s.id, pos + ENTRY_HEADER, length);
+            if (op == MERGED) {
+                ByteBuffer b = entry.position(ENTRY_HEADER).slice();
+                int segment = b.getInt();
+                long offset = b.getLong();
+                List<Location> ls = pending.get(cID);
+                if (ls != null) {
+                    ls.removeIf(x -> x.isAtOrBefore(segment, offset));
+                    if (ls.isEmpty()) {
+                        pending.remove(cID);
+                    }
+                }
+            } else {
+                add(cID, l);
+            }
+            pos += ENTRY_HEADER + length;
+        }
+        if (pos < s.size) {
+            s.channel.truncate(pos);
+            s.size = pos;
+        }
+    }
+
+    /**
+     * For adding an entry to {@link #pending}. A snapshot replaces the
+     * entries before it. The caller must hold the write lock or be opening.
+     *
+     * @param cID The collection ID.
+     * @param l The location of the entry.
+     * @return The entries replaced.
+     */
+    private List<Location> add(Data_CollectionID cID, Location l) {
+        List<Location> ls = pending.computeIfAbsent(cID,
+                k -> new ArrayList<>());
+        List<Location> r = List.of();
+        if (l.op == SNAPSHOT) {
+            r = new ArrayList<>(ls);
+            ls.clear();
+        }
+        ls.add(l);
+        return r;
+    }
+
+    /**
+     * @param entry An entry including its header.
+     * @return The CRC32C checksum of the operation, the collection ID, the
+     * length and the payload of {@code entry}.
+     */
+    private static int checksum(ByteBuffer entry) {
+        CRC32C crc = new CRC32C();
+        crc.update(entry.array(), entry.arrayOffset(), 9);
+        crc.update(entry.array(), entry.arrayOffset() + ENTRY_HEADER,
+                entry.limit() - ENTRY_HEADER);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * For forcing {@link #active} to storage and starting a new segment to
+     * append to.
+     *
+     * @throws IOException If encountered.
+     */
+    private void roll() throws IOException {
+        active.channel.force(false);
+        active = newSegment();
+    }
+
+    /**
+     * @return A new empty segment numbered after the last one.
+     * @throws IOException If encountered.
+     */
+    private Segment newSegment() throws IOException {
+        int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        Segment r = new Segment(id, dir.resolve(SEGMENT + id + ".dat"));
+        segments.put(id, r);
+        return r;
+    }
+
+    private static void readFully(FileChannel fc, ByteBuffer b, long pos)
+            throws IOException {
+        while (b.hasRemaining()) {
+            int n = fc.read(b, pos);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            pos += n;
+        }
+    }
+
+    private static void writeFully(FileChannel fc, ByteBuffer b, long pos)
+            throws IOException {
+        while (b.hasRemaining()) {
+            pos += fc.write(b, pos);
+        }
+    }
+
+    /**
+     * For creating an entry. The header is filled in by
+     * {@link #append(byte, Data_CollectionID, ByteArrayOutputStream)}.
+     *
+     * @return A stream with space for the header written.
+     */
+    private static ByteArrayOutputStream newEntry() {
+        ByteArrayOutputStream r = new ByteArrayOutputStream(256);
+        r.write(new byte[ENTRY_HEADER], 0, ENTRY_HEADER);
+        return r;
+    }
+
+    /**
+     * For appending an entry to {@link #active}. The caller must hold the
+     * write lock.
+     *
+     * @param op The operation.
+     * @param cID The collection ID.
+     * @param b The entry including space for its header.
+     * @return The location of the entry.
+     * @throws IOException If encountered.
+     */
+    private Location append(byte op, Data_CollectionID cID,
+            ByteArrayOutputStream b) throws IOException {
+        ByteBuffer entry = ByteBuffer.wrap(b.toByteArray());
+        int length = entry.remaining();
+        entry.put(0, op);
+        entry.putInt(1, cID.id);
+        entry.putInt(5, length - ENTRY_HEADER);
+        entry.putInt(9, checksum(entry));
+        if (active.size > 0 && active.size + length > maxSegmentSize) {
+            roll();
+        }
+        long pos = active.size;
+        writeFully(active.channel, entry, pos);
+        active.size = pos + length;
+        return new Location(op, active.id, pos + ENTRY_HEADER,
+                length - ENTRY_HEADER);
+    }
+
+    /**
+     * For appending an entry for a change to a collection and adding it to
+     * {@link #pending}.
+     *
+     * @param op The operation.
+     * @param cID The collection ID.
+     * @param b The entry including space for its header.
+     * @throws IOException If encountered.
+     */
+    private void appendPending(byte op, Data_CollectionID cID,
+            ByteArrayOutputStream b) throws IOException {
+        throwFailure();
+        lock.writeLock().lock();
+        try {
+            Location l = append(op, cID, b);
+            active.live += ENTRY_HEADER + l.length;
+            for (Location o : add(cID, l)) {
+                segments.get(o.segment).live -= ENTRY_HEADER + o.length;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * For adding or replacing a record in a collection without reading or
+     * rewriting the collection.
+     *
+     * @param cID The collection ID.
+     * @param r The record.
+     * @throws IOException If encountered.
+     */
+    public void append(Data_CollectionID cID, Data_Record r)
+            throws IOException {
+        ByteArrayOutputStream b = newEntry();
+        if (codec == null) {
+            try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+                oos.writeObject(r);
+            }
+        } else {
+            try (DataOutputStream dos = new DataOutputStream(b)) {
+                codec.writeRecord(r, dos);
+            }
+        }
+        appendPending(PUT, cID, b);
+    }
+
+    /**
+     * For removing a record from a collection without reading or rewriting
+     * the collection.
+     *
+     * @param cID The collection ID.
+     * @param rID The record ID.
+     * @throws IOException If encountered.
+     */
+    public void delete(Data_CollectionID cID, Data_RecordID rID)
+            throws IOException {
+        ByteArrayOutputStream b = newEntry();
+        try (DataOutputStream dos = new DataOutputStream(b)) {
+            dos.writeLong(rID.id);
+        }
+        appendPending(REMOVE, cID, b);
+    }
+
+    /**
+     * For appending the whole collection as a snapshot. The entries before it
+     * for the collection are no longer needed.
+     *
+     * @param cID The collection ID.
+     * @param c The collection to write.
+     * @throws IOException If encountered.
+     */
+    @Override
+    public void write(Data_CollectionID cID, Data_Collection c)
+            throws IOException {
+        ByteArrayOutputStream b = newEntry();
+        if (codec == null) {
+            try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+                oos.writeObject(c);
+            }
+        } else {
+            try (DataOutputStream dos = new DataOutputStream(b)) {
+                codec.encode(c, dos);
+            }
+        }
+        appendPending(SNAPSHOT, cID, b);
+    }
+
+    @Override
+    public Data_Collection read(Data_CollectionID cID) throws IOException,
+            ClassNotFoundException {
+        List<Location> ls;
+        List<ByteBuffer> bs = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            List<Location> p = pending.get(cID);
+            ls = p == null ? List.of() : new ArrayList<>(p);
+            for (Location l : ls) {
+                ByteBuffer b = ByteBuffer.allocate(l.length);
+                readFully(segments.get(l.segment).channel, b, l.offset);
+                b.flip();
+                bs.add(b);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return merge(cID, ls, bs);
+    }
+
+    /**
+     * For replaying entries on the latest snapshot or what is in the
+     * {@link #base} store.
+     *
+     * @param cID The collection ID.
+     * @param ls The entries.
+     * @param bs The payloads of the entries.
+     * @return The collection.
+     * @throws IOException If encountered.
+     * @throws ClassNotFoundException If encountered.
+     */
+    private Data_Collection merge(Data_CollectionID cID, List<Location> ls,
+            List<ByteBuffer> bs) throws IOException, ClassNotFoundException {
+        Data_Collection r;
+        int i = 0;
+        if (!ls.isEmpty() && ls.get(0).op == SNAPSHOT) {
+            ByteBuffer b = bs.get(0);
+            if (codec == null) {
+                try (ObjectInputStream ois = new ObjectInputStream(
+                        new ByteArrayInputStream(b.array()))) {
+                    r = (Data_Collection) ois.readObject();
+                }
+            } else {
+                r = codec.decode(cID, b);
+            }
+            i = 1;
+        } else if (base.contains(cID)) {
+            r = base.read(cID);
+        } else if (ls.isEmpty()) {
+            throw new NoSuchFileException(dir + " " + cID);
+        } else {
+            r = null;
+        }
+        for (; i < ls.size(); i++) {
+            ByteBuffer b = bs.get(i);
+            if (ls.get(i).op == PUT) {
+                Data_Record x;
+                if (codec == null) {
+                    try (ObjectInputStream ois = new ObjectInputStream(
+                            new ByteArrayInputStream(b.array()))) {
+                        x = (Data_Record) ois.readObject();
+                    }
+                } else {
+                    x = codec.readRecord(b);
+                }
+                if (r == null) {
+                    r = newCollection(cID, x);
+                }
+                r.putRecord(x);
+            } else {
+                if (r == null) {
+                    r = new Data_Collection(cID);
+                }
+                r.removeRecord(new Data_RecordID(b.getLong()));
+            }
+        }
+        return r;
+    }
+
+    /**
+     * @param cID The collection ID.
+     * @param first The first record to be put in the collection.
+     * @return A new empty collection that {@code first} can be put in.
+     */
+    private static Data_Collection newCollection(Data_CollectionID cID,
+            Data_Record first) {
+        if (first instanceof Data_ColumnarRecord cr) {
+            return cr.c.emptyCopy(cID);
+        }
+        return new Data_Collection(cID);
+    }
+
+    @Override
+    public boolean contains(Data_CollectionID cID) throws IOException {
+        lock.readLock().lock();
+        try {
+            if (pending.containsKey(cID)) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return base.contains(cID);
+    }
+
+    /**
+     * @param cID The ID of the collection.
+     * @return The number of bytes of the collection in the {@link #base} store
+     * (unless there is a snapshot) and in the log.
+     * @throws IOException If encountered.
+     */
+    @Override
+    public long getSize(Data_CollectionID cID) throws IOException {
+        long r = 0L;
+        lock.readLock().lock();
+        try {
+            List<Location> ls = pending.get(cID);
+            if (ls != null) {
+                for (Location l : ls) {
+                    r += l.length;
+                }
+                if (ls.get(0).op == SNAPSHOT) {
+                    return r;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long s = base.getSize(cID);
+        if (s < 0) {
+            return r == 0L ? -1L : r;
+        }
+        return r + s;
+    }
+
+    /**
+     * For merging all the entries appended so far into the {@link #base}
+     * store and deleting the segments that are no longer needed. Appends can
+     * continue while this runs and go to a new segment.
+     *
+     * @return The number of collections merged.
+     * @throws IOException If encountered.
+     * @throws ClassNotFoundException If encountered.
+     */
+    public synchronized int compact() throws IOException,
+            ClassNotFoundException {
+        List<Data_CollectionID> cIDs;
+        lock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            if (active.size > 0) {
+                roll();
+            }
+            cIDs = new ArrayList<>(pending.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<Data_CollectionID, List<Location>> merged = new HashMap<>();
+        for (Data_CollectionID cID : cIDs) {
+            List<Location> ls;
+            List<ByteBuffer> bs = new ArrayList<>();
+            lock.readLock().lock();
+            try {
+                List<Location> p = pending.get(cID);
+                if (p == null) {
+                    continue;
+                }
+                ls = new ArrayList<>(p);
+                for (Location l : ls) {
+                    ByteBuffer b = ByteBuffer.allocate(l.length);
+                    readFully(segments.get(l.segment).channel, b, l.offset);
+                    b.flip();
+                    bs.add(b);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            base.write(cID, merge(cID, ls, bs));
+            merged.put(cID, ls);
+        }
+        // The merged collections must be stored before the entries recording
+        // that they are merged.
+        base.flush();
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Data_CollectionID, List<Location>> e
+                    : merged.entrySet()) {
+                Data_CollectionID cID = e.getKey();
+                List<Location> ls = e.getValue();
+                Location last = ls.get(ls.size() - 1);
+                List<Location> p = pending.get(cID);
+                if (p != null) {
+                    // A snapshot appended since has replaced them.
+                    for (Location l : ls) {
+                        if (p.remove(l)) {
+                            segments.get(l.segment).live -= ENTRY_HEADER
+                                    + l.length;
+                        }
+                    }
+                    if (p.isEmpty()) {
+                        pending.remove(cID);
+                    }
+                }
+                ByteArrayOutputStream b = newEntry();
+                try (DataOutputStream dos = new DataOutputStream(b)) {
+                    dos.writeInt(last.segment);
+                    dos.writeLong(last.offset);
+                }
+                append(MERGED, cID, b);
+            }
+            active.channel.force(false);
+            // Segments are deleted oldest first so that no entry appended
+            // before a MERGED entry that is deleted survives it.
+            Iterator<Segment> ite = segments.values().iterator();
+            while (ite.hasNext()) {
+                Segment s = ite.next();
+                if (s == active || s.live > 0) {
+                    break;
+                }
+                ite.remove();
+                s.channel.close();
+                Files.delete(s.file);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return merged.size();
+    }
+
+    /**
+     * For running {@link #compact()} in the background on a daemon thread
+     * whenever there are entries not yet merged and the log is at least
+     * {@code minLogSize} bytes. If a compaction fails the exception is thrown
+     * by the next append or {@link #flush()}.
+     *
+     * @param period The time between checks.
+     * @param unit The unit of {@code period}.
+     * @param minLogSize The size of the log in bytes at which it is compacted.
+     */
+    public synchronized void startCompaction(long period, TimeUnit unit,
+            long minLogSize) {
+        stopCompaction();
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, getClass().getSimpleName()
+                    + "-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                if (getPendingCount() > 0 && getLogSize() >= minLogSize) {
+                    compact();
+                }
+            } catch (IOException | ClassNotFoundException
+                    | RuntimeException e) {
+                if (failure == null) {
+                    failure = e instanceof IOException ioe ? ioe
+                            : new IOException(e);
+                }
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * For stopping background compaction, waiting for any compaction running
+     * to finish.
+     */
+    public void stopCompaction() {
+        ScheduledExecutorService s;
+        synchronized (this) {
+            s = compactor;
+            compactor = null;
+        }
+        if (s != null) {
+            s.shutdown();
+            try {
+                s.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Throws and forgets {@link #failure} if there is one.
+     *
+     * @throws IOException If a background compaction failed.
+     */
+    private void throwFailure() throws IOException {
+        IOException e = failure;
+        if (e != null) {
+            failure = null;
+            throw e;
+        }
+    }
+
+    /**
+     * @return The total number of bytes in the segments.
+     */
+    public long getLogSize() {
+        lock.readLock().lock();
+        try {
+            long r = 0L;
+            for (Segment s : segments.values()) {
+                r += s.size;
+            }
+            return r;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of collections with entries not yet merged.
+     */
+    public int getPendingCount() {
+        lock.readLock().lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * For forcing the log to storage and flushing the {@link #base} store.
+     *
+     * @throws IOException If encountered or if a background compaction
+     * failed.
+     */
+    @Override
+    public void flush() throws IOException {
+        throwFailure();
+        lock.writeLock().lock();
+        try {
+            active.channel.force(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        base.flush();
+    }
+
+    /**
+     * For stopping background compaction, flushing and closing the segments.
+     * The {@link #base} store is not closed. The store cannot be used after
+     * this.
+     *
+     * @throws IOException If encountered.
+     */
+    @Override
+    public void close() throws IOException {
+        stopCompaction();
+        flush();
+        lock.writeLock().lock();
+        try {
+            for (Segment s : segments.values()) {
+                s.channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.index.Data_LongIntMap;
+import uk.ac.leeds.ccg.data.index.Data_MapPartitioner;
+import uk.ac.leeds.ccg.data.index.Data_Partitioner;
+
+/**
+ * A summary of the collections in a cache: for each collection, the range of
+ * record ID values and the number of records. A manifest file also holds the
+ * {@link Data_Partitioner} (which maps record ID values to collection ID
+ * values), so a process can find any record's collection after a restart by
+ * reading this one file rather than loading every collection.
+ *
+ * The file format is {@link #MAGIC}, {@link #VERSION}, the number of entries,
+ * then for each entry the collection ID, the minimum and maximum record ID
+ * values and the number of records, and then the partitioner. If the
+ * partitioner is a {@link Data_MapPartitioner} this is {@link #MAP} followed
+ * by its map as written by {@link Data_LongIntMap#write(java.io.DataOutput)},
+ * otherwise it is {@link #SERIALIZED} followed by the length and bytes of the
+ * partitioner written with Java serialization. The file is written to a
+ * temporary file that is then moved into place, so a crash while writing does
+ * not leave a partial manifest. It is read by mapping it into memory.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_Manifest {
+
+    /**
+     * For identifying manifest files.
+     */
+    public static final int MAGIC = 0x44434d31;
+
+    /**
+     * The version of the file format.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * Indicates the partitioner is a {@link Data_MapPartitioner}.
+     */
+    public static final byte MAP = 0;
+
+    /**
+     * Indicates the partitioner is serialized.
+     */
+    public static final byte SERIALIZED = 1;
+
+    /**
+     * A summary of a collection.
+     */
+    public static class Entry {
+
+        /**
+         * The collection ID.
+         */
+        public final Data_CollectionID cID;
+
+        /**
+         * The minimum record ID value or {@link Long#MAX_VALUE} if there are
+         * no records.
+         */
+        public final long min;
+
+        /**
+         * The maximum record ID value or {@link Long#MIN_VALUE} if there are
+         * no records.
+         */
+        public final long max;
+
+        /**
+         * The number of records.
+         */
+        public final int n;
+
+        /**
+         * @param cID What {@link #cID} is set to.
+         * @param min What {@link #min} is set to.
+         * @param max What {@link #max} is set to.
+         * @param n What {@link #n} is set to.
+         */
+        public Entry(Data_CollectionID cID, long min, long max, int n) {
+            this.cID = cID;
+            this.min = min;
+            this.max = max;
+            this.n = n;
+        }
+
+        /**
+         * @param id A record ID value.
+         * @return {@code true} iff {@code id} is in the range of record ID
+         * values of the collection.
+         */
+        public boolean inRange(long id) {
+            return id >= min && id <= max;
+        }
+    }
+
+    /**
+     * The entries keyed by collection ID.
+     */
+    protected final TreeMap<Data_CollectionID, Entry> entries;
+
+    /**
+     * The partitioner this was built from or read. This may be {@code null}.
+     */
+    protected Data_Partitioner partitioner;
+
+    /**
+     * Creates an empty manifest.
+     */
+    public Data_Manifest() {
+        entries = new TreeMap<>();
+    }
+
+    /**
+     * For building a manifest from a partitioner using
+     * {@link Data_Partitioner#getRecordCounts()} and
+     * {@link Data_Partitioner#getRecordIdRanges()}. No collections are read.
+     *
+     * @param cIDs The IDs of all the collections including any with no
+     * records.
+     * @param p The partitioner.
+     * @return A new manifest.
+     */
+    public static Data_Manifest build(Collection<Data_CollectionID> cIDs,
+            Data_Partitioner p) {
+        Data_Manifest r = new Data_Manifest();
+        r.partitioner = p;
+        for (Data_CollectionID cID : cIDs) {
+            r.add(new Entry(cID, Long.MAX_VALUE, Long.MIN_VALUE, 0));
+        }
+        TreeMap<Integer, long[]> ranges = p.getRecordIdRanges();
+        p.getRecordCounts().forEach((k, n) -> {
+            long[] x = ranges.get(k);
+            r.add(new Entry(new Data_CollectionID(k), x[0], x[1], n));
+        });
+        return r;
+    }
+
+    /**
+     * @param e The entry to add, replacing any for the same collection.
+     */
+    public void add(Entry e) {
+        entries.put(e.cID, e);
+    }
+
+    /**
+     * @param cID The collection ID.
+     * @return The entry for the collection or {@code null} if there is none.
+     */
+    public Entry get(Data_CollectionID cID) {
+        return entries.get(cID);
+    }
+
+    /**
+     * @return The entries keyed by collection ID.
+     */
+    public NavigableMap<Data_CollectionID, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * @return {@link #partitioner}.
+     */
+    public Data_Partitioner getPartitioner() {
+        return partitioner;
+    }
+
+    /**
+     * @return The total number of records.
+     */
+    public long getN() {
+        long r = 0L;
+        for (Entry e : entries.values()) {
+            r += e.n;
+        }
+        return r;
+    }
+
+    /**
+     * For writing this and a partitioner to a file.
+     *
+     * @param f The file to write to.
+     * @param p The partitioner.
+     * @throws IOException If encountered.
+     */
+    public void write(Path f, Data_Partitioner p) throws IOException {
+        Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(entries.size());
+            for (Entry e : entries.values()) {
+                dos.writeInt(e.cID.id);
+                dos.writeLong(e.min);
+                dos.writeLong(e.max);
+                dos.writeInt(e.n);
+            }
+            if (p instanceof Data_MapPartitioner mp) {
+                dos.writeByte(MAP);
+                mp.map.write(dos);
+            } else {
+                ByteArrayOutputStream b = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+                    oos.writeObject(p);
+                }
+                dos.writeByte(SERIALIZED);
+                dos.writeInt(b.size());
+                b.writeTo(dos);
+            }
+        }
+        Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * For reading a manifest file. The partitioner read is got with
+     * {@link #getPartitioner()}.
+     *
+     * @param f The file to read from.
+     * @param index The map to read into if the partitioner is a
+     * {@link Data_MapPartitioner}, in which case any existing mappings are
+     * replaced and the partitioner read is a {@link Data_MapPartitioner} of
+     * it.
+     * @return The manifest read.
+     * @throws IOException If encountered.
+     */
+    public static Data_Manifest read(Path f, Data_LongIntMap index)
+            throws IOException {
+        try (FileChannel fc = FileChannel.open(f, StandardOpenOption.READ)) {
+            MappedByteBuffer b = fc.map(FileChannel.MapMode.READ_ONLY, 0,
+                    fc.size());
+            if (b.getInt() != MAGIC) {
+                throw new IOException(f + " is not a manifest");
+            }
+            int v = b.getInt();
+            if (v != VERSION) {
+                throw new IOException("Unsupported manifest version " + v);
+            }
+            int n = b.getInt();
+            Data_Manifest r = new Data_Manifest();
+            for (int i = 0; i < n; i++) {
+                r.add(new Entry(new Data_CollectionID(b.getInt()),
+                        b.getLong(), b.getLong(), b.getInt()));
+            }
+            byte kind = b.get();
+            if (kind == MAP) {
+                index.read(b);
+                r.partitioner = new Data_MapPartitioner(index);
+            } else if (kind == SERIALIZED) {
+                byte[] bytes = new byte[b.getInt()];
+                b.get(bytes);
+                try (ObjectInputStream ois = new ObjectInputStream(
+                        new ByteArrayInputStream(bytes))) {
+                    r.partitioner = (Data_Partitioner) ois.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            } else {
+                throw new IOException("Unknown partitioner kind " + kind);
+            }
+            return r;
+        }
+    }
+}
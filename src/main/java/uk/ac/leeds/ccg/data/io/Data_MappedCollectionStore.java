@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.generic.io.Generic_IO;
+
+/**
+ * A {@link Data_CollectionStore} that stores each collection in its own file
+ * in a compact binary form given by a {@link Data_CollectionCodec}. Files are
+ * read by memory mapping them, so the codec decodes directly from the page
+ * cache without any intermediate streams or reflection.
+ *
+ * If there is no binary file for a collection, but there is a file written by
+ * a {@link Data_SerializedCollectionStore}, then that is read instead.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_MappedCollectionStore implements Data_CollectionStore {
+
+    /**
+     * The file extension for binary collection files.
+     */
+    public static final String DOT_BIN = ".bin";
+
+    /**
+     * For identifying binary collection files.
+     */
+    public static final int MAGIC = 0x44434231;
+
+    /**
+     * The version of the file layout.
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The length in bytes of the header: {@link #MAGIC}, {@link #VERSION} and
+     * the payload length.
+     */
+    public static final int HEADER_LENGTH = 16;
+
+    /**
+     * For getting the files.
+     */
+    protected final Data_Files files;
+
+    /**
+     * For encoding and decoding collections.
+     */
+    protected final Data_CollectionCodec codec;
+
+    /**
+     * @param files What {@link #files} is set to.
+     * @param codec What {@link #codec} is set to.
+     */
+    public Data_MappedCollectionStore(Data_Files files,
+            Data_CollectionCodec codec) {
+        this.files = files;
+        this.codec = codec;
+    }
+
+    /**
+     * @param cID The ID of the collection.
+     * @return The binary file the collection is stored in.
+     * @throws IOException If encountered.
+     */
+    public Path getFile(Data_CollectionID cID) throws IOException {
+        return files.getCollectionFile(cID, DOT_BIN);
+    }
+
+    /**
+     * @param cID The ID of the collection.
+     * @return The file a {@link Data_SerializedCollectionStore} would store
+     * the collection in.
+     * @throws IOException If encountered.
+     */
+    public Path getLegacyFile(Data_CollectionID cID) throws IOException {
+        return files.getCollectionFile(cID, files.DOT_DAT);
+    }
+
+    @Override
+    public void write(Data_CollectionID cID, Data_Collection c)
+            throws IOException {
+        Buffer b = new Buffer();
+        try (DataOutputStream dos = new DataOutputStream(b)) {
+            codec.encode(c, dos);
+        }
+        ByteBuffer h = ByteBuffer.allocate(HEADER_LENGTH);
+        h.putInt(MAGIC);
+        h.putInt(VERSION);
+        h.putLong(b.size());
+        h.flip();
+        ByteBuffer p = b.toByteBuffer();
+        // Write to a temporary file and move it into place so that a failed
+        // write does not destroy the previous copy.
+        Path f = getFile(cID);
+        Path tmp = f.resolveSibling(f.getFileName() + ".tmp");
+        try (FileChannel fc = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] bs = {h, p};
+            while (h.hasRemaining() || p.hasRemaining()) {
+                fc.write(bs);
+            }
+        }
+        Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public Data_Collection read(Data_CollectionID cID) throws IOException,
+            ClassNotFoundException {
+        Path f = getFile(cID);
+        if (!Files.exists(f)) {
+            Path lf = getLegacyFile(cID);
+            if (Files.exists(lf)) {
+                return (Data_Collection) Generic_IO.readObject(lf);
+            }
+            throw new NoSuchFileException(f.toString());
+        }
+        try (FileChannel fc = FileChannel.open(f, StandardOpenOption.READ)) {
+            long size = fc.size();
+            if (size < HEADER_LENGTH) {
+                throw new IOException("Truncated collection file " + f);
+            }
+            MappedByteBuffer b = fc.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (b.getInt() != MAGIC) {
+                throw new IOException("Not a binary collection file " + f);
+            }
+            int v = b.getInt();
+            if (v != VERSION) {
+                throw new IOException("Unsupported version " + v + " of " + f);
+            }
+            long n = b.getLong();
+            if (n != size - HEADER_LENGTH) {
+                throw new IOException("Truncated collection file " + f);
+            }
+            return codec.decode(cID, b.slice());
+        }
+    }
+
+    @Override
+    public boolean contains(Data_CollectionID cID) throws IOException {
+        return Files.exists(getFile(cID)) || Files.exists(getLegacyFile(cID));
+    }
+
+    @Override
+    public long getSize(Data_CollectionID cID) throws IOException {
+        Path f = getFile(cID);
+        if (!Files.exists(f)) {
+            f = getLegacyFile(cID);
+            if (!Files.exists(f)) {
+                return -1L;
+            }
+        }
+        return Files.size(f);
+    }
+
+    /**
+     * For accessing the written bytes without copying them.
+     */
+    private static class Buffer extends ByteArrayOutputStream {
+
+        Buffer() {
+            super(1 << 16);
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
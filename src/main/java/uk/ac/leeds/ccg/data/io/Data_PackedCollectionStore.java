@@ -0,0 +1,759 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.generic.io.Generic_IO;
+
+/**
+ * A {@link Data_CollectionStore} that packs all collections into a few large
+ * segment files rather than writing a file for each collection. Collections
+ * are appended to the last segment, and a new segment is started when that
+ * would exceed {@link #maxSegmentSize}. Each entry in a segment is the
+ * collection ID, the length of the encoded collection, a CRC32C checksum of
+ * these and the encoded collection, and the encoded collection. An index of where the latest entry for each collection is, is
+ * kept in memory and written to {@link #INDEX} by {@link #flush()}. Reads use
+ * positional {@link FileChannel} reads so do not block each other.
+ *
+ * When a collection is written again, its earlier entry becomes dead space.
+ * {@link #compact(double)} reclaims this by copying the live entries out of
+ * segments with much dead space and deleting those segments.
+ *
+ * On opening, the index is read and then any entries written after it was
+ * last written are recovered by scanning the ends of the segments, so no
+ * collection written is lost if the index was not flushed. A segment is
+ * truncated at the first scanned entry that is incomplete or fails its
+ * checksum, so a partially written entry at the end of a segment is removed.
+ * A segment is forced to storage when a new one is started, so
+ * {@link #flush()} only needs to force the segment being appended to.
+ *
+ * Collections are encoded with a {@link Data_CollectionCodec} if one is given,
+ * otherwise Java serialization is used.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_PackedCollectionStore implements Data_CollectionStore,
+        Closeable {
+
+    /**
+     * For identifying index files.
+     */
+    public static final int MAGIC = 0x44435031;
+
+    /**
+     * The version of the index and segment file formats.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The default maximum segment size.
+     */
+    public static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+    /**
+     * The length of the header of each entry: the collection ID, the length
+     * and the checksum.
+     */
+    public static final int ENTRY_HEADER = 12;
+
+    /**
+     * The name of the index file.
+     */
+    public static final String INDEX = "index.dat";
+
+    /**
+     * The prefix of segment file names.
+     */
+    public static final String SEGMENT = "segment_";
+
+    /**
+     * The directory the segments and index are in.
+     */
+    protected final Path dir;
+
+    /**
+     * For finding collections written by a
+     * {@link Data_SerializedCollectionStore}. This may be {@code null}.
+     */
+    protected final Data_Files files;
+
+    /**
+     * For encoding and decoding collections. If this is {@code null} then Java
+     * serialization is used.
+     */
+    protected final Data_CollectionCodec codec;
+
+    /**
+     * The size in bytes at which a new segment is started.
+     */
+    protected final long maxSegmentSize;
+
+    /**
+     * Where an entry is.
+     */
+    protected static class Location {
+
+        /**
+         * The segment number.
+         */
+        final int segment;
+
+        /**
+         * The position of the encoded collection in the segment.
+         */
+        final long offset;
+
+        /**
+         * The length of the encoded collection.
+         */
+        final int length;
+
+        Location(int segment, long offset, int length) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * A segment file.
+     */
+    protected static class Segment {
+
+        /**
+         * The segment number.
+         */
+        final int id;
+
+        /**
+         * The file.
+         */
+        final Path file;
+
+        /**
+         * The channel for reading and writing.
+         */
+        final FileChannel channel;
+
+        /**
+         * The size of the segment in bytes.
+         */
+        long size;
+
+        /**
+         * The number of bytes in live entries.
+         */
+        long live;
+
+        Segment(int id, Path file) throws IOException {
+            this.id = id;
+            this.file = file;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+        }
+    }
+
+    /**
+     * The location of the latest entry for each collection.
+     */
+    protected final HashMap<Data_CollectionID, Location> index;
+
+    /**
+     * The segments keyed by segment number.
+     */
+    protected final TreeMap<Integer, Segment> segments;
+
+    /**
+     * The segment being appended to.
+     */
+    protected Segment active;
+
+    /**
+     * Reads hold the read lock, writes and compaction the write lock.
+     */
+    protected final ReentrantReadWriteLock lock;
+
+    /**
+     * {@code true} iff {@link #index} has changed since it was last written.
+     */
+    private boolean dirty;
+
+    /**
+     * Opens a store in {@link Data_Files#getPackedDir()} with the default
+     * maximum segment size.
+     *
+     * @param files What {@link #files} is set to.
+     * @param codec What {@link #codec} is set to. This may be {@code null}.
+     * @throws IOException If encountered.
+     */
+    public Data_PackedCollectionStore(Data_Files files,
+            Data_CollectionCodec codec) throws IOException {
+        this(files.getPackedDir(), files, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param dir What {@link #dir} is set to.
+     * @param files What {@link #files} is set to. This may be {@code null}.
+     * @param codec What {@link #codec} is set to. This may be {@code null}.
+     * @param maxSegmentSize What {@link #maxSegmentSize} is set to.
+     * @throws IOException If encountered.
+     */
+    public Data_PackedCollectionStore(Path dir, Data_Files files,
+            Data_CollectionCodec codec, long maxSegmentSize)
+            throws IOException {
+        if (maxSegmentSize < ENTRY_HEADER) {
+            throw new IllegalArgumentException("maxSegmentSize "
+                    + maxSegmentSize + " is too small");
+        }
+        this.dir = dir;
+        this.files = files;
+        this.codec = codec;
+        this.maxSegmentSize = maxSegmentSize;
+        index = new HashMap<>();
+        segments = new TreeMap<>();
+        lock = new ReentrantReadWriteLock();
+        open();
+    }
+
+    /**
+     * For opening the segments, reading the index and recovering any entries
+     * not in it. Segments that are not in a usable index but are older than
+     * the newest segment in it were left behind by a {@link #compact(double)}
+     * that did not finish deleting them, so these are deleted.
+     *
+     * @throws IOException If encountered.
+     */
+    private void open() throws IOException {
+        Files.createDirectories(dir);
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir,
+                SEGMENT + "*")) {
+            for (Path f : ds) {
+                String n = f.getFileName().toString();
+                int id = Integer.parseInt(n.substring(SEGMENT.length(),
+                        n.length() - ".dat".length()));
+                segments.put(id, new Segment(id, f));
+            }
+        } catch (NumberFormatException e) {
+            throw new IOException("Unexpected segment file in " + dir, e);
+        }
+        Map<Integer, Long> indexed = readIndex();
+        if (indexed == null) {
+            indexed = new HashMap<>();
+        } else if (!indexed.isEmpty()) {
+            int newest = Collections.max(indexed.keySet());
+            List<Segment> compacted = new ArrayList<>();
+            for (Segment s : segments.headMap(newest).values()) {
+                if (!indexed.containsKey(s.id)) {
+                    compacted.add(s);
+                }
+            }
+            for (Segment s : compacted) {
+                segments.remove(s.id);
+                s.channel.close();
+                Files.delete(s.file);
+            }
+        }
+        for (Segment s : segments.values()) {
+            scan(s, indexed.getOrDefault(s.id, 0L));
+        }
+        for (Location l : index.values()) {
+            segments.get(l.segment).live += ENTRY_HEADER + l.length;
+        }
+        if (segments.isEmpty()) {
+            active = newSegment();
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+    }
+
+    /**
+     * For reading {@link #index} from {@link #INDEX}.
+     *
+     * @return The segment sizes recorded in the index or {@code null} if
+     * there is no usable index, in which case all segments need scanning.
+     * @throws IOException If encountered.
+     */
+    private Map<Integer, Long> readIndex() throws IOException {
+        Path f = dir.resolve(INDEX);
+        if (!Files.exists(f)) {
+            return null;
+        }
+        Map<Integer, Long> r = new HashMap<>();
+        try (DataInputStream dis = new DataInputStream(
+                Files.newInputStream(f))) {
+            if (dis.readInt() != MAGIC || dis.readInt() != VERSION) {
+                return null;
+            }
+            int ns = dis.readInt();
+            for (int i = 0; i < ns; i++) {
+                int id = dis.readInt();
+                long size = dis.readLong();
+                Segment s = segments.get(id);
+                if (s == null || s.size < size) {
+                    // The segments do not match the index.
+                    index.clear();
+                    return null;
+                }
+                r.put(id, size);
+            }
+            int n = dis.readInt();
+            for (int i = 0; i < n; i++) {
+                Data_CollectionID cID = new Data_CollectionID(dis.readInt());
+                Location l = new Location(dis.readInt(), dis.readLong(),
+                        dis.readInt());
+                if (!r.containsKey(l.segment)) {
+                    index.clear();
+                    return null;
+                }
+                index.put(cID, l);
+            }
+        } catch (EOFException e) {
+            index.clear();
+            return null;
+        }
+        return r;
+    }
+
+    /**
+     * For writing {@link #index} to {@link #INDEX} via a temporary file.
+     *
+     * @throws IOException If encountered.
+     */
+    private void writeIndex() throws IOException {
+        Path f = dir.resolve(INDEX);
+        Path tmp = dir.resolve(INDEX + ".tmp");
+        try (DataOutputStream dos = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(segments.size());
+            for (Segment s : segments.values()) {
+                dos.writeInt(s.id);
+                dos.writeLong(s.size);
+            }
+            dos.writeInt(index.size());
+            for (Map.Entry<Data_CollectionID, Location> e : index.entrySet()) {
+                Location l = e.getValue();
+                dos.writeInt(e.getKey().id);
+                dos.writeInt(l.segment);
+                dos.writeLong(l.offset);
+                dos.writeInt(l.length);
+            }
+        }
+        Files.move(tmp, f, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        dirty = false;
+    }
+
+    /**
+     * For adding the entries in a segment from {@code from} to the end to
+     * {@link #index}. The segment is truncated at the first entry that is
+     * incomplete or fails its checksum.
+     *
+     * @param s The segment.
+     * @param from The position to start from.
+     * @throws IOException If encountered.
+     */
+    private void scan(Segment s, long from) throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(ENTRY_HEADER);
+        long pos = from;
+        while (pos + ENTRY_HEADER <= s.size) {
+            h.clear();
+            readFully(s.channel, h, pos);
+            h.flip();
+            int cid = h.getInt();
+            int length = h.getInt();
+            if (length < 0 || pos + ENTRY_HEADER + length > s.size) {
+                break;
+            }
+            ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER + length);
+            readFully(s.channel, entry, pos);
+            entry.flip();
+            if (entry.getInt(8) != checksum(entry)) {
+                break;
+            }
+            index.put(new Data_CollectionID(cid), new Location(s.id,
+                    pos + ENTRY_HEADER, length));
+            pos += ENTRY_HEADER + length;
+            dirty = true;
+        }
+        if (pos < s.size) {
+            s.channel.truncate(pos);
+            s.size = pos;
+        }
+    }
+
+    /**
+     * @param entry An entry including its header.
+     * @return The CRC32C checksum of the collection ID, the length and the
+     * encoded collection of {@code entry}.
+     */
+    private static int checksum(ByteBuffer entry) {
+        CRC32C crc = new CRC32C();
+        crc.update(entry.array(), entry.arrayOffset(), 8);
+        crc.update(entry.array(), entry.arrayOffset() + ENTRY_HEADER,
+                entry.limit() - ENTRY_HEADER);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * For forcing {@link #active} to storage and starting a new segment to
+     * append to.
+     *
+     * @throws IOException If encountered.
+     */
+    private void roll() throws IOException {
+        active.channel.force(false);
+        active = newSegment();
+    }
+
+    /**
+     * @return A new empty segment numbered after the last one.
+     * @throws IOException If encountered.
+     */
+    private Segment newSegment() throws IOException {
+        int id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        Segment r = new Segment(id, dir.resolve(SEGMENT + id + ".dat"));
+        segments.put(id, r);
+        return r;
+    }
+
+    private static void readFully(FileChannel fc, ByteBuffer b, long pos)
+            throws IOException {
+        while (b.hasRemaining()) {
+            int n = fc.read(b, pos);
+            if (n < 0) {
+                throw new EOFException();
+            }
+            pos += n;
+        }
+    }
+
+    private static void writeFully(FileChannel fc, ByteBuffer b, long pos)
+            throws IOException {
+        while (b.hasRemaining()) {
+            pos += fc.write(b, pos);
+        }
+    }
+
+    /**
+     * For appending an entry to {@link #active} and updating {@link #index}.
+     * The caller must hold the write lock.
+     *
+     * @param cID The collection ID.
+     * @param entry The entry including its header.
+     * @throws IOException If encountered.
+     */
+    private void append(Data_CollectionID cID, ByteBuffer entry)
+            throws IOException {
+        int length = entry.remaining();
+        if (active.size > 0 && active.size + length > maxSegmentSize) {
+            roll();
+        }
+        long pos = active.size;
+        writeFully(active.channel, entry, pos);
+        active.size = pos + length;
+        active.live += length;
+        Location o = index.put(cID, new Location(active.id,
+                pos + ENTRY_HEADER, length - ENTRY_HEADER));
+        if (o != null) {
+            segments.get(o.segment).live -= ENTRY_HEADER + o.length;
+        }
+        dirty = true;
+    }
+
+    @Override
+    public void write(Data_CollectionID cID, Data_Collection c)
+            throws IOException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream(1 << 16);
+        b.write(new byte[ENTRY_HEADER]);
+        if (codec == null) {
+            try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+                oos.writeObject(c);
+            }
+        } else {
+            try (DataOutputStream dos = new DataOutputStream(b)) {
+                codec.encode(c, dos);
+            }
+        }
+        ByteBuffer entry = ByteBuffer.wrap(b.toByteArray());
+        entry.putInt(0, cID.id);
+        entry.putInt(4, entry.remaining() - ENTRY_HEADER);
+        entry.putInt(8, checksum(entry));
+        lock.writeLock().lock();
+        try {
+            append(cID, entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Data_Collection read(Data_CollectionID cID) throws IOException,
+            ClassNotFoundException {
+        ByteBuffer b;
+        lock.readLock().lock();
+        try {
+            Location l = index.get(cID);
+            if (l == null) {
+                if (files != null) {
+                    Path lf = files.getCollectionFile(cID, files.DOT_DAT);
+                    if (Files.exists(lf)) {
+                        return (Data_Collection) Generic_IO.readObject(lf);
+                    }
+                }
+                throw new NoSuchFileException(dir + " " + cID);
+            }
+            b = ByteBuffer.allocate(l.length);
+            readFully(segments.get(l.segment).channel, b, l.offset);
+        } finally {
+            lock.readLock().unlock();
+        }
+        b.flip();
+        if (codec == null) {
+            try (ObjectInputStream ois = new ObjectInputStream(
+                    new ByteArrayInputStream(b.array()))) {
+                return (Data_Collection) ois.readObject();
+            }
+        } else {
+            return codec.decode(cID, b);
+        }
+    }
+
+    @Override
+    public boolean contains(Data_CollectionID cID) throws IOException {
+        lock.readLock().lock();
+        try {
+            if (index.containsKey(cID)) {
+                return true;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return files != null && Files.exists(files.getCollectionFile(cID,
+                files.DOT_DAT));
+    }
+
+    @Override
+    public long getSize(Data_CollectionID cID) throws IOException {
+        lock.readLock().lock();
+        try {
+            Location l = index.get(cID);
+            if (l != null) {
+                return l.length;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (files != null) {
+            Path lf = files.getCollectionFile(cID, files.DOT_DAT);
+            if (Files.exists(lf)) {
+                return Files.size(lf);
+            }
+        }
+        return -1L;
+    }
+
+    /**
+     * For forcing the segment being appended to to storage and writing the
+     * index. Other segments were forced when they stopped being appended to.
+     *
+     * @throws IOException If encountered.
+     */
+    @Override
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            active.channel.force(false);
+            if (dirty) {
+                writeIndex();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * For reclaiming dead space. Live entries are copied out of each segment
+     * (other than the one being appended to) in which at least
+     * {@code minDeadFraction} of the bytes are dead, and then those segments
+     * are deleted. The index is written before any segment is deleted.
+     *
+     * @param minDeadFraction The proportion of dead bytes at which a segment
+     * is compacted.
+     * @return The number of bytes reclaimed.
+     * @throws IOException If encountered.
+     */
+    public long compact(double minDeadFraction) throws IOException {
+        lock.writeLock().lock();
+        try {
+            List<Segment> victims = new ArrayList<>();
+            for (Segment s : segments.values()) {
+                long dead = s.size - s.live;
+                if (s != active && dead > 0
+                        && dead >= minDeadFraction * s.size) {
+                    victims.add(s);
+                }
+            }
+            if (victims.isEmpty()) {
+                return 0L;
+            }
+            long r = 0L;
+            for (Segment s : victims) {
+                r += s.size - s.live;
+                List<Map.Entry<Data_CollectionID, Location>> live
+                        = new ArrayList<>();
+                for (Map.Entry<Data_CollectionID, Location> e
+                        : index.entrySet()) {
+                    if (e.getValue().segment == s.id) {
+                        live.add(e);
+                    }
+                }
+                for (Map.Entry<Data_CollectionID, Location> e : live) {
+                    Location l = e.getValue();
+                    ByteBuffer entry = ByteBuffer.allocate(ENTRY_HEADER
+                            + l.length);
+                    readFully(s.channel, entry, l.offset - ENTRY_HEADER);
+                    entry.flip();
+                    append(e.getKey(), entry);
+                }
+            }
+            active.channel.force(false);
+            for (Segment s : victims) {
+                segments.remove(s.id);
+            }
+            writeIndex();
+            for (Segment s : victims) {
+                s.channel.close();
+                Files.delete(s.file);
+            }
+            return r;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * For reclaiming all dead space. If the segment being appended to has dead
+     * space, a new segment is started so that it can be compacted too.
+     *
+     * @return The number of bytes reclaimed.
+     * @throws IOException If encountered.
+     */
+    public long compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (active.size > active.live) {
+                roll();
+            }
+            return compact(0d);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The total number of bytes in the segments.
+     */
+    public long getSize() {
+        lock.readLock().lock();
+        try {
+            long r = 0L;
+            for (Segment s : segments.values()) {
+                r += s.size;
+            }
+            return r;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of bytes in the segments that are dead.
+     */
+    public long getDeadBytes() {
+        lock.readLock().lock();
+        try {
+            long r = 0L;
+            for (Segment s : segments.values()) {
+                r += s.size - s.live;
+            }
+            return r;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of segments.
+     */
+    public int getSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * For flushing and closing the segments. The store cannot be used after
+     * this.
+     *
+     * @throws IOException If encountered.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            flush();
+            for (Segment s : segments.values()) {
+                s.channel.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_Record;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ * A {@link Data_RecordCollectionCodec} that encodes each record as its
+ * {@link Data_Record#id} written by
+ * {@link Data_RecordID#write(java.io.DataOutput)} (a variable length integer)
+ * followed by what {@link Data_Record#writeFields(java.io.DataOutput)} writes.
+ * Records are read back with a {@link Reader}. The encoding starts with
+ * {@link #VERSION} so that the format can change.
+ *
+ * Unlike Java serialization no class descriptors or field names are written,
+ * and no reflection is needed to read records.
+ *
+ * Record IDs, and the IDs written by the ID classes, are variable length (see
+ * {@link uk.ac.leeds.ccg.data.id.Data_Varint}): small values take fewer bytes
+ * but large ones take more than a fixed width value would (up to 10 bytes for
+ * a {@code long}), and the position of a record in an encoding cannot be
+ * worked out without reading the records before it. So an encoding has to be
+ * decoded from the start. Fields written by
+ * {@link Data_Record#writeFields(java.io.DataOutput)} are as the record class
+ * writes them, so they can be fixed width.
+ *
+ * To use this codec, give it to a store that takes a
+ * {@link Data_CollectionCodec} and set that as the store of the data, for
+ * example:
+ * <pre>
+ * d.setCollectionStore(new Data_MappedCollectionStore(files,
+ *         new Data_RecordCodec((id, in) -&gt; MyRecord.read(id, in))));
+ * </pre>
+ * Collections already cached with Java serialization cannot be read by the
+ * new store, so this should be done before any are cached.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_RecordCodec extends Data_RecordCollectionCodec {
+
+    /**
+     * The version of the encoding.
+     */
+    public static final byte VERSION = 1;
+
+    /**
+     * For reading a record.
+     */
+    @FunctionalInterface
+    public interface Reader {
+
+        /**
+         * @param id The record ID which has already been read.
+         * @param in The buffer to read the fields from which are as written
+         * by {@link Data_Record#writeFields(java.io.DataOutput)}.
+         * @return The record read.
+         * @throws IOException If encountered.
+         */
+        Data_Record read(Data_RecordID id, ByteBuffer in) throws IOException;
+    }
+
+    /**
+     * For reading records.
+     */
+    protected final Reader reader;
+
+    /**
+     * @param reader What {@link #reader} is set to.
+     */
+    public Data_RecordCodec(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public void writeRecord(Data_Record r, DataOutput out) throws IOException {
+        r.id.write(out);
+        r.writeFields(out);
+    }
+
+    @Override
+    public Data_Record readRecord(ByteBuffer in) throws IOException {
+        return reader.read(Data_RecordID.read(in), in);
+    }
+
+    @Override
+    public void encode(Data_Collection c, DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        super.encode(c, out);
+    }
+
+    @Override
+    public Data_Collection decode(Data_CollectionID cID, ByteBuffer in)
+            throws IOException {
+        byte v = in.get();
+        if (v != VERSION) {
+            throw new IOException("Unsupported record encoding version " + v);
+        }
+        return super.decode(cID, in);
+    }
+}
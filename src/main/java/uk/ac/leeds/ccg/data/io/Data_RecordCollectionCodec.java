@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_Record;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ * A {@link Data_CollectionCodec} that writes the number of records followed by
+ * each record in turn. Subclasses provide the encoding for their type of
+ * {@link Data_Record}.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public abstract class Data_RecordCollectionCodec
+        implements Data_CollectionCodec {
+
+    /**
+     * Creates a new instance.
+     */
+    public Data_RecordCollectionCodec() {
+    }
+
+    /**
+     * @param r The record to encode.
+     * @param out The output to write to.
+     * @throws IOException If encountered.
+     */
+    public abstract void writeRecord(Data_Record r, DataOutput out)
+            throws IOException;
+
+    /**
+     * @param in The buffer to read the next record from.
+     * @return The record read.
+     * @throws IOException If encountered.
+     */
+    public abstract Data_Record readRecord(ByteBuffer in) throws IOException;
+
+    /**
+     * For creating the collection that decoded records are added to.
+     * Override this if a subclass of {@link Data_Collection} is needed.
+     *
+     * @param cID The ID of the collection.
+     * @param data The records.
+     * @return A new collection.
+     */
+    protected Data_Collection newCollection(Data_CollectionID cID,
+            HashMap<Data_RecordID, Data_Record> data) {
+        return new Data_Collection(cID, data);
+    }
+
+    @Override
+    public void encode(Data_Collection c, DataOutput out) throws IOException {
+        out.writeInt(c.getN());
+        for (Data_Record r : c) {
+            writeRecord(r, out);
+        }
+    }
+
+    @Override
+    public Data_Collection decode(Data_CollectionID cID, ByteBuffer in)
+            throws IOException {
+        int n = in.getInt();
+        HashMap<Data_RecordID, Data_Record> data = new HashMap<>(
+                (int) (n / 0.75f) + 1);
+        for (int i = 0; i < n; i++) {
+            Data_Record r = readRecord(in);
+            data.put(r.id, r);
+        }
+        return newCollection(cID, data);
+    }
+}
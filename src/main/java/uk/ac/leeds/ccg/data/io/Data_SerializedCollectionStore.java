@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.generic.io.Generic_IO;
+
+/**
+ * A {@link Data_CollectionStore} that stores each collection in its own file
+ * using Java serialization. This is the default store.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_SerializedCollectionStore implements Data_CollectionStore {
+
+    /**
+     * For getting the files.
+     */
+    protected final Data_Files files;
+
+    /**
+     * @param files What {@link #files} is set to.
+     */
+    public Data_SerializedCollectionStore(Data_Files files) {
+        this.files = files;
+    }
+
+    /**
+     * @param cID The ID of the collection.
+     * @return The file the collection is stored in.
+     * @throws IOException If encountered.
+     */
+    public Path getFile(Data_CollectionID cID) throws IOException {
+        return files.getCollectionFile(cID, files.DOT_DAT);
+    }
+
+    @Override
+    public void write(Data_CollectionID cID, Data_Collection c)
+            throws IOException {
+        Generic_IO.writeObject(c, getFile(cID));
+    }
+
+    @Override
+    public Data_Collection read(Data_CollectionID cID) throws IOException,
+            ClassNotFoundException {
+        return (Data_Collection) Generic_IO.readObject(getFile(cID));
+    }
+
+    @Override
+    public boolean contains(Data_CollectionID cID) throws IOException {
+        return Files.exists(getFile(cID));
+    }
+
+    @Override
+    public long getSize(Data_CollectionID cID) throws IOException {
+        Path f = getFile(cID);
+        return Files.exists(f) ? Files.size(f) : -1L;
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * A {@link Data_CollectionStore} that writes collections to another store
+ * asynchronously using a pool of background threads (write-behind). A
+ * collection written to this store is held in a pending buffer until the
+ * underlying write completes, then the reference is dropped so the memory can
+ * be reclaimed. Reads of a collection that is still pending are served from
+ * the buffer.
+ *
+ * The number of pending collections is bounded: if the buffer is full then
+ * {@link #write(Data_CollectionID, Data_Collection)} waits for space. If the
+ * buffer is full of collections whose writes failed, these are retried once
+ * and if they fail again the exception is thrown rather than exceeding the
+ * bound.
+ *
+ * Reads of a pending collection return the buffered instance itself, so it
+ * may be changed and written again while an earlier write of it is running.
+ * Each write is given a sequence number and a collection is only dropped from
+ * the buffer once the write with the latest sequence number has completed,
+ * so such changes are written by a later write rather than lost.
+ *
+ * If a background write fails the collection is kept in the buffer (so it is
+ * not lost) until it is written again, either because it is rewritten or by
+ * {@link #flush()} which retries all failed writes. {@link #flush()} and
+ * {@link #shutdown()} throw an exception while any collection is still
+ * waiting to be written.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_WriteBehindStore implements Data_CollectionStore {
+
+    /**
+     * The store written to.
+     */
+    protected final Data_CollectionStore store;
+
+    /**
+     * The maximum number of pending collections.
+     */
+    protected final int maxPending;
+
+    /**
+     * For running the writes.
+     */
+    protected final ExecutorService executor;
+
+    /**
+     * The collections waiting to be written. Guarded by this.
+     */
+    protected final HashMap<Data_CollectionID, Data_Collection> pending;
+
+    /**
+     * The IDs of collections for which a write task is queued or running.
+     * Guarded by this.
+     */
+    protected final HashSet<Data_CollectionID> writing;
+
+    /**
+     * The sequence numbers of the latest writes of the collections in
+     * {@link #pending}. Guarded by this.
+     */
+    protected final HashMap<Data_CollectionID, Long> sequences;
+
+    /**
+     * The sequence number of the latest write. Guarded by this.
+     */
+    protected long sequence;
+
+    /**
+     * The IDs of pending collections for which the last write failed and no
+     * write task is queued or running. Guarded by this.
+     */
+    protected final HashSet<Data_CollectionID> failed;
+
+    /**
+     * The last exception encountered by a background write. This is cleared
+     * once there are no pending collections. Guarded by this.
+     */
+    protected IOException failure;
+
+    /**
+     * @param store What {@link #store} is set to.
+     * @param nThreads The number of background writer threads.
+     * @param maxPending What {@link #maxPending} is set to.
+     */
+    public Data_WriteBehindStore(Data_CollectionStore store, int nThreads,
+            int maxPending) {
+        if (nThreads < 1 || maxPending < 1) {
+            throw new IllegalArgumentException("nThreads " + nThreads
+                    + " and maxPending " + maxPending + " must be positive");
+        }
+        this.store = store;
+        this.maxPending = maxPending;
+        pending = new HashMap<>();
+        writing = new HashSet<>();
+        sequences = new HashMap<>();
+        failed = new HashSet<>();
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory tf = r -> {
+            Thread t = new Thread(r, getClass().getSimpleName() + "-"
+                    + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        executor = new ThreadPoolExecutor(nThreads, nThreads, 0L,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), tf);
+    }
+
+    /**
+     * @return The store written to.
+     */
+    public Data_CollectionStore getStore() {
+        return store;
+    }
+
+    /**
+     * @return The number of collections waiting to be written.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return The number of pending collections for which the last write
+     * failed.
+     */
+    public synchronized int getFailedCount() {
+        return failed.size();
+    }
+
+    @Override
+    public void write(Data_CollectionID cID, Data_Collection c)
+            throws IOException {
+        synchronized (this) {
+            boolean retried = false;
+            try {
+                while (pending.size() >= maxPending
+                        && !pending.containsKey(cID)) {
+                    if (writing.isEmpty()) {
+                        // Everything pending has failed to be written.
+                        if (retried) {
+                            throw new IOException("Unable to write "
+                                    + failed.size() + " pending collections",
+                                    failure);
+                        }
+                        retryFailed();
+                        retried = true;
+                    }
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting to write "
+                        + cID);
+            }
+            pending.put(cID, c);
+            sequences.put(cID, ++sequence);
+            failed.remove(cID);
+            if (!writing.add(cID)) {
+                // A queued or running task will write the latest version.
+                return;
+            }
+        }
+        executor.execute(() -> drain(cID));
+    }
+
+    /**
+     * Writes the pending collection with ID {@code cID} until it has not been
+     * written again during the write. A write that fails is retried if the
+     * collection was written again during it, as the failure may be due to
+     * the collection being changed while it was being written.
+     *
+     * @param cID The collection ID.
+     */
+    private void drain(Data_CollectionID cID) {
+        while (true) {
+            Data_Collection c;
+            Long seq;
+            synchronized (this) {
+                c = pending.get(cID);
+                if (c == null) {
+                    writing.remove(cID);
+                    notifyAll();
+                    return;
+                }
+                seq = sequences.get(cID);
+            }
+            try {
+                store.write(cID, c);
+            } catch (IOException | RuntimeException e) {
+                synchronized (this) {
+                    if (!seq.equals(sequences.get(cID))) {
+                        continue;
+                    }
+                    failure = e instanceof IOException ioe ? ioe
+                            : new IOException(e);
+                    writing.remove(cID);
+                    failed.add(cID);
+                    notifyAll();
+                }
+                return;
+            }
+            synchronized (this) {
+                if (seq.equals(sequences.get(cID))) {
+                    pending.remove(cID);
+                    sequences.remove(cID);
+                    writing.remove(cID);
+                    notifyAll();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * For queueing write tasks for the collections in {@link #failed}. The
+     * caller must hold the lock on this.
+     */
+    private void retryFailed() {
+        for (Data_CollectionID cID : failed) {
+            writing.add(cID);
+            executor.execute(() -> drain(cID));
+        }
+        failed.clear();
+    }
+
+    @Override
+    public Data_Collection read(Data_CollectionID cID) throws IOException,
+            ClassNotFoundException {
+        synchronized (this) {
+            Data_Collection r = pending.get(cID);
+            if (r != null) {
+                return r;
+            }
+        }
+        return store.read(cID);
+    }
+
+    @Override
+    public boolean contains(Data_CollectionID cID) throws IOException {
+        synchronized (this) {
+            if (pending.containsKey(cID)) {
+                return true;
+            }
+        }
+        return store.contains(cID);
+    }
+
+    /**
+     * @param cID The ID of the collection.
+     * @return The number of bytes the collection occupies in the underlying
+     * store or {@code -1} if it is waiting to be written.
+     * @throws IOException If encountered.
+     */
+    @Override
+    public long getSize(Data_CollectionID cID) throws IOException {
+        synchronized (this) {
+            if (pending.containsKey(cID)) {
+                return -1L;
+            }
+        }
+        return store.getSize(cID);
+    }
+
+    /**
+     * Retries any failed writes and waits until there are no writes queued or
+     * running.
+     *
+     * @throws IOException If any collection is still waiting to be written
+     * because its write failed.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        retryFailed();
+        try {
+            while (!writing.isEmpty()) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted flushing");
+        }
+        if (!pending.isEmpty()) {
+            throw new IOException("Unable to write " + pending.size()
+                    + " pending collections", failure);
+        }
+        failure = null;
+        store.flush();
+    }
+
+    /**
+     * Flushes and then stops the background threads. This store should not
+     * be written to afterwards.
+     *
+     * @throws IOException If any collection is still waiting to be written
+     * because its write failed.
+     */
+    public void shutdown() throws IOException {
+        try {
+            flush();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
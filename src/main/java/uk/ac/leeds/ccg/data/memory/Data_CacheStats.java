@@ -0,0 +1,561 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import uk.ac.leeds.ccg.data.Data_Data;
+
+/**
+ * For recording statistics about getting, loading, caching and clearing the
+ * collections of a {@link Data_Data}. Counting is always on as it only costs
+ * a {@link LongAdder} increment per event. The statistics can be got
+ * programmatically as a {@link Snapshot} or via JMX once
+ * {@link #register(String)} has been called.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_CacheStats implements Data_CacheStatsMBean {
+
+    /**
+     * The JMX domain used by {@link #register(String)}.
+     */
+    public static final String DOMAIN = "uk.ac.leeds.ccg.data";
+
+    /**
+     * Why collections are cleared from memory.
+     */
+    public enum Reason {
+
+        /**
+         * To free memory (see {@link Data_Data#clearSomeData()} and
+         * {@link Data_Data#clearData(long)}).
+         */
+        MEMORY,
+        /**
+         * All data was cleared (see {@link Data_Data#clearAllData()}).
+         */
+        CLEAR_ALL,
+        /**
+         * A collection was cleared without caching it (see
+         * {@link Data_Data#clearCollection}).
+         */
+        EXPLICIT
+    }
+
+    /**
+     * A histogram of times with buckets for each power of 2 nanoseconds.
+     */
+    public static class Histogram {
+
+        private final LongAdder[] buckets;
+
+        private final LongAdder count;
+
+        private final LongAdder sum;
+
+        private final LongAccumulator max;
+
+        /**
+         * Creates a new instance.
+         */
+        public Histogram() {
+            buckets = new LongAdder[64];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+            count = new LongAdder();
+            sum = new LongAdder();
+            max = new LongAccumulator(Math::max, 0L);
+        }
+
+        /**
+         * @param nanos The time to record.
+         */
+        public void record(long nanos) {
+            long n = Math.max(nanos, 0L);
+            buckets[63 - Long.numberOfLeadingZeros(n | 1L)].increment();
+            count.increment();
+            sum.add(n);
+            max.accumulate(n);
+        }
+
+        /**
+         * @return The number of times recorded.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return The mean of the times recorded in nanoseconds or {@code 0}
+         * if none have been.
+         */
+        public double getMean() {
+            long n = count.sum();
+            return n == 0L ? 0d : sum.sum() / (double) n;
+        }
+
+        /**
+         * @return The maximum time recorded in nanoseconds.
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * @param p The percentile in the range [0, 100].
+         * @return An upper bound for the {@code p}th percentile in nanoseconds
+         * which is within a factor of 2 and no more than {@link #getMax()}.
+         */
+        public long getPercentile(double p) {
+            long[] c = new long[buckets.length];
+            long n = 0L;
+            for (int i = 0; i < c.length; i++) {
+                c[i] = buckets[i].sum();
+                n += c[i];
+            }
+            if (n == 0L) {
+                return 0L;
+            }
+            long rank = (long) Math.ceil(n * p / 100d);
+            long s = 0L;
+            for (int i = 0; i < c.length; i++) {
+                s += c[i];
+                if (s >= rank && c[i] > 0L) {
+                    long upper = i >= 62 ? Long.MAX_VALUE
+                            : (1L << (i + 1)) - 1L;
+                    return Math.min(upper, getMax());
+                }
+            }
+            return getMax();
+        }
+
+        /**
+         * For resetting the histogram.
+         */
+        public void reset() {
+            for (LongAdder b : buckets) {
+                b.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+    }
+
+    /**
+     * An immutable copy of the statistics at a point in time.
+     */
+    public static class Snapshot {
+
+        public final long hits;
+        public final long misses;
+        public final long softCacheHits;
+        public final long prefetchHits;
+        public final long pruned;
+        public final long loads;
+        public final double meanLoadMillis;
+        public final double medianLoadMillis;
+        public final double loadMillis99;
+        public final double maxLoadMillis;
+        public final long bytesRead;
+        public final long writes;
+        public final long skippedWrites;
+        public final long bytesWritten;
+        private final long[] evictions;
+        public final int residentCount;
+        public final long residentBytes;
+
+        private Snapshot(Data_CacheStats s) {
+            hits = s.getHitCount();
+            misses = s.getMissCount();
+            softCacheHits = s.getSoftCacheHitCount();
+            prefetchHits = s.getPrefetchHitCount();
+            pruned = s.getPrunedCount();
+            loads = s.getLoadCount();
+            meanLoadMillis = s.getMeanLoadMillis();
+            medianLoadMillis = s.getMedianLoadMillis();
+            loadMillis99 = s.getLoadMillis99();
+            maxLoadMillis = s.getMaxLoadMillis();
+            bytesRead = s.getBytesRead();
+            writes = s.getWriteCount();
+            skippedWrites = s.getSkippedWriteCount();
+            bytesWritten = s.getBytesWritten();
+            evictions = new long[Reason.values().length];
+            for (Reason r : Reason.values()) {
+                evictions[r.ordinal()] = s.getEvictionCount(r);
+            }
+            residentCount = s.getResidentCount();
+            residentBytes = s.getResidentBytes();
+        }
+
+        /**
+         * @param r The reason.
+         * @return The number of collections cleared for reason {@code r}.
+         */
+        public long getEvictionCount(Reason r) {
+            return evictions[r.ordinal()];
+        }
+
+        /**
+         * @return A copy of the numbers of collections cleared indexed by
+         * {@link Reason#ordinal()}.
+         */
+        public long[] getEvictions() {
+            return evictions.clone();
+        }
+
+        /**
+         * @return The fraction of collection requests satisfied from memory
+         * or {@code 0} if there have been none.
+         */
+        public double getHitRate() {
+            long n = hits + misses;
+            return n == 0L ? 0d : hits / (double) n;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("Snapshot(hits=").append(hits)
+                    .append(", misses=").append(misses)
+                    .append(", hitRate=").append(getHitRate())
+                    .append(", softCacheHits=").append(softCacheHits)
+                    .append(", prefetchHits=").append(prefetchHits)
+                    .append(", pruned=").append(pruned)
+                    .append(", loads=").append(loads)
+                    .append(", meanLoadMillis=").append(meanLoadMillis)
+                    .append(", medianLoadMillis=").append(medianLoadMillis)
+                    .append(", loadMillis99=").append(loadMillis99)
+                    .append(", maxLoadMillis=").append(maxLoadMillis)
+                    .append(", bytesRead=").append(bytesRead)
+                    .append(", writes=").append(writes)
+                    .append(", skippedWrites=").append(skippedWrites)
+                    .append(", bytesWritten=").append(bytesWritten);
+            for (Reason r : Reason.values()) {
+                sb.append(", evictions").append(r).append("=")
+                        .append(evictions[r.ordinal()]);
+            }
+            sb.append(", residentCount=").append(residentCount)
+                    .append(", residentBytes=").append(residentBytes)
+                    .append(")");
+            return sb.toString();
+        }
+    }
+
+    /**
+     * The data the statistics are for. If this is {@code null} then the
+     * resident count and bytes are reported as {@code 0}.
+     */
+    protected final Data_Data data;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder softCacheHits = new LongAdder();
+    private final LongAdder prefetchHits = new LongAdder();
+    private final LongAdder pruned = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder skippedWrites = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder[] evictions;
+
+    /**
+     * The times taken to load collections from the store.
+     */
+    public final Histogram loadTimes = new Histogram();
+
+    /**
+     * The name this is registered with or {@code null}.
+     */
+    private volatile ObjectName name;
+
+    /**
+     * @param data What {@link #data} is set to.
+     */
+    public Data_CacheStats(Data_Data data) {
+        this.data = data;
+        evictions = new LongAdder[Reason.values().length];
+        for (int i = 0; i < evictions.length; i++) {
+            evictions[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * For recording a request for a collection that was in memory.
+     */
+    public void hit() {
+        hits.increment();
+    }
+
+    /**
+     * For recording a request for a collection that was not in memory.
+     */
+    public void miss() {
+        misses.increment();
+    }
+
+    /**
+     * For recording a miss satisfied from the soft cache.
+     */
+    public void softCacheHit() {
+        softCacheHits.increment();
+    }
+
+    /**
+     * For recording a miss satisfied by the prefetcher.
+     */
+    public void prefetchHit() {
+        prefetchHits.increment();
+    }
+
+    /**
+     * For recording that a collection was not got because its summary showed
+     * it did not contain what was wanted.
+     */
+    public void pruned() {
+        pruned.increment();
+    }
+
+    /**
+     * For recording a load from the store.
+     *
+     * @param nanos The time the load took.
+     * @param bytes The number of bytes read or a negative number if not
+     * known.
+     */
+    public void loaded(long nanos, long bytes) {
+        loadTimes.record(nanos);
+        if (bytes > 0L) {
+            bytesRead.add(bytes);
+        }
+    }
+
+    /**
+     * For recording a write to the store.
+     *
+     * @param bytes The number of bytes written or a negative number if not
+     * known.
+     */
+    public void written(long bytes) {
+        writes.increment();
+        if (bytes > 0L) {
+            bytesWritten.add(bytes);
+        }
+    }
+
+    /**
+     * For recording that an unchanged collection was cleared without writing
+     * it.
+     */
+    public void skippedWrite() {
+        skippedWrites.increment();
+    }
+
+    /**
+     * For recording that a collection was cleared from memory.
+     *
+     * @param r The reason.
+     */
+    public void evicted(Reason r) {
+        evictions[r.ordinal()].increment();
+    }
+
+    /**
+     * @param r The reason.
+     * @return The number of collections cleared for reason {@code r}.
+     */
+    public long getEvictionCount(Reason r) {
+        return evictions[r.ordinal()].sum();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long h = hits.sum();
+        long n = h + misses.sum();
+        return n == 0L ? 0d : h / (double) n;
+    }
+
+    @Override
+    public long getSoftCacheHitCount() {
+        return softCacheHits.sum();
+    }
+
+    @Override
+    public long getPrefetchHitCount() {
+        return prefetchHits.sum();
+    }
+
+    @Override
+    public long getPrunedCount() {
+        return pruned.sum();
+    }
+
+    @Override
+    public long getLoadCount() {
+        return loadTimes.getCount();
+    }
+
+    @Override
+    public double getMeanLoadMillis() {
+        return loadTimes.getMean() / 1000000d;
+    }
+
+    @Override
+    public double getMedianLoadMillis() {
+        return loadTimes.getPercentile(50d) / 1000000d;
+    }
+
+    @Override
+    public double getLoadMillis99() {
+        return loadTimes.getPercentile(99d) / 1000000d;
+    }
+
+    @Override
+    public double getMaxLoadMillis() {
+        return loadTimes.getMax() / 1000000d;
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writes.sum();
+    }
+
+    @Override
+    public long getSkippedWriteCount() {
+        return skippedWrites.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getMemoryEvictionCount() {
+        return getEvictionCount(Reason.MEMORY);
+    }
+
+    @Override
+    public long getClearAllEvictionCount() {
+        return getEvictionCount(Reason.CLEAR_ALL);
+    }
+
+    @Override
+    public long getExplicitEvictionCount() {
+        return getEvictionCount(Reason.EXPLICIT);
+    }
+
+    @Override
+    public int getResidentCount() {
+        return data == null ? 0 : data.getResidentCount();
+    }
+
+    @Override
+    public long getResidentBytes() {
+        return data == null ? 0L : data.getResidentBytes();
+    }
+
+    @Override
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        softCacheHits.reset();
+        prefetchHits.reset();
+        pruned.reset();
+        bytesRead.reset();
+        writes.reset();
+        skippedWrites.reset();
+        bytesWritten.reset();
+        for (LongAdder e : evictions) {
+            e.reset();
+        }
+        loadTimes.reset();
+    }
+
+    /**
+     * @return A copy of the current statistics.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * For registering this with the platform MBean server so the statistics
+     * can be monitored with JMX tools such as JConsole. Any previous
+     * registration of this is removed first.
+     *
+     * @param name The name to distinguish this from the statistics of other
+     * data.
+     * @return The object name registered.
+     * @throws JMException If encountered.
+     */
+    public synchronized ObjectName register(String name) throws JMException {
+        unregister();
+        ObjectName n = new ObjectName(DOMAIN + ":type=Data_CacheStats,name="
+                + ObjectName.quote(name));
+        MBeanServer s = ManagementFactory.getPlatformMBeanServer();
+        if (s.isRegistered(n)) {
+            s.unregisterMBean(n);
+        }
+        s.registerMBean(this, n);
+        this.name = n;
+        return n;
+    }
+
+    /**
+     * For unregistering this from the platform MBean server if it is
+     * registered.
+     *
+     * @throws JMException If encountered.
+     */
+    public synchronized void unregister() throws JMException {
+        ObjectName n = name;
+        if (n != null) {
+            name = null;
+            MBeanServer s = ManagementFactory.getPlatformMBeanServer();
+            if (s.isRegistered(n)) {
+                s.unregisterMBean(n);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return snapshot().toString();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+/**
+ * The management interface of {@link Data_CacheStats} for exposing collection
+ * caching and loading statistics via JMX.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public interface Data_CacheStatsMBean {
+
+    /**
+     * @return The number of collection requests satisfied from memory.
+     */
+    public long getHitCount();
+
+    /**
+     * @return The number of collection requests for collections not in
+     * memory.
+     */
+    public long getMissCount();
+
+    /**
+     * @return The fraction of collection requests satisfied from memory.
+     */
+    public double getHitRate();
+
+    /**
+     * @return The number of misses satisfied from the soft cache.
+     */
+    public long getSoftCacheHitCount();
+
+    /**
+     * @return The number of misses satisfied by the prefetcher.
+     */
+    public long getPrefetchHitCount();
+
+    /**
+     * @return The number of times a collection was not got because its
+     * summary showed it did not contain what was wanted.
+     */
+    public long getPrunedCount();
+
+    /**
+     * @return The number of collections loaded from the store.
+     */
+    public long getLoadCount();
+
+    /**
+     * @return The mean time taken to load a collection in milliseconds.
+     */
+    public double getMeanLoadMillis();
+
+    /**
+     * @return The median time taken to load a collection in milliseconds.
+     */
+    public double getMedianLoadMillis();
+
+    /**
+     * @return The 99th percentile of the time taken to load a collection in
+     * milliseconds.
+     */
+    public double getLoadMillis99();
+
+    /**
+     * @return The maximum time taken to load a collection in milliseconds.
+     */
+    public double getMaxLoadMillis();
+
+    /**
+     * @return The number of bytes read from the store.
+     */
+    public long getBytesRead();
+
+    /**
+     * @return The number of collections written to the store.
+     */
+    public long getWriteCount();
+
+    /**
+     * @return The number of collections cleared without being written as they
+     * were unchanged.
+     */
+    public long getSkippedWriteCount();
+
+    /**
+     * @return The number of bytes written to the store.
+     */
+    public long getBytesWritten();
+
+    /**
+     * @return The number of collections cleared to free memory.
+     */
+    public long getMemoryEvictionCount();
+
+    /**
+     * @return The number of collections cleared by clearing all data.
+     */
+    public long getClearAllEvictionCount();
+
+    /**
+     * @return The number of collections cleared explicitly without caching.
+     */
+    public long getExplicitEvictionCount();
+
+    /**
+     * @return The number of collections in memory.
+     */
+    public int getResidentCount();
+
+    /**
+     * @return The estimated number of bytes of the collections in memory.
+     */
+    public long getResidentBytes();
+
+    /**
+     * For resetting all the counters.
+     */
+    public void reset();
+}
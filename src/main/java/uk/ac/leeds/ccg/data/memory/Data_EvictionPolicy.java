@@ -0,0 +1,62 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * For deciding which collection held in memory by a
+ * {@link uk.ac.leeds.ccg.data.Data_Data} should be cached and cleared next
+ * when memory is needed. The policy is told whenever a collection is accessed
+ * and whenever one is cleared from memory. Implementations used with a
+ * concurrent {@link uk.ac.leeds.ccg.data.Data_Data} must be thread safe.
+ * {@link #accessed(Data_CollectionID, long)} is called on every collection
+ * access, so it should be cheap and should not take a lock shared by all
+ * collections.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public interface Data_EvictionPolicy {
+
+    /**
+     * For recording that a collection in memory has been accessed (or loaded
+     * or added).
+     *
+     * @param cID The ID of the collection.
+     * @param size The estimated size in bytes of the collection as tracked
+     * when it was loaded or put, or {@code 0} if this is not known.
+     */
+    public void accessed(Data_CollectionID cID, long size);
+
+    /**
+     * For recording that a collection has been cleared from memory.
+     *
+     * @param cID The ID of the collection.
+     */
+    public void removed(Data_CollectionID cID);
+
+    /**
+     * @return The ID of the collection that should be cleared next or
+     * {@code null} if the policy is not tracking any collections.
+     */
+    public Data_CollectionID selectVictim();
+
+    /**
+     * For forgetting all collections.
+     */
+    public void clear();
+}
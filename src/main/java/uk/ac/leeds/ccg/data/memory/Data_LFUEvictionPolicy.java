@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * A {@link Data_EvictionPolicy} that selects the least frequently used
+ * collection. Ties are broken by selecting the least recently used. Counts are
+ * forgotten when a collection is cleared from memory. Accesses are recorded
+ * without taking a lock, so concurrent accesses do not block each other.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_LFUEvictionPolicy implements Data_EvictionPolicy {
+
+    /**
+     * The access record of a collection.
+     */
+    protected static class Entry {
+
+        /**
+         * The number of accesses.
+         */
+        final LongAdder count = new LongAdder();
+
+        /**
+         * The stamp of the last access.
+         */
+        volatile long stamp;
+    }
+
+    /**
+     * For stamping accesses.
+     */
+    protected final AtomicLong clock;
+
+    /**
+     * Keys are the tracked collection IDs, values are their access records.
+     */
+    protected final ConcurrentHashMap<Data_CollectionID, Entry> counts;
+
+    /**
+     * Creates a new instance.
+     */
+    public Data_LFUEvictionPolicy() {
+        clock = new AtomicLong();
+        counts = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void accessed(Data_CollectionID cID, long size) {
+        Entry x = counts.get(cID);
+        if (x == null) {
+            x = counts.computeIfAbsent(cID, k -> new Entry());
+        }
+        x.count.increment();
+        x.stamp = clock.incrementAndGet();
+    }
+
+    @Override
+    public void removed(Data_CollectionID cID) {
+        counts.remove(cID);
+    }
+
+    @Override
+    public Data_CollectionID selectVictim() {
+        Data_CollectionID r = null;
+        long minCount = Long.MAX_VALUE;
+        long minStamp = Long.MAX_VALUE;
+        for (Map.Entry<Data_CollectionID, Entry> e : counts.entrySet()) {
+            Entry x = e.getValue();
+            long n = x.count.sum();
+            long s = x.stamp;
+            if (r == null || n < minCount || (n == minCount && s < minStamp)) {
+                minCount = n;
+                minStamp = s;
+                r = e.getKey();
+            }
+        }
+        return r;
+    }
+
+    @Override
+    public void clear() {
+        counts.clear();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * A {@link Data_EvictionPolicy} that selects the least recently used
+ * collection. Each access stamps the collection with the value of a counter
+ * without taking a lock, so concurrent accesses do not block each other. The
+ * stamps are compared when a victim is selected.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_LRUEvictionPolicy implements Data_EvictionPolicy {
+
+    /**
+     * For stamping accesses.
+     */
+    protected final AtomicLong clock;
+
+    /**
+     * Keys are the tracked collection IDs, values are the stamps of their last
+     * accesses.
+     */
+    protected final ConcurrentHashMap<Data_CollectionID, AtomicLong> stamps;
+
+    /**
+     * Creates a new instance.
+     */
+    public Data_LRUEvictionPolicy() {
+        clock = new AtomicLong();
+        stamps = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void accessed(Data_CollectionID cID, long size) {
+        AtomicLong x = stamps.get(cID);
+        if (x == null) {
+            x = stamps.computeIfAbsent(cID, k -> new AtomicLong());
+        }
+        x.set(clock.incrementAndGet());
+    }
+
+    @Override
+    public void removed(Data_CollectionID cID) {
+        stamps.remove(cID);
+    }
+
+    @Override
+    public Data_CollectionID selectVictim() {
+        Data_CollectionID r = null;
+        long min = Long.MAX_VALUE;
+        for (Map.Entry<Data_CollectionID, AtomicLong> e : stamps.entrySet()) {
+            long s = e.getValue().get();
+            if (s < min) {
+                min = s;
+                r = e.getKey();
+            }
+        }
+        return r;
+    }
+
+    @Override
+    public void clear() {
+        stamps.clear();
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import uk.ac.leeds.ccg.data.Data_Data;
+import uk.ac.leeds.ccg.data.core.Data_Environment;
+
+/**
+ * For clearing data before the heap fills up rather than after an
+ * {@link OutOfMemoryError}. Usage thresholds and collection usage thresholds
+ * are set on the heap memory pools that support them, and when the JVM
+ * notifies that a threshold has been exceeded the number of bytes needed to
+ * bring the pool back down to {@link #low} is recorded as pending. Pending
+ * bytes are cleared using {@link Data_Environment#clearData(long)}.
+ *
+ * If {@link Data_Environment#data} is concurrent (see
+ * {@link Data_Data#isConcurrent()}) then pending bytes are cleared straight
+ * away on a background thread. Otherwise, as the data cannot safely be
+ * modified by another thread, pending bytes are cleared when
+ * {@link #relieve()} is next called on the thread using the data, which
+ * {@link Data_Data} does before loading a collection.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_MemoryMonitor implements NotificationListener {
+
+    /**
+     * The data environment.
+     */
+    protected final Data_Environment de;
+
+    /**
+     * The fraction of the maximum size of each pool at which thresholds are
+     * set.
+     */
+    protected final double high;
+
+    /**
+     * The fraction of the maximum size of a pool to clear down to when a
+     * threshold is exceeded.
+     */
+    protected final double low;
+
+    /**
+     * The pools on which thresholds are set.
+     */
+    protected final List<MemoryPoolMXBean> pools;
+
+    /**
+     * The number of bytes waiting to be cleared.
+     */
+    protected final AtomicLong pending;
+
+    /**
+     * The number of threshold notifications received.
+     */
+    protected final AtomicLong notifications;
+
+    /**
+     * For clearing in the background.
+     */
+    protected final ExecutorService executor;
+
+    /**
+     * {@code true} once {@link #start()} has been called and until
+     * {@link #stop()} is called.
+     */
+    private volatile boolean started;
+
+    /**
+     * @param de What {@link #de} is set to.
+     * @param high What {@link #high} is set to.
+     * @param low What {@link #low} is set to.
+     */
+    public Data_MemoryMonitor(Data_Environment de, double high, double low) {
+        if (!(low > 0d && low <= high && high < 1d)) {
+            throw new IllegalArgumentException("Expecting 0 < low (" + low
+                    + ") <= high (" + high + ") < 1");
+        }
+        this.de = de;
+        this.high = high;
+        this.low = low;
+        pools = new ArrayList<>();
+        pending = new AtomicLong();
+        notifications = new AtomicLong();
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, getClass().getSimpleName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * For setting the thresholds and starting to listen for notifications.
+     *
+     * @return The number of pools on which thresholds were set.
+     */
+    public synchronized int start() {
+        if (started) {
+            return pools.size();
+        }
+        for (MemoryPoolMXBean p : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = p.getUsage().getMax();
+            if (p.getType() == MemoryType.HEAP && max > 0L
+                    && p.isUsageThresholdSupported()) {
+                long t = (long) (max * high);
+                p.setUsageThreshold(t);
+                if (p.isCollectionUsageThresholdSupported()) {
+                    p.setCollectionUsageThreshold(t);
+                }
+                pools.add(p);
+            }
+        }
+        ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                .addNotificationListener(this, null, null);
+        started = true;
+        return pools.size();
+    }
+
+    /**
+     * For clearing the thresholds and stopping listening for notifications.
+     */
+    public synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean())
+                    .removeNotificationListener(this);
+        } catch (ListenerNotFoundException e) {
+            // Nothing to remove.
+        }
+        for (MemoryPoolMXBean p : pools) {
+            p.setUsageThreshold(0L);
+            if (p.isCollectionUsageThresholdSupported()) {
+                p.setCollectionUsageThreshold(0L);
+            }
+        }
+        pools.clear();
+        pending.set(0L);
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return {@code true} iff started and not stopped.
+     */
+    public boolean isStarted() {
+        return started;
+    }
+
+    @Override
+    public void handleNotification(Notification n, Object handback) {
+        String type = n.getType();
+        if (!MemoryNotificationInfo.MEMORY_THRESHOLD_EXCEEDED.equals(type)
+                && !MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED
+                        .equals(type)) {
+            return;
+        }
+        notifications.incrementAndGet();
+        MemoryNotificationInfo info = MemoryNotificationInfo.from(
+                (CompositeData) n.getUserData());
+        long bytes = getBytesToClear(info.getUsage());
+        if (bytes > 0L) {
+            pending.accumulateAndGet(bytes, Math::max);
+            Data_Data d = de.data;
+            if (started && d != null && d.isConcurrent()) {
+                executor.execute(() -> relieve());
+            }
+        }
+    }
+
+    /**
+     * @param u The usage of a pool.
+     * @return The number of bytes to clear to bring the usage down to
+     * {@link #low} of the maximum.
+     */
+    public long getBytesToClear(MemoryUsage u) {
+        return u.getUsed() - (long) (u.getMax() * low);
+    }
+
+    /**
+     * For clearing any pending bytes.
+     *
+     * @return The estimated number of bytes cleared.
+     */
+    public long relieve() {
+        long bytes = pending.getAndSet(0L);
+        if (bytes <= 0L || de.data == null) {
+            return 0L;
+        }
+        try {
+            return de.clearData(bytes);
+        } catch (IOException e) {
+            de.env.log("Failed to clear " + bytes + " bytes of data: "
+                    + e.getMessage());
+            return 0L;
+        }
+    }
+
+    /**
+     * @return The number of bytes waiting to be cleared.
+     */
+    public long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * @return The number of threshold notifications received.
+     */
+    public long getNotificationCount() {
+        return notifications.get();
+    }
+}
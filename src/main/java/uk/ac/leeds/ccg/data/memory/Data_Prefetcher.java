@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.core.Data_Environment;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.io.Data_CollectionStore;
+
+/**
+ * For loading collections in the background ahead of them being needed. The
+ * sequence of collection IDs accessed is watched and if successive accesses
+ * move by the same non-zero stride, the next collections along that stride
+ * are predicted.
+ *
+ * Predicted collections are read from a {@link Data_CollectionStore} on a
+ * background thread into a buffer. Prefetching only happens while the total
+ * free memory exceeds {@link Data_Environment#Memory_Threshold} by at least
+ * {@link #headroom}, so prefetching never causes other collections to be
+ * cleared from memory. Prefetched collections are unmodified copies of what
+ * is stored, so the buffer can be cleared at any time without writing.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_Prefetcher {
+
+    /**
+     * The data environment for checking memory.
+     */
+    protected final Data_Environment de;
+
+    /**
+     * The number of collections ahead to predict.
+     */
+    protected final int depth;
+
+    /**
+     * The amount of memory in bytes over and above
+     * {@link Data_Environment#Memory_Threshold} that must be free for
+     * prefetching to happen.
+     */
+    protected final long headroom;
+
+    /**
+     * For loading in the background.
+     */
+    protected final ExecutorService executor;
+
+    /**
+     * The prefetched and prefetching collections.
+     */
+    protected final ConcurrentHashMap<Data_CollectionID, Future<Data_Collection>> buffer;
+
+    /**
+     * The last collection ID accessed.
+     */
+    private int last;
+
+    /**
+     * {@code true} iff {@link #last} has been set.
+     */
+    private boolean hasLast;
+
+    /**
+     * The stride between the last two different collection IDs accessed.
+     */
+    private int stride;
+
+    /**
+     * The number of times in a row {@link #stride} has been seen.
+     */
+    private int confidence;
+
+    /**
+     * @param de What {@link #de} is set to.
+     * @param depth What {@link #depth} is set to.
+     * @param headroom What {@link #headroom} is set to.
+     */
+    public Data_Prefetcher(Data_Environment de, int depth, long headroom) {
+        this.de = de;
+        this.depth = depth;
+        this.headroom = headroom;
+        buffer = new ConcurrentHashMap<>();
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, getClass().getSimpleName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * For recording an access and predicting which collections will be
+     * accessed next.
+     *
+     * @param cID The ID of the collection accessed.
+     * @return The IDs of collections predicted to be accessed next, nearest
+     * first. This is empty if no pattern has been detected or {@code cID} was
+     * also the last collection accessed.
+     */
+    public synchronized List<Data_CollectionID> predict(Data_CollectionID cID) {
+        int id = cID.id;
+        if (!hasLast) {
+            hasLast = true;
+            last = id;
+            return Collections.emptyList();
+        }
+        int s = id - last;
+        if (s == 0) {
+            return Collections.emptyList();
+        }
+        if (s == stride) {
+            confidence++;
+        } else {
+            stride = s;
+            confidence = 1;
+        }
+        last = id;
+        if (confidence < 2) {
+            return Collections.emptyList();
+        }
+        List<Data_CollectionID> r = new ArrayList<>(depth);
+        long next = id;
+        for (int i = 0; i < depth; i++) {
+            next += stride;
+            if (next < Integer.MIN_VALUE || next > Integer.MAX_VALUE) {
+                break;
+            }
+            r.add(new Data_CollectionID((int) next));
+        }
+        return r;
+    }
+
+    /**
+     * @return {@code true} iff there is enough free memory to prefetch.
+     */
+    protected boolean hasHeadroom() {
+        return de.getTotalFreeMemory() > de.Memory_Threshold + headroom;
+    }
+
+    /**
+     * For reading a collection into the buffer in the background. Nothing
+     * happens if it is already buffered, the buffer is full or there is not
+     * enough free memory.
+     *
+     * @param cID The ID of the collection to read.
+     * @param store The store to read from.
+     * @return {@code true} iff a read was scheduled.
+     */
+    public boolean prefetch(Data_CollectionID cID, Data_CollectionStore store) {
+        if (buffer.containsKey(cID) || buffer.size() >= depth
+                || !hasHeadroom()) {
+            return false;
+        }
+        buffer.computeIfAbsent(cID, k -> executor.submit(() -> store.read(k)));
+        return true;
+    }
+
+    /**
+     * For taking a collection out of the buffer. If it is still being read,
+     * this waits for the read to complete.
+     *
+     * @param cID The ID of the collection.
+     * @return The prefetched collection or {@code null} if it was not
+     * buffered or could not be read.
+     */
+    public Data_Collection take(Data_CollectionID cID) {
+        Future<Data_Collection> f = buffer.remove(cID);
+        if (f == null) {
+            return null;
+        }
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * For discarding any buffered copy of a collection, for instance because
+     * it has been changed and so the stored version is out of date.
+     *
+     * @param cID The ID of the collection.
+     */
+    public void discard(Data_CollectionID cID) {
+        Future<Data_Collection> f = buffer.remove(cID);
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+
+    /**
+     * For discarding all buffered collections.
+     *
+     * @return The number of collections discarded.
+     */
+    public int clear() {
+        int r = 0;
+        for (Data_CollectionID cID : buffer.keySet()) {
+            Future<Data_Collection> f = buffer.remove(cID);
+            if (f != null) {
+                f.cancel(false);
+                r++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * For stopping the background thread.
+     */
+    public void shutdown() {
+        clear();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * A size aware {@link Data_EvictionPolicy} (Greedy Dual Size Frequency). Each
+ * tracked collection has a priority of {@code L + f / s} where {@code f} is the
+ * number of times it has been accessed since it was last loaded, {@code s} is
+ * its size and {@code L} is an inflation value. The collection with the lowest
+ * priority is selected and when it is removed {@code L} is set to its priority,
+ * so collections that have not been accessed for a while age relative to newly
+ * accessed ones. Large, rarely used collections are selected before small,
+ * frequently used ones.
+ *
+ * The size of a collection is the estimate in bytes tracked by the
+ * {@link uk.ac.leeds.ccg.data.Data_Data} (see
+ * {@link uk.ac.leeds.ccg.data.Data_Data#getSizeEstimate(Data_CollectionID)}),
+ * so it is not recomputed on each access. Sizes less than 1 are taken to be 1.
+ *
+ * Accesses are recorded without taking a lock, so concurrent accesses do not
+ * block each other. Priorities are worked out when a victim is selected.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_SizeEvictionPolicy implements Data_EvictionPolicy {
+
+    /**
+     * The access record of a collection.
+     */
+    protected static class Entry {
+
+        /**
+         * The number of accesses.
+         */
+        final LongAdder count = new LongAdder();
+
+        /**
+         * The size.
+         */
+        volatile double size = 1;
+
+        /**
+         * The inflation value at the last access.
+         */
+        volatile double base;
+
+        /**
+         * @return The priority.
+         */
+        double getPriority() {
+            return base + count.sum() / size;
+        }
+    }
+
+    /**
+     * The inflation value.
+     */
+    protected volatile double inflation;
+
+    /**
+     * Keys are the tracked collection IDs, values are their access records.
+     */
+    protected final ConcurrentHashMap<Data_CollectionID, Entry> entries;
+
+    /**
+     * Creates a new instance.
+     */
+    public Data_SizeEvictionPolicy() {
+        entries = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void accessed(Data_CollectionID cID, long size) {
+        Entry x = entries.get(cID);
+        if (x == null) {
+            x = entries.computeIfAbsent(cID, k -> new Entry());
+        }
+        x.size = Math.max(1, size);
+        x.base = inflation;
+        x.count.increment();
+    }
+
+    @Override
+    public synchronized void removed(Data_CollectionID cID) {
+        Entry x = entries.remove(cID);
+        if (x != null) {
+            double p = x.getPriority();
+            if (p > inflation) {
+                inflation = p;
+            }
+        }
+    }
+
+    @Override
+    public Data_CollectionID selectVictim() {
+        Data_CollectionID r = null;
+        double min = Double.POSITIVE_INFINITY;
+        for (Map.Entry<Data_CollectionID, Entry> e : entries.entrySet()) {
+            double p = e.getValue().getPriority();
+            if (p < min) {
+                min = p;
+                r = e.getKey();
+            }
+        }
+        return r;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        inflation = 0;
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ * A second chance tier for collections that have been cleared from memory
+ * after being cached. Collections are held by soft (or weak) references, so
+ * the garbage collector can reclaim them whenever it needs to, but until it
+ * does they can be got back without reading them from the cache.
+ *
+ * Only collections that are the same as what is cached should be put in this,
+ * so what is got back is always consistent with what would be loaded.
+ *
+ * Hits, misses and the number of collections reclaimed by the garbage
+ * collector are counted to show how well the tier works.
+ *
+ * @author Andy Turner
+ * @version 1.0.0
+ */
+public class Data_SoftCache {
+
+    /**
+     * {@code true} if collections are held by weak references, {@code false}
+     * if by soft references.
+     */
+    protected final boolean weak;
+
+    /**
+     * The references.
+     */
+    protected final ConcurrentHashMap<Data_CollectionID, Ref> refs;
+
+    /**
+     * For finding references cleared by the garbage collector.
+     */
+    protected final ReferenceQueue<Data_Collection> queue;
+
+    /**
+     * The number of collections got back.
+     */
+    protected final LongAdder hits;
+
+    /**
+     * The number of collections asked for that were not got back.
+     */
+    protected final LongAdder misses;
+
+    /**
+     * The number of collections reclaimed by the garbage collector.
+     */
+    protected final LongAdder reclaimed;
+
+    /**
+     * Creates a new instance using soft references.
+     */
+    public Data_SoftCache() {
+        this(false);
+    }
+
+    /**
+     * @param weak What {@link #weak} is set to.
+     */
+    public Data_SoftCache(boolean weak) {
+        this.weak = weak;
+        refs = new ConcurrentHashMap<>();
+        queue = new ReferenceQueue<>();
+        hits = new LongAdder();
+        misses = new LongAdder();
+        reclaimed = new LongAdder();
+    }
+
+    /**
+     * A reference to a collection that knows the collection ID and estimated
+     * size so it can be removed from {@link #refs} once cleared.
+     */
+    protected interface Ref {
+
+        /**
+         * @return The collection or {@code null} if it has been cleared.
+         */
+        Data_Collection get();
+
+        /**
+         * @return The collection ID.
+         */
+        Data_CollectionID getID();
+
+        /**
+         * @return The estimated size of the collection in bytes.
+         */
+        long getSize();
+
+        /**
+         * For clearing the reference.
+         */
+        void clear();
+    }
+
+    private static class SoftRef extends SoftReference<Data_Collection>
+            implements Ref {
+
+        private final Data_CollectionID cID;
+
+        private final long size;
+
+        SoftRef(Data_CollectionID cID, Data_Collection c,
+                ReferenceQueue<Data_Collection> q) {
+            super(c, q);
+            this.cID = cID;
+            this.size = c.getSizeEstimate();
+        }
+
+        @Override
+        public Data_CollectionID getID() {
+            return cID;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private static class WeakRef extends WeakReference<Data_Collection>
+            implements Ref {
+
+        private final Data_CollectionID cID;
+
+        private final long size;
+
+        WeakRef(Data_CollectionID cID, Data_Collection c,
+                ReferenceQueue<Data_Collection> q) {
+            super(c, q);
+            this.cID = cID;
+            this.size = c.getSizeEstimate();
+        }
+
+        @Override
+        public Data_CollectionID getID() {
+            return cID;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+    }
+
+    /**
+     * For removing references cleared by the garbage collector.
+     */
+    protected void expunge() {
+        Reference<? extends Data_Collection> r;
+        while ((r = queue.poll()) != null) {
+            Ref x = (Ref) r;
+            if (refs.remove(x.getID(), x)) {
+                reclaimed.increment();
+            }
+        }
+    }
+
+    /**
+     * @param cID The collection ID.
+     * @param c The collection which should be the same as what is cached.
+     */
+    public void put(Data_CollectionID cID, Data_Collection c) {
+        expunge();
+        Ref r = weak ? new WeakRef(cID, c, queue) : new SoftRef(cID, c, queue);
+        Ref o = refs.put(cID, r);
+        if (o != null) {
+            o.clear();
+        }
+    }
+
+    /**
+     * For getting a collection back and removing it from this.
+     *
+     * @param cID The collection ID.
+     * @return The collection or {@code null} if it is not held or has been
+     * reclaimed.
+     */
+    public Data_Collection take(Data_CollectionID cID) {
+        expunge();
+        Ref r = refs.remove(cID);
+        return count(r == null ? null : r.get());
+    }
+
+    /**
+     * For getting a collection back leaving it in this.
+     *
+     * @param cID The collection ID.
+     * @return The collection or {@code null} if it is not held or has been
+     * reclaimed.
+     */
+    public Data_Collection get(Data_CollectionID cID) {
+        expunge();
+        Ref r = refs.get(cID);
+        return count(r == null ? null : r.get());
+    }
+
+    private Data_Collection count(Data_Collection c) {
+        if (c == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return c;
+    }
+
+    /**
+     * For removing a collection that is no longer the same as what is cached.
+     *
+     * @param cID The collection ID.
+     */
+    public void remove(Data_CollectionID cID) {
+        Ref r = refs.remove(cID);
+        if (r != null) {
+            r.clear();
+        }
+    }
+
+    /**
+     * For removing all collections.
+     *
+     * @return The estimated number of bytes of the collections removed that
+     * had not been reclaimed.
+     */
+    public long clear() {
+        long r = 0L;
+        Iterator<Ref> ite = refs.values().iterator();
+        while (ite.hasNext()) {
+            Ref x = ite.next();
+            ite.remove();
+            if (x.get() != null) {
+                r += x.getSize();
+            }
+            x.clear();
+        }
+        expunge();
+        return r;
+    }
+
+    /**
+     * @return The number of collections held, some of which may have been
+     * reclaimed but not yet removed.
+     */
+    public int size() {
+        expunge();
+        return refs.size();
+    }
+
+    /**
+     * @return The number of collections got back.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The number of collections asked for that were not got back.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The number of collections reclaimed by the garbage collector.
+     */
+    public long getReclaimedCount() {
+        return reclaimed.sum();
+    }
+
+    /**
+     * @return The proportion of requests that were hits or {@code 0} if there
+     * have been no requests.
+     */
+    public double getHitRate() {
+        long h = hits.sum();
+        long n = h + misses.sum();
+        return n == 0L ? 0d : h / (double) n;
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_ColumnarCollectionTest {
+
+    public Data_ColumnarCollectionTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private static Data_ColumnarCollection getInstance() {
+        return new Data_ColumnarCollection(new Data_CollectionID(0),
+                new String[]{"name", "count", "value", "amount"},
+                new int[]{Data_ColumnarCollection.STRING,
+                    Data_ColumnarCollection.BYTE,
+                    Data_ColumnarCollection.DOUBLE,
+                    Data_ColumnarCollection.BIGDECIMAL});
+    }
+
+    /**
+     * Test of addRow method, of class Data_ColumnarCollection.
+     */
+    @Test
+    public void testAddRow() {
+        System.out.println("addRow");
+        Data_ColumnarCollection instance = getInstance();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, instance.addRow(new Data_RecordID(i * 3L),
+                    new String[]{"n" + (i % 4), Integer.toString(i),
+                        i % 10 == 0 ? "" : Double.toString(i / 2d),
+                        "1." + i}));
+        }
+        assertEquals(100, instance.getN());
+        int row = instance.getRow(30L);
+        assertEquals(10, row);
+        assertEquals("n2", instance.getString(row, 0));
+        assertEquals(10, instance.getByte(row, 1));
+        assertEquals(10L, instance.getLong(row, 1));
+        assertTrue(instance.isNull(row, 2));
+        assertNull(instance.get(row, 2));
+        assertEquals(new BigDecimal("1.10"), instance.get(row, 3));
+        assertEquals(5.5d, instance.getDouble(instance.getRow(33L), 2));
+        assertEquals(-1, instance.getRow(31L));
+        // Test 2
+        assertThrows(IllegalArgumentException.class,
+                () -> instance.addRow(new Data_RecordID(30L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> instance.getInt(0, 2));
+    }
+
+    /**
+     * Test of getRecord and iterator methods, of class
+     * Data_ColumnarCollection.
+     */
+    @Test
+    public void testGetRecord() {
+        System.out.println("getRecord");
+        Data_ColumnarCollection instance = getInstance();
+        int row = instance.addRow(new Data_RecordID(7L));
+        instance.setByte(row, 1, (byte) 2);
+        instance.setDouble(row, 2, 0.5d);
+        Data_ColumnarRecord r = (Data_ColumnarRecord)
+                instance.getRecord(new Data_RecordID(7L));
+        assertEquals(2, r.getInt(1));
+        assertEquals(0.5d, r.get("value"));
+        assertTrue(r.isNull(0));
+        assertNull(instance.getRecord(new Data_RecordID(8L)));
+        // Test 2
+        instance.addRow(new Data_RecordID(9L), new String[]{"a", "", "", ""});
+        long sum = 0;
+        int n = 0;
+        for (Data_Record x : instance) {
+            sum += ((Data_RecordID) x.getId()).id;
+            n++;
+        }
+        assertEquals(2, n);
+        assertEquals(16L, sum);
+    }
+
+    /**
+     * Test of getSizeEstimate method, of class Data_ColumnarCollection.
+     */
+    @Test
+    public void testGetSizeEstimate() {
+        System.out.println("getSizeEstimate");
+        Data_ColumnarCollection instance = getInstance();
+        long empty = instance.getSizeEstimate();
+        for (int i = 0; i < 1000; i++) {
+            instance.addRow(new Data_RecordID(i), new String[]{"a", "1",
+                "2.0", ""});
+        }
+        long result = instance.getSizeEstimate();
+        // At least the ids and the double column.
+        assertTrue(result > empty + 16000L);
+        // Test 2
+        instance.trimToSize();
+        assertTrue(instance.getSizeEstimate() <= result);
+    }
+
+    /**
+     * Test of isDirty method, of class Data_ColumnarCollection.
+     *
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    @Test
+    public void testIsDirty() throws IOException, ClassNotFoundException {
+        System.out.println("isDirty");
+        Data_ColumnarCollection instance = getInstance();
+        assertTrue(instance.isDirty());
+        int row = instance.addRow(new Data_RecordID(1L));
+        instance.markClean();
+        assertFalse(instance.isDirty());
+        instance.setByte(row, 1, (byte) 2);
+        assertTrue(instance.isDirty());
+        // Test 2: deserialized collections are clean.
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+            oos.writeObject(instance);
+        }
+        Data_ColumnarCollection result;
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new ByteArrayInputStream(b.toByteArray()))) {
+            result = (Data_ColumnarCollection) ois.readObject();
+        }
+        assertFalse(result.isDirty());
+        assertEquals(2, result.getByte(0, 1));
+        // Test 3
+        assertNotNull(result.removeRecord(new Data_RecordID(1L)));
+        assertTrue(result.isDirty());
+    }
+
+    /**
+     * Test of putRecord and removeRecord methods, of class
+     * Data_ColumnarCollection.
+     */
+    @Test
+    public void testPutRemoveRecord() {
+        System.out.println("putRemoveRecord");
+        Data_ColumnarCollection instance = getInstance();
+        for (int i = 0; i < 10; i++) {
+            instance.addRow(new Data_RecordID(i), new String[]{"n" + i,
+                Integer.toString(i), "", Integer.toString(i)});
+        }
+        Data_ColumnarCollection other = getInstance();
+        other.addRow(new Data_RecordID(3L), new String[]{"x", "", "1.5",
+            "7"});
+        other.addRow(new Data_RecordID(20L), new String[]{"y", "20", "", ""});
+        Data_ColumnarRecord o = (Data_ColumnarRecord) instance.putRecord(
+                other.getRecord(new Data_RecordID(3L)));
+        assertEquals("n3", o.getString(0));
+        assertEquals(3, o.getByte(1));
+        int row = instance.getRow(3L);
+        assertEquals("x", instance.getString(row, 0));
+        assertTrue(instance.isNull(row, 1));
+        assertEquals(1.5d, instance.getDouble(row, 2));
+        assertEquals(new BigDecimal("7"), instance.get(row, 3));
+        assertNull(instance.putRecord(other.getRecord(new Data_RecordID(20L))));
+        assertEquals(11, instance.getN());
+        assertEquals(20, instance.getByte(instance.getRow(20L), 1));
+        // Test 2: the last row is moved into the row removed.
+        Data_ColumnarRecord r = (Data_ColumnarRecord) instance.removeRecord(
+                new Data_RecordID(3L));
+        assertEquals("x", r.getString(0));
+        assertEquals(10, instance.getN());
+        assertEquals(-1, instance.getRow(3L));
+        assertEquals(row, instance.getRow(20L));
+        assertEquals("y", instance.getString(row, 0));
+        assertTrue(instance.isNull(row, 3));
+        assertNull(instance.removeRecord(new Data_RecordID(3L)));
+        int n = 0;
+        for (Data_Record x : instance) {
+            assertNotNull(instance.getRecord(x.id));
+            n++;
+        }
+        assertEquals(10, n);
+        // Test 3
+        assertThrows(IllegalArgumentException.class,
+                () -> instance.putRecord(new Data_Record(new Data_RecordID(
+                        30L)) {
+            @Override
+            public uk.ac.leeds.ccg.data.id.Data_ID getId() {
+                return id;
+            }
+        }));
+    }
+
+    /**
+     * Test of writeRow and readRecord methods, of class
+     * Data_ColumnarCollection.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    @Test
+    public void testWriteRowReadRecord() throws IOException {
+        System.out.println("writeRowReadRecord");
+        Data_ColumnarCollection instance = getInstance();
+        instance.addRow(new Data_RecordID(5L), new String[]{"\u00e9t\u00e9", "-3",
+            "", "12.50"});
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(b)) {
+            instance.getRecord(new Data_RecordID(5L)).writeFields(dos);
+        }
+        Data_ColumnarRecord result = (Data_ColumnarRecord) getInstance()
+                .readRecord(new Data_RecordID(5L), ByteBuffer.wrap(
+                        b.toByteArray()));
+        assertEquals(5L, result.id.id);
+        assertEquals("\u00e9t\u00e9", result.getString(0));
+        assertEquals(-3, result.getByte(1));
+        assertTrue(result.isNull(2));
+        assertEquals(new BigDecimal("12.50"), result.get(3));
+    }
+}
@@ -0,0 +1,635 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.core.Data_Environment;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_ID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import uk.ac.leeds.ccg.data.index.Data_AttributeIndexTest;
+import uk.ac.leeds.ccg.data.index.Data_HashIndex;
+import uk.ac.leeds.ccg.data.index.Data_SortedIndex;
+import uk.ac.leeds.ccg.data.io.Data_CollectionStore;
+import uk.ac.leeds.ccg.data.io.Data_LogStructuredStore;
+import uk.ac.leeds.ccg.data.io.Data_WriteBehindStore;
+import uk.ac.leeds.ccg.generic.core.Generic_Environment;
+import uk.ac.leeds.ccg.generic.io.Generic_Defaults;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_DataTest {
+
+    private Path dir;
+
+    public Data_DataTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("Data_DataTest");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile()
+                    .delete());
+        }
+    }
+
+    static class Record extends Data_Record {
+
+        private static final long serialVersionUID = 1L;
+
+        Record(long id) {
+            super(new Data_RecordID(id));
+        }
+
+        @Override
+        public Data_ID getId() {
+            return id;
+        }
+    }
+
+    static class Data extends Data_Data {
+
+        private static final long serialVersionUID = 1L;
+
+        Data(Data_Environment e, boolean concurrent) {
+            super(e, concurrent);
+        }
+    }
+
+    /**
+     * An in memory store where reads are counted and wait for
+     * {@link #latch}.
+     */
+    static class Store implements Data_CollectionStore {
+
+        final ConcurrentHashMap<Data_CollectionID, Data_Collection> m
+                = new ConcurrentHashMap<>();
+
+        final AtomicInteger reads = new AtomicInteger();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public void write(Data_CollectionID cID, Data_Collection c) {
+            m.put(cID, c);
+        }
+
+        @Override
+        public Data_Collection read(Data_CollectionID cID)
+                throws IOException {
+            reads.incrementAndGet();
+            try {
+                latch.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            return m.get(cID);
+        }
+
+        @Override
+        public boolean contains(Data_CollectionID cID) {
+            return m.containsKey(cID);
+        }
+    }
+
+    private Data getData(boolean concurrent) throws Exception {
+        Data_Environment de = new Data_Environment(new Generic_Environment(
+                new Generic_Defaults(dir)));
+        Files.createDirectories(de.files.getGeneratedDir());
+        Data r = new Data(de, concurrent);
+        de.data = r;
+        return r;
+    }
+
+    /**
+     * Test of getDataRecord method, of class Data_Data, in concurrent mode
+     * with many threads missing the same collection at once.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecord_concurrent() throws Exception {
+        System.out.println("getDataRecord concurrent");
+        Data instance = getData(true);
+        Store s = new Store();
+        instance.setCollectionStore(s);
+        Data_CollectionID cID = new Data_CollectionID(0);
+        Data_Collection c = new Data_Collection(cID);
+        for (long l = 0; l < 10; l++) {
+            c.putRecord(new Record(l));
+            instance.putCollectionID(new Data_RecordID(l), cID);
+        }
+        s.m.put(cID, c);
+        int n = 16;
+        ExecutorService es = Executors.newFixedThreadPool(n);
+        try {
+            List<Future<Data_Record>> fs = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                Data_RecordID rID = new Data_RecordID(i % 10);
+                fs.add(es.submit(() -> instance.getDataRecord(rID)));
+            }
+            // Let the read complete once every thread has missed.
+            long end = System.currentTimeMillis() + 10000L;
+            while (instance.getStats().getMissCount() < n
+                    && System.currentTimeMillis() < end) {
+                Thread.sleep(1L);
+            }
+            s.latch.countDown();
+            for (int i = 0; i < n; i++) {
+                assertEquals(i % 10, fs.get(i).get().id.id);
+            }
+        } finally {
+            es.shutdown();
+        }
+        assertEquals(n, instance.getStats().getMissCount());
+        assertEquals(1, s.reads.get());
+    }
+
+    /**
+     * Test of getDataRecord method, of class Data_Data, when the store does
+     * not have the collection.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecord_missing() throws Exception {
+        System.out.println("getDataRecord missing");
+        Data instance = getData(true);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        Data_RecordID rID = new Data_RecordID(1L);
+        instance.putCollectionID(rID, new Data_CollectionID(0));
+        assertThrows(NoSuchFileException.class,
+                () -> instance.getDataRecord(rID));
+    }
+
+    /**
+     * Test of setSkipCleanWrites method, of class Data_Data.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testSetSkipCleanWrites() throws Exception {
+        System.out.println("setSkipCleanWrites");
+        Data instance = getData(false);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        Data_CollectionID cID = new Data_CollectionID(0);
+        Data_Collection c = new Data_Collection(cID);
+        Data_RecordID rID = new Data_RecordID(1L);
+        c.putRecord(new Record(1L));
+        instance.putCollectionID(rID, cID);
+        s.m.put(cID, c);
+        assertFalse(instance.isSkipCleanWrites());
+        instance.getDataRecord(rID);
+        instance.clearAllData();
+        assertEquals(1L, instance.getWriteCount());
+        assertEquals(0L, instance.getSkippedWriteCount());
+        // Test 2
+        instance.setSkipCleanWrites(true);
+        instance.getDataRecord(rID);
+        instance.clearAllData();
+        assertEquals(1L, instance.getWriteCount());
+        assertEquals(1L, instance.getSkippedWriteCount());
+        // Test 3
+        instance.getDataRecord(rID);
+        s.m.get(cID).markDirty();
+        instance.clearAllData();
+        assertEquals(2L, instance.getWriteCount());
+    }
+
+    /**
+     * Test of putCollection method, of class Data_Data, with an index.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testPutCollection_index() throws Exception {
+        System.out.println("putCollection index");
+        Data instance = getData(false);
+        Data_HashIndex<Integer> index = new Data_HashIndex<>("age",
+                r -> ((Data_AttributeIndexTest.Record) r).age);
+        instance.addIndex(index);
+        Data_CollectionID cID = new Data_CollectionID(0);
+        Data_Collection c = new Data_Collection(cID);
+        c.putRecord(new Data_AttributeIndexTest.Record(1L, 30));
+        instance.putCollection(cID, c);
+        instance.putCollection(cID, c);
+        assertArrayEquals(new long[]{1L}, index.get(30));
+        // Test 2
+        Data_Collection c2 = new Data_Collection(cID);
+        c2.putRecord(new Data_AttributeIndexTest.Record(1L, 40));
+        instance.putCollection(cID, c2);
+        assertEquals(0, index.get(30).length);
+        assertArrayEquals(new long[]{1L}, index.get(40));
+    }
+
+    /**
+     * Test of enableWriteBehind and enableLog methods, of class Data_Data.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testEnableWriteBehind_enableLog() throws Exception {
+        System.out.println("enableWriteBehind enableLog");
+        Data instance = getData(false);
+        Store s = new Store();
+        instance.setCollectionStore(s);
+        Data_WriteBehindStore wb = instance.enableWriteBehind(1, 4);
+        assertSame(s, wb.getStore());
+        assertThrows(IllegalStateException.class,
+                () -> instance.enableWriteBehind(1, 4));
+        Data_LogStructuredStore log = instance.enableLog(null);
+        assertSame(log, instance.getCollectionStore());
+        assertThrows(IllegalStateException.class,
+                () -> instance.enableLog(null));
+        assertThrows(IllegalStateException.class,
+                () -> instance.enableWriteBehind(1, 4));
+        assertSame(log, instance.getCollectionStore());
+        log.close();
+        wb.shutdown();
+    }
+
+    /**
+     * For putting collections of records in a store with {@code n} records in
+     * each collection, the record IDs being consecutive from 0.
+     *
+     * @param instance The data.
+     * @param s The store.
+     * @param ncollections The number of collections.
+     * @param n The number of records in each collection.
+     */
+    private static void putCollections(Data instance, Store s,
+            int ncollections, int n) {
+        for (int i = 0; i < ncollections; i++) {
+            Data_CollectionID cID = new Data_CollectionID(i);
+            Data_Collection c = new Data_Collection(cID);
+            for (long l = (long) i * n; l < (long) (i + 1) * n; l++) {
+                c.putRecord(new Record(l));
+                instance.putCollectionID(new Data_RecordID(l), cID);
+            }
+            s.m.put(cID, c);
+        }
+    }
+
+    /**
+     * Test of getDataRecords method, of class Data_Data.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecords() throws Exception {
+        System.out.println("getDataRecords");
+        Data instance = getData(false);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        putCollections(instance, s, 3, 10);
+        long[] ids = new long[]{15L, 2L, 99L, 2L, 11L, 0L};
+        Data_Record[] result = instance.getDataRecords(ids);
+        assertEquals(ids.length, result.length);
+        assertEquals(15L, result[0].id.id);
+        assertEquals(2L, result[1].id.id);
+        assertNull(result[2]);
+        assertSame(result[1], result[3]);
+        assertEquals(11L, result[4].id.id);
+        assertEquals(0L, result[5].id.id);
+        // Collections 0 and 1 are each loaded once and 2 is not needed.
+        assertEquals(2, s.reads.get());
+        // Test 2: nothing known.
+        assertArrayEquals(new Data_Record[2],
+                instance.getDataRecords(new long[]{-1L, 100L}));
+        assertEquals(0, instance.getDataRecords(new long[0]).length);
+    }
+
+    /**
+     * Test of getDataRecords method, of class Data_Data, getting collections
+     * in parallel.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecords_parallel() throws Exception {
+        System.out.println("getDataRecords parallel");
+        Data instance = getData(true);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        putCollections(instance, s, 8, 10);
+        long[] ids = new long[80];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ids.length - 1 - i;
+        }
+        Data_Record[] result = instance.getDataRecords(ids, true);
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(ids[i], result[i].id.id);
+        }
+        assertEquals(8, s.reads.get());
+        // Test 2: a collection that can not be loaded.
+        instance.clearAllData();
+        instance.putCollectionID(new Data_RecordID(80L),
+                new Data_CollectionID(8));
+        assertThrows(NoSuchFileException.class,
+                () -> instance.getDataRecords(new long[]{0L, 80L, 79L}, true));
+    }
+
+    /**
+     * Test of getDataRecordAsync method, of class Data_Data, in concurrent
+     * mode with many requests for the same collection at once.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecordAsync_concurrent() throws Exception {
+        System.out.println("getDataRecordAsync concurrent");
+        Data instance = getData(true);
+        Store s = new Store();
+        instance.setCollectionStore(s);
+        putCollections(instance, s, 1, 10);
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        AtomicInteger tasks = new AtomicInteger();
+        instance.setExecutor(r -> {
+            tasks.incrementAndGet();
+            es.execute(r);
+        });
+        try {
+            List<CompletableFuture<Data_Record>> fs = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                fs.add(instance.getDataRecordAsync(new Data_RecordID(i)));
+            }
+            assertNull(instance.getDataRecordAsync(new Data_RecordID(10L))
+                    .get());
+            s.latch.countDown();
+            for (int i = 0; i < 10; i++) {
+                assertEquals(i, fs.get(i).get(10, TimeUnit.SECONDS).id.id);
+            }
+            // The requests shared one load.
+            assertEquals(1, tasks.get());
+            assertEquals(1, s.reads.get());
+            // Test 2: the collection is in memory.
+            CompletableFuture<Data_Record> f = instance.getDataRecordAsync(
+                    new Data_RecordID(3L));
+            assertTrue(f.isDone());
+            assertEquals(3L, f.get().id.id);
+            assertEquals(1, tasks.get());
+        } finally {
+            es.shutdown();
+        }
+    }
+
+    /**
+     * Test of getDataRecordAsync method, of class Data_Data, when the
+     * collection can not be got.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecordAsync_failure() throws Exception {
+        System.out.println("getDataRecordAsync failure");
+        Data instance = getData(true);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        putCollections(instance, s, 1, 10);
+        Data_RecordID rID = new Data_RecordID(10L);
+        instance.putCollectionID(rID, new Data_CollectionID(1));
+        ExecutorService es = Executors.newSingleThreadExecutor();
+        instance.setExecutor(es);
+        try {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> instance.getDataRecordAsync(rID).get(10,
+                            TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof NoSuchFileException);
+        } finally {
+            es.shutdown();
+        }
+        // Test 2: the executor rejects the task.
+        instance.setExecutor(r -> {
+            throw new RejectedExecutionException();
+        });
+        CompletableFuture<Data_Record> f = instance.getDataRecordAsync(
+                new Data_RecordID(0L));
+        assertTrue(f.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, f::get);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        // The failed request is not shared with later ones.
+        instance.setExecutor(Runnable::run);
+        assertEquals(0L, instance.getDataRecordAsync(new Data_RecordID(0L))
+                .get().id.id);
+    }
+
+    /**
+     * Test of getDataRecordAsync method, of class Data_Data, when not in
+     * concurrent mode.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecordAsync() throws Exception {
+        System.out.println("getDataRecordAsync");
+        Data instance = getData(false);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        putCollections(instance, s, 1, 10);
+        Thread t = Thread.currentThread();
+        AtomicInteger tasks = new AtomicInteger();
+        instance.setExecutor(r -> {
+            tasks.incrementAndGet();
+            r.run();
+        });
+        Data_Record[] x = new Data_Record[1];
+        CompletableFuture<Data_Record> f = instance.getDataRecordAsync(
+                new Data_RecordID(5L)).whenComplete((r, e) -> {
+                    assertSame(t, Thread.currentThread());
+                    x[0] = r;
+                });
+        assertTrue(f.isDone());
+        assertEquals(5L, x[0].id.id);
+        assertEquals(0, tasks.get());
+        // Test 2
+        Data_RecordID rID = new Data_RecordID(10L);
+        instance.putCollectionID(rID, new Data_CollectionID(1));
+        f = instance.getDataRecordAsync(rID);
+        assertTrue(f.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, f::get);
+        assertTrue(e.getCause() instanceof NoSuchFileException);
+        assertEquals(0, tasks.get());
+    }
+
+    /**
+     * Test of scan method, of class Data_Data.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testScan() throws Exception {
+        System.out.println("scan");
+        Data instance = getData(false);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        // Collection 0 has the larger IDs and 1 is sorted.
+        Data_CollectionID cID0 = new Data_CollectionID(0);
+        Data_CollectionID cID1 = new Data_CollectionID(1);
+        Data_Collection c0 = new Data_Collection(cID0);
+        Data_Collection c1 = new Data_Collection(cID1);
+        for (long l = 0; l < 10; l++) {
+            c0.putRecord(new Record(19L - l));
+            instance.putCollectionID(new Data_RecordID(19L - l), cID0);
+            c1.putRecord(new Record(l));
+            instance.putCollectionID(new Data_RecordID(l), cID1);
+        }
+        s.m.put(cID0, c0);
+        s.m.put(cID1, new Data_SortedCollection(c1));
+        instance.cIDs.add(cID0);
+        instance.cIDs.add(cID1);
+        List<Long> ids = new ArrayList<>();
+        instance.scan(5L, 14L, r -> ids.add(r.id.id));
+        assertEquals(List.of(5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L, 13L, 14L),
+                ids);
+        // Each collection is read once.
+        assertEquals(2, s.reads.get());
+    }
+
+    /**
+     * Test of putRecord method, of class Data_Data, appending to the log
+     * while the collection is being loaded.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testPutRecord_log() throws Exception {
+        System.out.println("putRecord log");
+        Data instance = getData(true);
+        Store s = new Store();
+        instance.setCollectionStore(s);
+        putCollections(instance, s, 1, 10);
+        Data_LogStructuredStore log = instance.enableLog(null);
+        Data_CollectionID cID = new Data_CollectionID(0);
+        Data_RecordID rID = new Data_RecordID(10L);
+        ExecutorService es = Executors.newFixedThreadPool(2);
+        try {
+            Future<Data_Record> f = es.submit(() -> instance.getDataRecord(
+                    new Data_RecordID(0L)));
+            long end = System.currentTimeMillis() + 10000L;
+            while (s.reads.get() < 1 && System.currentTimeMillis() < end) {
+                Thread.sleep(1L);
+            }
+            // The load has read the store, so the record is not appended.
+            Future<Data_Record> f2 = es.submit(() -> instance.putRecord(cID,
+                    new Record(10L)));
+            while (instance.getStats().getMissCount() < 2
+                    && System.currentTimeMillis() < end) {
+                Thread.sleep(1L);
+            }
+            s.latch.countDown();
+            assertEquals(0L, f.get().id.id);
+            assertNull(f2.get());
+        } finally {
+            es.shutdown();
+        }
+        assertEquals(10L, instance.getDataRecord(rID).id.id);
+        instance.clearAllData();
+        assertEquals(10L, instance.getDataRecord(rID).id.id);
+        // Test 2: appended when the collection is not in memory.
+        instance.clearAllData();
+        instance.putRecord(cID, new Record(11L));
+        assertFalse(instance.data.containsKey(cID));
+        assertEquals(1, log.getPendingCount());
+        assertEquals(11L, instance.getDataRecord(new Data_RecordID(11L)).id.id);
+        log.close();
+    }
+
+    /**
+     * Test of getDataRecords method, of class Data_Data, with a sorted index
+     * after a record is replaced by appending it to the log.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testGetDataRecords_sortedIndex() throws Exception {
+        System.out.println("getDataRecords sortedIndex");
+        Data instance = getData(false);
+        Store s = new Store();
+        s.latch.countDown();
+        instance.setCollectionStore(s);
+        Data_LogStructuredStore log = instance.enableLog(null);
+        Data_SortedIndex<Integer> index = new Data_SortedIndex<>("age",
+                r -> ((Data_AttributeIndexTest.Record) r).age);
+        instance.addIndex(index);
+        Data_CollectionID cID = new Data_CollectionID(0);
+        Data_Collection c = new Data_Collection(cID);
+        c.putRecord(new Data_AttributeIndexTest.Record(1L, 30));
+        c.putRecord(new Data_AttributeIndexTest.Record(2L, 35));
+        instance.putCollectionID(new Data_RecordID(1L), cID);
+        instance.putCollectionID(new Data_RecordID(2L), cID);
+        instance.putCollection(cID, c);
+        instance.clearAllData();
+        // Both the old and new values are in the range.
+        instance.putRecord(cID, new Data_AttributeIndexTest.Record(1L, 40));
+        assertFalse(instance.data.containsKey(cID));
+        List<Data_Record> result = instance.getDataRecords(index, 20, 50);
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).id.id);
+        assertEquals(1L, result.get(1).id.id);
+        assertEquals(Integer.valueOf(40),
+                ((Data_AttributeIndexTest.Record) result.get(1)).age);
+        // Test 2: just the old value is in the range.
+        assertTrue(instance.getDataRecords(index, 20, 30).isEmpty());
+        log.close();
+    }
+}
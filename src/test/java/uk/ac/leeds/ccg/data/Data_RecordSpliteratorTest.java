@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_RecordSpliteratorTest {
+
+    public Data_RecordSpliteratorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private static Data_CollectionID[] getCIDs(int n) {
+        Data_CollectionID[] r = new Data_CollectionID[n];
+        for (int i = 0; i < n; i++) {
+            r[i] = new Data_CollectionID(i);
+        }
+        return r;
+    }
+
+    /**
+     * Collection i has i records with IDs i * 1000 + j.
+     */
+    private static Data_Collection getCollection(Data_CollectionID cID) {
+        Data_ColumnarCollection r = new Data_ColumnarCollection(cID,
+                new String[0], new int[0]);
+        for (int j = 0; j < cID.id; j++) {
+            r.addRow(new Data_RecordID(cID.id * 1000L + j));
+        }
+        return r;
+    }
+
+    /**
+     * Test of tryAdvance and forEachRemaining methods, of class
+     * Data_RecordSpliterator.
+     */
+    @Test
+    public void testTraverse() {
+        System.out.println("traverse");
+        AtomicInteger loads = new AtomicInteger();
+        Data_RecordSpliterator instance = new Data_RecordSpliterator(
+                getCIDs(10), cID -> {
+                    loads.incrementAndGet();
+                    return getCollection(cID);
+                });
+        long[] sum = new long[1];
+        assertTrue(instance.tryAdvance(r -> sum[0] += r.id.id));
+        assertEquals(1000L, sum[0]);
+        assertEquals(2, loads.get());
+        instance.forEachRemaining(r -> sum[0] += r.id.id);
+        long expected = 0L;
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < i; j++) {
+                expected += i * 1000L + j;
+            }
+        }
+        assertEquals(expected, sum[0]);
+        assertEquals(10, loads.get());
+        assertFalse(instance.tryAdvance(r -> fail()));
+    }
+
+    /**
+     * Test of trySplit method, of class Data_RecordSpliterator.
+     */
+    @Test
+    public void testTrySplit() {
+        System.out.println("trySplit");
+        AtomicInteger loads = new AtomicInteger();
+        Data_RecordSpliterator instance = new Data_RecordSpliterator(
+                getCIDs(100), cID -> {
+                    loads.incrementAndGet();
+                    return getCollection(cID);
+                });
+        long result = StreamSupport.stream(instance, true).count();
+        assertEquals(4950L, result);
+        assertEquals(100, loads.get());
+        // Test 2
+        instance = new Data_RecordSpliterator(getCIDs(3), null);
+        assertNotNull(instance.trySplit());
+        assertNotNull(instance.trySplit());
+        assertNull(instance.trySplit());
+        // Test 3
+        Data_RecordSpliterator instance2 = new Data_RecordSpliterator(
+                getCIDs(1), cID -> {
+                    throw new IOException("x");
+                });
+        assertThrows(UncheckedIOException.class,
+                () -> instance2.tryAdvance(r -> {
+                }));
+    }
+
+    /**
+     * Test of estimateSize method, of class Data_RecordSpliterator.
+     */
+    @Test
+    public void testEstimateSize() {
+        System.out.println("estimateSize");
+        int[] counts = new int[10];
+        for (int i = 0; i < 10; i++) {
+            counts[i] = i;
+        }
+        Data_RecordSpliterator instance = new Data_RecordSpliterator(
+                getCIDs(10), counts, cID -> getCollection(cID));
+        assertEquals(45L, instance.estimateSize());
+        assertTrue(instance.tryAdvance(r -> {
+        }));
+        assertEquals(44L, instance.estimateSize());
+        Spliterator<Data_Record> prefix = instance.trySplit();
+        assertEquals(44L, instance.estimateSize() + prefix.estimateSize());
+        assertEquals(44L, StreamSupport.stream(prefix, false).count()
+                + StreamSupport.stream(instance, false).count());
+        // Test 2
+        instance = new Data_RecordSpliterator(getCIDs(10), cID
+                -> getCollection(cID));
+        assertEquals(Long.MAX_VALUE, instance.estimateSize());
+    }
+
+    /**
+     * Test that null records are not emitted.
+     */
+    @Test
+    public void testNullRecords() {
+        System.out.println("nullRecords");
+        Data_RecordSpliterator instance = new Data_RecordSpliterator(
+                getCIDs(2), cID -> {
+                    HashMap<Data_RecordID, Data_Record> m = new HashMap<>();
+                    m.put(new Data_RecordID(cID.id), null);
+                    return new Data_Collection(cID, m);
+                });
+        assertFalse(instance.tryAdvance(r -> fail()));
+        // Test 2
+        instance = new Data_RecordSpliterator(getCIDs(2), cID -> {
+            HashMap<Data_RecordID, Data_Record> m = new HashMap<>();
+            m.put(new Data_RecordID(cID.id), null);
+            return new Data_Collection(cID, m);
+        });
+        instance.forEachRemaining(r -> fail());
+    }
+}
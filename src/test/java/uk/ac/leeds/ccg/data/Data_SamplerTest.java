@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.core.Data_Environment;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import uk.ac.leeds.ccg.generic.core.Generic_Environment;
+import uk.ac.leeds.ccg.generic.io.Generic_Defaults;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_SamplerTest {
+
+    public Data_SamplerTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of choose method, of class Data_Sampler.
+     */
+    @Test
+    public void testChoose() {
+        System.out.println("choose");
+        long[] result = Data_Sampler.choose(1000000000L, 1000,
+                new Random(7L));
+        assertEquals(1000, result.length);
+        for (int i = 1; i < result.length; i++) {
+            assertTrue(result[i - 1] < result[i]);
+        }
+        assertTrue(result[0] >= 0L);
+        assertTrue(result[999] < 1000000000L);
+        assertArrayEquals(result, Data_Sampler.choose(1000000000L, 1000,
+                new Random(7L)));
+        // Test 2
+        result = Data_Sampler.choose(10L, 10, new Random(1L));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, result[i]);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> Data_Sampler.choose(10L, 11, new Random()));
+    }
+
+    /**
+     * Test of reservoir method, of class Data_Sampler.
+     */
+    @Test
+    public void testReservoir() {
+        System.out.println("reservoir");
+        List<Integer> l = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            l.add(i);
+        }
+        List<Integer> result = Data_Sampler.reservoir(l.iterator(), 100,
+                new Random(3L));
+        assertEquals(100, result.size());
+        assertEquals(100, new HashSet<>(result).size());
+        assertEquals(result, Data_Sampler.reservoir(l.iterator(), 100,
+                new Random(3L)));
+        // Test 2
+        result = Data_Sampler.reservoir(l.subList(0, 5).iterator(), 100,
+                new Random(3L));
+        assertEquals(l.subList(0, 5), result);
+    }
+
+    /**
+     * Test of sampleStream method, of class Data_Sampler. The records of the
+     * same collection are held in maps that iterate in different orders, but
+     * the samples are the same.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testSampleStream() throws Exception {
+        System.out.println("sampleStream");
+        Path dir = Files.createTempDirectory("Data_SamplerTest");
+        try {
+            List<List<Long>> results = new ArrayList<>();
+            for (int capacity : new int[]{16, 4096}) {
+                Data_Environment de = new Data_Environment(
+                        new Generic_Environment(new Generic_Defaults(dir)));
+                Files.createDirectories(de.files.getGeneratedDir());
+                Data_DataTest.Data d = new Data_DataTest.Data(de, false);
+                de.data = d;
+                Data_DataTest.Store store = new Data_DataTest.Store();
+                store.latch.countDown();
+                d.setCollectionStore(store);
+                for (int i = 0; i < 3; i++) {
+                    Data_CollectionID cID = new Data_CollectionID(i);
+                    HashMap<Data_RecordID, Data_Record> m
+                            = new HashMap<>(capacity);
+                    for (long j = 99; j >= 0; j--) {
+                        long id = (i * 100 + j) * 1000003L;
+                        m.put(new Data_RecordID(id), new Data_DataTest.Record(
+                                id));
+                    }
+                    store.m.put(cID, new Data_Collection(cID, m));
+                    d.getCollectionIDs().add(cID);
+                }
+                List<Long> ids = new ArrayList<>();
+                for (Data_Record r : new Data_Sampler(d, 11L).sampleStream(
+                        10)) {
+                    ids.add(r.id.id);
+                }
+                assertEquals(10, ids.size());
+                results.add(ids);
+            }
+            assertEquals(results.get(0), results.get(1));
+        } finally {
+            try (Stream<Path> s = Files.walk(dir)) {
+                s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile()
+                        .delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_ID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_SortedCollectionTest {
+
+    public Data_SortedCollectionTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * A record.
+     */
+    public static class Record extends Data_Record {
+
+        private static final long serialVersionUID = 1L;
+
+        public Record(long id) {
+            super(new Data_RecordID(id));
+        }
+
+        @Override
+        public Data_ID getId() {
+            return id;
+        }
+    }
+
+    /**
+     * Test of putRecord, getRecord and removeRecord methods, of class
+     * Data_SortedCollection.
+     */
+    @Test
+    public void testPutRecord() {
+        System.out.println("putRecord");
+        Data_SortedCollection instance = new Data_SortedCollection(
+                new Data_CollectionID(0), 2);
+        for (long l = 0; l < 100; l++) {
+            assertNull(instance.putRecord(new Record((l * 37L) % 100L)));
+        }
+        assertEquals(100, instance.getN());
+        long last = -1L;
+        for (Data_Record r : instance) {
+            assertTrue(r.id.id > last);
+            last = r.id.id;
+        }
+        assertEquals(0L, instance.getMinId());
+        assertEquals(99L, instance.getMaxId());
+        assertEquals(42L, instance.getRecord(new Data_RecordID(42L)).id.id);
+        Record r = new Record(42L);
+        assertNotNull(instance.putRecord(r));
+        assertSame(r, instance.getRecord(new Data_RecordID(42L)));
+        // Test 2
+        instance.markClean();
+        assertSame(r, instance.removeRecord(new Data_RecordID(42L)));
+        assertTrue(instance.isDirty());
+        assertNull(instance.removeRecord(new Data_RecordID(42L)));
+        assertNull(instance.getRecord(new Data_RecordID(42L)));
+        assertEquals(99, instance.getN());
+        assertEquals(42, instance.lowerBound(42L));
+        assertEquals(43L, instance.getId(42));
+    }
+
+    /**
+     * Test of forEach method, of class Data_SortedCollection.
+     *
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    @Test
+    public void testForEach() throws IOException, ClassNotFoundException {
+        System.out.println("forEach");
+        Data_Collection c = new Data_Collection(new Data_CollectionID(1));
+        for (long l = 100; l > 0; l -= 2) {
+            c.putRecord(new Record(l));
+        }
+        Data_SortedCollection instance = new Data_SortedCollection(c);
+        List<Long> ids = new ArrayList<>();
+        instance.forEach(11L, 20L, x -> ids.add(x.id.id));
+        assertEquals(List.of(12L, 14L, 16L, 18L, 20L), ids);
+        // Test 2: serialization
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(b)) {
+            oos.writeObject(instance);
+        }
+        Data_SortedCollection result;
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new ByteArrayInputStream(b.toByteArray()))) {
+            result = (Data_SortedCollection) ois.readObject();
+        }
+        assertEquals(50, result.getN());
+        ids.clear();
+        result.forEach(Long.MIN_VALUE, 5L, x -> ids.add(x.id.id));
+        assertEquals(List.of(2L, 4L), ids);
+        result.putRecord(new Record(101L));
+        assertEquals(101L, result.getMaxId());
+        // Test 3: serialization does not change the capacity.
+        instance = new Data_SortedCollection(new Data_CollectionID(2), 64);
+        instance.putRecord(new Record(1L));
+        long size = instance.getSizeEstimate();
+        try (ObjectOutputStream oos = new ObjectOutputStream(
+                new ByteArrayOutputStream())) {
+            oos.writeObject(instance);
+        }
+        assertEquals(size, instance.getSizeEstimate());
+        // Test 4: the data map is not used.
+        Data_SortedCollection instance2 = instance;
+        assertTrue(instance2.data.isEmpty());
+        assertThrows(UnsupportedOperationException.class,
+                () -> instance2.data.put(new Data_RecordID(3L),
+                        new Record(3L)));
+    }
+}
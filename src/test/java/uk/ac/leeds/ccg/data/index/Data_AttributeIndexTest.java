@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.Data_Record;
+import uk.ac.leeds.ccg.data.id.Data_ID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_AttributeIndexTest {
+
+    public Data_AttributeIndexTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * A record with an age attribute.
+     */
+    public static class Record extends Data_Record {
+
+        private static final long serialVersionUID = 1L;
+
+        public final Integer age;
+
+        public Record(long id, Integer age) {
+            super(new Data_RecordID(id));
+            this.age = age;
+        }
+
+        @Override
+        public Data_ID getId() {
+            return id;
+        }
+    }
+
+    private static long[] sorted(long[] a) {
+        Arrays.sort(a);
+        return a;
+    }
+
+    /**
+     * Test of add, remove and get methods, of class Data_HashIndex.
+     */
+    @Test
+    public void testAddRemoveGet() {
+        System.out.println("addRemoveGet");
+        Data_HashIndex<Integer> instance = new Data_HashIndex<>("age",
+                r -> ((Record) r).age);
+        for (long l = 0; l < 100; l++) {
+            instance.add(new Record(l, l % 10 == 9 ? null : (int) (l % 10)));
+        }
+        assertEquals(9, instance.size());
+        assertArrayEquals(new long[]{3L, 13L, 23L, 33L, 43L, 53L, 63L, 73L,
+            83L, 93L}, sorted(instance.get(3)));
+        assertEquals(0, instance.get(9).length);
+        // Test 2
+        assertTrue(instance.remove(new Record(13L, 3)));
+        assertFalse(instance.remove(new Record(13L, 3)));
+        assertEquals(9, instance.get(3).length);
+        assertTrue(instance.matches(new Record(3L, 3), 3));
+        assertFalse(instance.matches(new Record(3L, null), 3));
+        // Test 3: adding again does not duplicate and out of order adds keep
+        // the IDs sorted.
+        instance.add(new Record(23L, 3));
+        instance.add(new Record(13L, 3));
+        instance.add(new Record(-1L, 3));
+        assertArrayEquals(new long[]{-1L, 3L, 13L, 23L, 33L, 43L, 53L, 63L,
+            73L, 83L, 93L}, instance.get(3));
+        assertTrue(instance.remove(new Record(53L, 3)));
+        assertArrayEquals(new long[]{-1L, 3L, 13L, 23L, 33L, 43L, 63L, 73L,
+            83L, 93L}, instance.get(3));
+    }
+
+    /**
+     * Test of getRange method, of class Data_SortedIndex.
+     */
+    @Test
+    public void testGetRange() {
+        System.out.println("getRange");
+        Data_SortedIndex<Integer> instance = new Data_SortedIndex<>("age",
+                r -> ((Record) r).age);
+        for (long l = 0; l < 100; l++) {
+            instance.add(new Record(l, (int) (l / 10)));
+        }
+        long[] r = instance.getRange(2, 3);
+        assertEquals(20, r.length);
+        assertEquals(20L, sorted(r)[0]);
+        assertEquals(39L, r[19]);
+        assertEquals(0, instance.getRange(10, 20).length);
+        assertTrue(instance.inRange(new Record(0L, 3), 2, 3));
+        assertFalse(instance.inRange(new Record(0L, 4), 2, 3));
+    }
+
+    /**
+     * Test of cache and load methods, of class Data_AttributeIndex.
+     *
+     * @throws java.io.IOException If encountered.
+     * @throws java.lang.ClassNotFoundException If encountered.
+     */
+    @Test
+    public void testCacheLoad() throws IOException, ClassNotFoundException {
+        System.out.println("cacheLoad");
+        Data_SortedIndex<Integer> instance = new Data_SortedIndex<>("age",
+                r -> ((Record) r).age);
+        for (long l = 0; l < 1000; l++) {
+            instance.add(new Record(l, (int) (l % 7)));
+        }
+        Path f = Files.createTempFile("Data_AttributeIndexTest", ".dat");
+        try {
+            instance.cache(f);
+            Data_SortedIndex<Integer> result = new Data_SortedIndex<>("age",
+                    r -> ((Record) r).age);
+            result.add(new Record(5000L, 1));
+            result.load(f);
+            assertEquals(7, result.size());
+            for (int i = 0; i < 7; i++) {
+                assertArrayEquals(sorted(instance.get(i)),
+                        sorted(result.get(i)));
+            }
+            // Test 2
+            Data_HashIndex<Integer> other = new Data_HashIndex<>("other",
+                    r -> ((Record) r).age);
+            assertThrows(IOException.class, () -> other.load(f));
+        } finally {
+            Files.delete(f);
+        }
+    }
+}
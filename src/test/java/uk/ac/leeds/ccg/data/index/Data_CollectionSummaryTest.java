@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_Record;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_ID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_CollectionSummaryTest {
+
+    public Data_CollectionSummaryTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of mightContain method, of class Data_BloomFilter.
+     */
+    @Test
+    public void testBloomFilter() {
+        System.out.println("bloomFilter");
+        Data_BloomFilter instance = new Data_BloomFilter(10000L, 0.01d);
+        for (long l = 0; l < 20000L; l += 2L) {
+            instance.add(l);
+        }
+        for (long l = 0; l < 20000L; l += 2L) {
+            assertTrue(instance.mightContain(l));
+        }
+        int fp = 0;
+        for (long l = 1; l < 20000L; l += 2L) {
+            if (instance.mightContain(l)) {
+                fp++;
+            }
+        }
+        assertTrue(fp < 200, "false positives " + fp);
+        assertEquals(7, instance.getHashCount());
+        // Test 2
+        assertThrows(IllegalArgumentException.class,
+                () -> new Data_BloomFilter(10L, 1d));
+    }
+
+    /**
+     * Test of build method, of class Data_CollectionSummary.
+     */
+    @Test
+    public void testBuild() {
+        System.out.println("build");
+        Data_Collection c = new Data_Collection(new Data_CollectionID(0));
+        for (long l = 100L; l < 200L; l += 3L) {
+            c.putRecord(new Data_Record(new Data_RecordID(l)) {
+                @Override
+                public Data_ID getId() {
+                    return id;
+                }
+            });
+        }
+        Data_CollectionSummary instance = Data_CollectionSummary.build(c,
+                0.001d);
+        assertEquals(100L, instance.min);
+        assertEquals(199L, instance.max);
+        assertEquals(34, instance.n);
+        assertTrue(instance.mightContain(103L));
+        assertFalse(instance.mightContain(99L));
+        assertFalse(instance.mightContain(200L));
+        assertTrue(instance.overlaps(0L, 100L));
+        assertFalse(instance.overlaps(200L, 300L));
+        // Test 2
+        Data_CollectionSummary r = Data_CollectionSummary.build(c, 1d);
+        assertNull(r.filter);
+        assertTrue(r.mightContain(101L));
+        r = Data_CollectionSummary.build(
+                new Data_Collection(new Data_CollectionID(1)), 0.01d);
+        assertFalse(r.mightContain(0L));
+        assertFalse(r.overlaps(Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+}
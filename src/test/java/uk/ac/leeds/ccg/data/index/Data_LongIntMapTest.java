@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_LongIntMapTest {
+
+    public Data_LongIntMapTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of put and get methods, of class Data_LongIntMap.
+     */
+    @Test
+    public void testPutGet() {
+        System.out.println("putGet");
+        Data_LongIntMap instance = new Data_LongIntMap();
+        assertEquals(Data_LongIntMap.NO_VALUE, instance.get(0L));
+        assertEquals(Data_LongIntMap.NO_VALUE, instance.put(0L, 7));
+        assertEquals(7, instance.get(0L));
+        for (long l = 1; l < 10000; l++) {
+            instance.put(l, (int) (l / 100));
+        }
+        assertEquals(10000, instance.size());
+        for (long l = 1; l < 10000; l++) {
+            assertEquals((int) (l / 100), instance.get(l));
+        }
+        assertEquals(Data_LongIntMap.NO_VALUE, instance.get(10000L));
+        assertEquals(Data_LongIntMap.NO_VALUE, instance.get(-1L));
+        // Test 2
+        assertEquals(99, instance.put(9999L, 3));
+        assertEquals(3, instance.get(9999L));
+        assertEquals(10000, instance.size());
+    }
+
+    /**
+     * Test of remove method, of class Data_LongIntMap.
+     */
+    @Test
+    public void testRemove() {
+        System.out.println("remove");
+        Data_LongIntMap instance = new Data_LongIntMap(4);
+        for (long l = 0; l < 1000; l++) {
+            instance.put(l * 1024L, (int) l);
+        }
+        for (long l = 0; l < 1000; l += 2) {
+            assertEquals((int) l, instance.remove(l * 1024L));
+        }
+        assertEquals(500, instance.size());
+        for (long l = 0; l < 1000; l++) {
+            if (l % 2 == 0) {
+                assertFalse(instance.containsKey(l * 1024L));
+            } else {
+                assertEquals((int) l, instance.get(l * 1024L));
+            }
+        }
+        assertEquals(Data_LongIntMap.NO_VALUE, instance.remove(0L));
+    }
+
+    /**
+     * Test of cache and load methods, of class Data_LongIntMap.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    @Test
+    public void testCacheLoad() throws IOException {
+        System.out.println("cacheLoad");
+        Data_LongIntMap instance = new Data_LongIntMap();
+        for (long l = 0; l < 1000; l++) {
+            instance.put(l, (int) (l % 10));
+        }
+        Path f = Files.createTempFile("Data_LongIntMapTest", ".dat");
+        try {
+            instance.cache(f);
+            Data_LongIntMap result = new Data_LongIntMap();
+            result.put(5000L, 1);
+            result.load(f);
+            assertEquals(instance.size(), result.size());
+            assertFalse(result.containsKey(5000L));
+            for (long l = 0; l < 1000; l++) {
+                assertEquals((int) (l % 10), result.get(l));
+            }
+        } finally {
+            Files.delete(f);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.index;
+
+import java.util.TreeMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_PartitionerTest {
+
+    public Data_PartitionerTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getCollectionId method, of class Data_BlockPartitioner.
+     */
+    @Test
+    public void testBlockGetCollectionId() {
+        System.out.println("blockGetCollectionId");
+        Data_BlockPartitioner instance = new Data_BlockPartitioner(10L, 100L,
+                1, 250L);
+        assertEquals(1, instance.getCollectionId(10L));
+        assertEquals(1, instance.getCollectionId(109L));
+        assertEquals(2, instance.getCollectionId(110L));
+        assertEquals(3, instance.getCollectionId(259L));
+        assertEquals(Data_LongIntMap.NO_VALUE, instance.getCollectionId(9L));
+        assertEquals(Data_LongIntMap.NO_VALUE, instance.getCollectionId(260L));
+        // Test 2
+        instance.put(260L, 3);
+        assertEquals(3, instance.getCollectionId(260L));
+        assertThrows(IllegalArgumentException.class,
+                () -> instance.put(261L, 4));
+        assertEquals(0, instance.compute(-1L));
+    }
+
+    /**
+     * Test of getRecordCounts method, of classes Data_BlockPartitioner and
+     * Data_MapPartitioner.
+     */
+    @Test
+    public void testGetRecordCounts() {
+        System.out.println("getRecordCounts");
+        Data_BlockPartitioner instance = new Data_BlockPartitioner(0L, 4L, 0);
+        assertTrue(instance.getRecordCounts().isEmpty());
+        Data_MapPartitioner map = new Data_MapPartitioner();
+        for (long l = 2L; l < 13L; l++) {
+            instance.put(l, (int) (l / 4L));
+            map.put(l, (int) (l / 4L));
+        }
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        expected.put(0, 2);
+        expected.put(1, 4);
+        expected.put(2, 4);
+        expected.put(3, 1);
+        assertEquals(expected, instance.getRecordCounts());
+        assertEquals(expected, map.getRecordCounts());
+        // Test 2
+        for (long l = 2L; l < 13L; l++) {
+            assertEquals(map.getCollectionId(l), instance.getCollectionId(l));
+        }
+        assertTrue(instance.getSizeEstimate() < map.getSizeEstimate());
+    }
+
+    /**
+     * Test of getRecordIdRanges and getN methods, of classes
+     * Data_BlockPartitioner and Data_MapPartitioner.
+     */
+    @Test
+    public void testGetRecordIdRanges() {
+        System.out.println("getRecordIdRanges");
+        Data_BlockPartitioner instance = new Data_BlockPartitioner(0L, 4L, 0);
+        assertTrue(instance.getRecordIdRanges().isEmpty());
+        assertEquals(0L, instance.getN());
+        Data_MapPartitioner map = new Data_MapPartitioner();
+        for (long l = 2L; l < 13L; l++) {
+            instance.put(l, (int) (l / 4L));
+            map.put(l, (int) (l / 4L));
+        }
+        assertEquals(11L, instance.getN());
+        assertEquals(11L, map.getN());
+        TreeMap<Integer, long[]> r = instance.getRecordIdRanges();
+        TreeMap<Integer, long[]> r2 = map.getRecordIdRanges();
+        assertEquals(4, r.size());
+        assertArrayEquals(new long[]{2L, 3L}, r.get(0));
+        assertArrayEquals(new long[]{4L, 7L}, r.get(1));
+        assertArrayEquals(new long[]{12L, 12L}, r.get(3));
+        for (int c : r.keySet()) {
+            assertArrayEquals(r.get(c), r2.get(c));
+        }
+        // Test 2: the last collection ID is Integer.MAX_VALUE.
+        instance = new Data_BlockPartitioner(0L, 2L, Integer.MAX_VALUE - 1,
+                4L);
+        r = instance.getRecordIdRanges();
+        assertEquals(2, r.size());
+        assertArrayEquals(new long[]{0L, 1L}, r.get(Integer.MAX_VALUE - 1));
+        assertArrayEquals(new long[]{2L, 3L}, r.get(Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_CompressedCollectionStoreTest {
+
+    Path dir;
+    Data_Files files;
+
+    public Data_CompressedCollectionStoreTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("Data_CompressedCollectionStoreTest");
+        files = new Data_Files(dir);
+        Files.createDirectories(files.getGeneratedDir());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static Data_Collection getCollection(Data_CollectionID cID,
+            int n) {
+        Data_Collection r = new Data_Collection(cID);
+        for (int i = 0; i < n; i++) {
+            Data_RecordID rID = new Data_RecordID(i);
+            r.data.put(rID, new Data_MappedCollectionStoreTest.Record(rID, 7));
+        }
+        return r;
+    }
+
+    /**
+     * Test of write and read methods, of class Data_CompressedCollectionStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        System.out.println("writeRead");
+        Data_CompressedCollectionStore instance
+                = new Data_CompressedCollectionStore(files,
+                        Data_Compression.deflate(9), null);
+        Data_CollectionID cID = new Data_CollectionID(1);
+        instance.write(cID, getCollection(cID, 1000));
+        assertTrue(instance.getStats().getCompressionRatio() < 0.5d);
+        // Files written with one codec are read whatever the current codec.
+        instance.setCompression(Data_Compression.NONE);
+        Data_Collection result = instance.read(cID);
+        assertEquals(1000, result.getN());
+        assertEquals(1L, instance.getStats().nRead.sum());
+        // Test 2
+        Data_CompressedCollectionStore instance2
+                = new Data_CompressedCollectionStore(files,
+                        Data_Compression.FAST,
+                        new Data_MappedCollectionStoreTest.Codec());
+        cID = new Data_CollectionID(2);
+        instance2.write(cID, getCollection(cID, 100));
+        result = instance2.read(cID);
+        assertEquals(100, result.getN());
+        assertEquals(7, ((Data_MappedCollectionStoreTest.Record)
+                result.data.get(new Data_RecordID(99))).x);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_ColumnarCollection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_LogStructuredStoreTest {
+
+    private Path dir;
+
+    public Data_LogStructuredStoreTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("Data_LogStructuredStoreTest");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile()
+                    .delete());
+        }
+    }
+
+    private static Data_Collection getCollection(int cid, int n) {
+        Data_CollectionID cID = new Data_CollectionID(cid);
+        Data_Collection r = new Data_Collection(cID);
+        for (int i = 0; i < n; i++) {
+            Data_RecordID rID = new Data_RecordID(i);
+            r.data.put(rID, new Data_MappedCollectionStoreTest.Record(rID,
+                    i + cid));
+        }
+        return r;
+    }
+
+    private static Data_MappedCollectionStoreTest.Record getRecord(long id,
+            int x) {
+        return new Data_MappedCollectionStoreTest.Record(new Data_RecordID(id),
+                x);
+    }
+
+    private static int getX(Data_Collection c, long id) {
+        return ((Data_MappedCollectionStoreTest.Record) c.getRecord(
+                new Data_RecordID(id))).x;
+    }
+
+    private Data_PackedCollectionStore getBase() throws IOException {
+        return new Data_PackedCollectionStore(dir.resolve("base"), null,
+                new Data_MappedCollectionStoreTest.Codec(), 1 << 20);
+    }
+
+    /**
+     * Test of append, delete and read methods, of class
+     * Data_LogStructuredStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testAppendRead() throws Exception {
+        System.out.println("appendRead");
+        Data_PackedCollectionStore base = getBase();
+        Data_CollectionID cID = new Data_CollectionID(0);
+        base.write(cID, getCollection(0, 100));
+        Data_LogStructuredStore instance = new Data_LogStructuredStore(
+                dir.resolve("log"), base,
+                new Data_MappedCollectionStoreTest.Codec(), 4096);
+        instance.append(cID, getRecord(100L, -1));
+        instance.append(cID, getRecord(7L, -7));
+        instance.delete(cID, new Data_RecordID(5L));
+        Data_Collection result = instance.read(cID);
+        assertEquals(100, result.getN());
+        assertEquals(-1, getX(result, 100L));
+        assertEquals(-7, getX(result, 7L));
+        assertNull(result.getRecord(new Data_RecordID(5L)));
+        assertEquals(100, base.read(cID).getN());
+        assertEquals(7, getX(base.read(cID), 7L));
+        // A collection only in the log.
+        Data_CollectionID cID1 = new Data_CollectionID(1);
+        assertFalse(instance.contains(cID1));
+        assertThrows(NoSuchFileException.class, () -> instance.read(cID1));
+        instance.append(cID1, getRecord(3L, 3));
+        assertTrue(instance.contains(cID1));
+        assertEquals(1, instance.read(cID1).getN());
+        // A snapshot replaces earlier entries.
+        instance.write(cID1, getCollection(1, 10));
+        instance.delete(cID1, new Data_RecordID(0L));
+        assertEquals(9, instance.read(cID1).getN());
+        assertEquals(2, instance.getPendingCount());
+        // Test 2: reopen with a partial entry at the end.
+        instance.close();
+        Path last;
+        try (Stream<Path> s = Files.list(dir.resolve("log"))) {
+            last = s.max(Comparator.comparing(p -> Integer.parseInt(
+                    p.getFileName().toString().replaceAll("\\D", ""))))
+                    .get();
+        }
+        try (FileChannel fc = FileChannel.open(last,
+                StandardOpenOption.APPEND)) {
+            fc.write(java.nio.ByteBuffer.wrap(new byte[]{1, 0, 0, 0, 0, 0}));
+        }
+        Data_LogStructuredStore instance2 = new Data_LogStructuredStore(
+                dir.resolve("log"), base,
+                new Data_MappedCollectionStoreTest.Codec(), 4096);
+        result = instance2.read(cID);
+        assertEquals(100, result.getN());
+        assertEquals(-7, getX(result, 7L));
+        assertEquals(9, instance2.read(cID1).getN());
+        // Test 3: reopen with a corrupt entry at the end.
+        instance2.append(cID1, getRecord(50L, 50));
+        instance2.append(cID1, getRecord(51L, 51));
+        assertEquals(11, instance2.read(cID1).getN());
+        instance2.close();
+        try (FileChannel fc = FileChannel.open(last, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            java.nio.ByteBuffer b = java.nio.ByteBuffer.allocate(1);
+            fc.read(b, fc.size() - 1);
+            b.put(0, (byte) ~b.get(0));
+            fc.write(b.flip(), fc.size() - 1);
+        }
+        Data_LogStructuredStore instance3 = new Data_LogStructuredStore(
+                dir.resolve("log"), base,
+                new Data_MappedCollectionStoreTest.Codec(), 4096);
+        result = instance3.read(cID1);
+        assertEquals(10, result.getN());
+        assertEquals(50, getX(result, 50L));
+        assertNull(result.getRecord(new Data_RecordID(51L)));
+        instance3.close();
+        base.close();
+    }
+
+    /**
+     * Test of read method, of class Data_LogStructuredStore, for changes to a
+     * columnar collection.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testReadColumnar() throws Exception {
+        System.out.println("readColumnar");
+        Data_PackedCollectionStore base = getBase();
+        Data_LogStructuredStore instance = new Data_LogStructuredStore(
+                dir.resolve("log"), base, null, 4096);
+        Data_CollectionID cID = new Data_CollectionID(0);
+        Data_ColumnarCollection c = new Data_ColumnarCollection(cID,
+                new String[]{"name", "age"}, new int[]{
+                    Data_ColumnarCollection.STRING,
+                    Data_ColumnarCollection.INT});
+        for (int i = 0; i < 3; i++) {
+            c.addRow(new Data_RecordID(i), new String[]{"n" + i, "" + i});
+        }
+        // Only in the log.
+        for (int i = 0; i < 3; i++) {
+            instance.append(cID, c.getRecord(new Data_RecordID(i)));
+        }
+        // The size of an entry does not depend on the size of the collection.
+        Data_ColumnarCollection big = c.emptyCopy(cID);
+        for (int i = 0; i < 1000; i++) {
+            big.addRow(new Data_RecordID(i), new String[]{"n" + i, "" + i});
+        }
+        Data_CollectionID cID1 = new Data_CollectionID(1);
+        long size = instance.getLogSize();
+        instance.append(cID1, c.getRecord(new Data_RecordID(2L)));
+        long size1 = instance.getLogSize() - size;
+        instance.append(cID1, big.getRecord(new Data_RecordID(2L)));
+        assertEquals(size1, instance.getLogSize() - size - size1);
+        instance.delete(cID, new Data_RecordID(1L));
+        Data_Collection result = instance.read(cID);
+        assertTrue(result instanceof Data_ColumnarCollection);
+        assertEquals(2, result.getN());
+        Data_ColumnarCollection cr = (Data_ColumnarCollection) result;
+        assertEquals("n2", cr.getString(cr.getRow(2L), 0));
+        assertEquals(0, cr.getInt(cr.getRow(0L), 1));
+        assertEquals(-1, cr.getRow(1L));
+        // Test 2: replayed on a snapshot.
+        instance.write(cID, c);
+        c.set(c.getRow(0L), 1, "10");
+        instance.append(cID, c.getRecord(new Data_RecordID(0L)));
+        instance.delete(cID, new Data_RecordID(2L));
+        cr = (Data_ColumnarCollection) instance.read(cID);
+        assertEquals(2, cr.getN());
+        assertEquals(10, cr.getInt(cr.getRow(0L), 1));
+        assertEquals("n1", cr.getString(cr.getRow(1L), 0));
+        instance.close();
+        base.close();
+    }
+
+    /**
+     * Test of compact method, of class Data_LogStructuredStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testCompact() throws Exception {
+        System.out.println("compact");
+        Data_PackedCollectionStore base = getBase();
+        Data_LogStructuredStore instance = new Data_LogStructuredStore(
+                dir.resolve("log"), base, null, 4096);
+        for (int i = 0; i < 10; i++) {
+            instance.write(new Data_CollectionID(i), getCollection(i, 20));
+        }
+        for (int j = 0; j < 50; j++) {
+            instance.append(new Data_CollectionID(j % 10), getRecord(20 + j,
+                    j));
+        }
+        assertTrue(instance.getSegmentCount() > 1);
+        long size = instance.getLogSize();
+        assertEquals(10, instance.compact());
+        assertEquals(0, instance.getPendingCount());
+        assertEquals(1, instance.getSegmentCount());
+        assertTrue(instance.getLogSize() < size / 10);
+        Data_Collection result = base.read(new Data_CollectionID(3));
+        assertEquals(25, result.getN());
+        assertEquals(43, getX(result, 63L));
+        assertEquals(0, instance.compact());
+        // Test 2: changes after compacting are still replayed after reopening
+        // and merged ones are not.
+        instance.delete(new Data_CollectionID(3), new Data_RecordID(63L));
+        instance.close();
+        Data_LogStructuredStore instance2 = new Data_LogStructuredStore(
+                dir.resolve("log"), base, null, 4096);
+        assertEquals(1, instance2.getPendingCount());
+        assertEquals(24, instance2.read(new Data_CollectionID(3)).getN());
+        assertEquals(25, instance2.read(new Data_CollectionID(4)).getN());
+        instance2.close();
+        base.close();
+    }
+
+    /**
+     * Test of startCompaction method, of class Data_LogStructuredStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testStartCompaction() throws Exception {
+        System.out.println("startCompaction");
+        Data_PackedCollectionStore base = getBase();
+        Data_LogStructuredStore instance = new Data_LogStructuredStore(
+                dir.resolve("log"), base, null, 4096);
+        instance.startCompaction(10L, TimeUnit.MILLISECONDS, 1L);
+        Data_CollectionID cID = new Data_CollectionID(0);
+        for (int i = 0; i < 100; i++) {
+            instance.append(cID, getRecord(i, i));
+        }
+        long end = System.currentTimeMillis() + 10000L;
+        while (instance.getPendingCount() > 0
+                && System.currentTimeMillis() < end) {
+            Thread.sleep(10L);
+        }
+        instance.close();
+        assertEquals(0, instance.getPendingCount());
+        assertEquals(100, base.read(cID).getN());
+        base.close();
+    }
+}
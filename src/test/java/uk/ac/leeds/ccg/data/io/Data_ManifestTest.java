@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.index.Data_BlockPartitioner;
+import uk.ac.leeds.ccg.data.index.Data_LongIntMap;
+import uk.ac.leeds.ccg.data.index.Data_MapPartitioner;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_ManifestTest {
+
+    public Data_ManifestTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of build method, of class Data_Manifest.
+     */
+    @Test
+    public void testBuild() {
+        System.out.println("build");
+        Data_LongIntMap index = new Data_LongIntMap();
+        for (long l = 0; l < 1000; l++) {
+            index.put(l, (int) (l / 100));
+        }
+        List<Data_CollectionID> cIDs = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            cIDs.add(new Data_CollectionID(i));
+        }
+        Data_Manifest result = Data_Manifest.build(cIDs,
+                new Data_MapPartitioner(index));
+        assertEquals(11, result.getEntries().size());
+        assertEquals(1000L, result.getN());
+        Data_Manifest.Entry e = result.get(new Data_CollectionID(3));
+        assertEquals(300L, e.min);
+        assertEquals(399L, e.max);
+        assertEquals(100, e.n);
+        assertTrue(e.inRange(350L));
+        assertFalse(e.inRange(400L));
+        // Test 2
+        e = result.get(new Data_CollectionID(10));
+        assertEquals(0, e.n);
+        assertFalse(e.inRange(0L));
+    }
+
+    /**
+     * Test of write and read methods, of class Data_Manifest.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    @Test
+    public void testWriteRead() throws IOException {
+        System.out.println("writeRead");
+        Data_LongIntMap index = new Data_LongIntMap();
+        for (long l = 0; l < 1000; l++) {
+            index.put(l * 3L, (int) (l % 7));
+        }
+        Data_Manifest instance = Data_Manifest.build(new ArrayList<>(),
+                new Data_MapPartitioner(index));
+        Path dir = Files.createTempDirectory("Data_ManifestTest");
+        Path f = dir.resolve("manifest.dat");
+        try {
+            instance.write(f, instance.getPartitioner());
+            Data_LongIntMap index2 = new Data_LongIntMap();
+            index2.put(-1L, 1);
+            Data_Manifest result = Data_Manifest.read(f, index2);
+            assertEquals(7, result.getEntries().size());
+            for (Data_Manifest.Entry e : instance.getEntries().values()) {
+                Data_Manifest.Entry e2 = result.get(e.cID);
+                assertEquals(e.min, e2.min);
+                assertEquals(e.max, e2.max);
+                assertEquals(e.n, e2.n);
+            }
+            assertEquals(1000, index2.size());
+            assertFalse(index2.containsKey(-1L));
+            assertEquals(5, index2.get(12L * 3L));
+            assertSame(index2, ((Data_MapPartitioner) result.getPartitioner())
+                    .map);
+            // Test 2
+            Data_BlockPartitioner p = new Data_BlockPartitioner(0L, 100L, 0,
+                    250L);
+            instance = Data_Manifest.build(new ArrayList<>(), p);
+            assertEquals(3, instance.getEntries().size());
+            assertEquals(50, instance.get(new Data_CollectionID(2)).n);
+            assertEquals(249L, instance.get(new Data_CollectionID(2)).max);
+            instance.write(f, p);
+            result = Data_Manifest.read(f, new Data_LongIntMap());
+            Data_BlockPartitioner p2
+                    = (Data_BlockPartitioner) result.getPartitioner();
+            assertEquals(250L, p2.getN());
+            assertEquals(2, p2.getCollectionId(249L));
+            assertEquals(250L, result.getN());
+        } finally {
+            Files.deleteIfExists(f);
+            Files.delete(dir);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_Record;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_ID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import uk.ac.leeds.ccg.generic.io.Generic_IO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_MappedCollectionStoreTest {
+
+    Path dir;
+    Data_Files files;
+
+    public Data_MappedCollectionStoreTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("Data_MappedCollectionStoreTest");
+        files = new Data_Files(dir);
+        Files.createDirectories(files.getGeneratedDir());
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    /**
+     * A record with a single int field.
+     */
+    public static class Record extends Data_Record {
+
+        private static final long serialVersionUID = 1L;
+
+        public final int x;
+
+        public Record(Data_RecordID id, int x) {
+            super(id);
+            this.x = x;
+        }
+
+        @Override
+        public Data_ID getId() {
+            return id;
+        }
+    }
+
+    /**
+     * A codec for {@link Record}.
+     */
+    public static class Codec extends Data_RecordCollectionCodec {
+
+        @Override
+        public void writeRecord(Data_Record r, DataOutput out)
+                throws IOException {
+            out.writeLong(r.id.id);
+            out.writeInt(((Record) r).x);
+        }
+
+        @Override
+        public Data_Record readRecord(ByteBuffer in) throws IOException {
+            return new Record(new Data_RecordID(in.getLong()), in.getInt());
+        }
+    }
+
+    private static Data_Collection getCollection(Data_CollectionID cID,
+            int n) {
+        Data_Collection r = new Data_Collection(cID);
+        for (int i = 0; i < n; i++) {
+            Data_RecordID rID = new Data_RecordID(i);
+            r.data.put(rID, new Record(rID, i * 2));
+        }
+        return r;
+    }
+
+    /**
+     * Test of write and read methods, of class Data_MappedCollectionStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        System.out.println("writeRead");
+        Data_MappedCollectionStore instance = new Data_MappedCollectionStore(
+                files, new Codec());
+        Data_CollectionID cID = new Data_CollectionID(3);
+        assertFalse(instance.contains(cID));
+        instance.write(cID, getCollection(cID, 100));
+        assertTrue(instance.contains(cID));
+        Data_Collection result = instance.read(cID);
+        assertEquals(cID, result.ID);
+        assertEquals(100, result.getN());
+        for (int i = 0; i < 100; i++) {
+            Record r = (Record) result.data.get(new Data_RecordID(i));
+            assertEquals(i * 2, r.x);
+        }
+        // Test 2: rewriting replaces the file and an empty payload is
+        // written with its header.
+        instance.write(cID, getCollection(cID, 10));
+        assertEquals(10, instance.read(cID).getN());
+        assertFalse(Files.exists(instance.getFile(cID).resolveSibling(
+                instance.getFile(cID).getFileName() + ".tmp")));
+        Data_MappedCollectionStore instance2 = new Data_MappedCollectionStore(
+                files, new Data_CollectionCodec() {
+            @Override
+            public void encode(Data_Collection c, DataOutput out) {
+            }
+
+            @Override
+            public Data_Collection decode(Data_CollectionID cID,
+                    ByteBuffer in) {
+                return new Data_Collection(cID);
+            }
+        });
+        Data_CollectionID cID2 = new Data_CollectionID(5);
+        instance2.write(cID2, new Data_Collection(cID2));
+        assertEquals(0, instance2.read(cID2).getN());
+    }
+
+    /**
+     * Test of read method, of class Data_MappedCollectionStore, for a
+     * collection only stored using Java serialization.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testReadLegacy() throws Exception {
+        System.out.println("readLegacy");
+        Data_MappedCollectionStore instance = new Data_MappedCollectionStore(
+                files, new Codec());
+        Data_CollectionID cID = new Data_CollectionID(4);
+        Generic_IO.writeObject(getCollection(cID, 10),
+                instance.getLegacyFile(cID));
+        assertTrue(instance.contains(cID));
+        Data_Collection result = instance.read(cID);
+        assertEquals(10, result.getN());
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_PackedCollectionStoreTest {
+
+    private Path dir;
+
+    public Data_PackedCollectionStoreTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("Data_PackedCollectionStoreTest");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile()
+                    .delete());
+        }
+    }
+
+    private static Data_Collection getCollection(int cid, int n) {
+        Data_CollectionID cID = new Data_CollectionID(cid);
+        Data_Collection r = new Data_Collection(cID);
+        for (int i = 0; i < n; i++) {
+            Data_RecordID rID = new Data_RecordID(i);
+            r.data.put(rID, new Data_MappedCollectionStoreTest.Record(rID,
+                    i + cid));
+        }
+        return r;
+    }
+
+    private static int getX(Data_Collection c, long id) {
+        return ((Data_MappedCollectionStoreTest.Record) c.getRecord(
+                new Data_RecordID(id))).x;
+    }
+
+    /**
+     * Test of write and read methods, of class Data_PackedCollectionStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        System.out.println("writeRead");
+        Data_PackedCollectionStore instance = new Data_PackedCollectionStore(
+                dir, null, new Data_MappedCollectionStoreTest.Codec(), 4096);
+        for (int i = 0; i < 20; i++) {
+            instance.write(new Data_CollectionID(i), getCollection(i, 100));
+        }
+        assertTrue(instance.getSegmentCount() > 1);
+        Data_Collection result = instance.read(new Data_CollectionID(7));
+        assertEquals(100, result.getN());
+        assertEquals(57, getX(result, 50L));
+        assertFalse(instance.contains(new Data_CollectionID(20)));
+        assertThrows(NoSuchFileException.class,
+                () -> instance.read(new Data_CollectionID(20)));
+        // Test 2: reopen with the index flushed, and then with entries
+        // written after the flush and a partial entry at the end.
+        instance.flush();
+        instance.write(new Data_CollectionID(20), getCollection(20, 10));
+        instance.close();
+        Path last = getLastSegment();
+        try (FileChannel fc = FileChannel.open(last,
+                StandardOpenOption.APPEND)) {
+            fc.write(java.nio.ByteBuffer.wrap(new byte[]{0, 0, 0, 1, 0}));
+        }
+        Data_PackedCollectionStore instance2 = new Data_PackedCollectionStore(
+                dir, null, new Data_MappedCollectionStoreTest.Codec(), 4096);
+        assertEquals(10, instance2.read(new Data_CollectionID(20)).getN());
+        assertEquals(57, getX(instance2.read(new Data_CollectionID(7)), 50L));
+        assertEquals(0L, instance2.getDeadBytes());
+        // Test 3: without the index, an entry with a corrupt byte is
+        // truncated along with the entries after it.
+        instance2.flush();
+        long size = Files.size(last);
+        instance2.write(new Data_CollectionID(21), getCollection(21, 10));
+        instance2.write(new Data_CollectionID(22), getCollection(22, 10));
+        instance2.close();
+        assertEquals(last, getLastSegment());
+        try (FileChannel fc = FileChannel.open(last,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            java.nio.ByteBuffer b = java.nio.ByteBuffer.allocate(1);
+            long pos = size + Data_PackedCollectionStore.ENTRY_HEADER + 1;
+            fc.read(b, pos);
+            b.put(0, (byte) (b.get(0) ^ 1));
+            b.rewind();
+            fc.write(b, pos);
+        }
+        Files.delete(dir.resolve(Data_PackedCollectionStore.INDEX));
+        Data_PackedCollectionStore instance3 = new Data_PackedCollectionStore(
+                dir, null, new Data_MappedCollectionStoreTest.Codec(), 4096);
+        assertFalse(instance3.contains(new Data_CollectionID(21)));
+        assertFalse(instance3.contains(new Data_CollectionID(22)));
+        assertEquals(10, instance3.read(new Data_CollectionID(20)).getN());
+        assertEquals(size, Files.size(last));
+        instance3.close();
+    }
+
+    private Path getLastSegment() throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.getFileName().toString().startsWith(
+                    Data_PackedCollectionStore.SEGMENT)).max(
+                    Comparator.comparing(p -> Integer.parseInt(
+                    p.getFileName().toString().replaceAll("\\D", ""))))
+                    .get();
+        }
+    }
+
+    /**
+     * Test of compact method, of class Data_PackedCollectionStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testCompact() throws Exception {
+        System.out.println("compact");
+        Data_PackedCollectionStore instance = new Data_PackedCollectionStore(
+                dir, null, null, 1 << 20);
+        for (int j = 0; j < 3; j++) {
+            for (int i = 0; i < 10; i++) {
+                instance.write(new Data_CollectionID(i), getCollection(i + j,
+                        50));
+            }
+        }
+        Path segment = dir.resolve(Data_PackedCollectionStore.SEGMENT
+                + "0.dat");
+        Path copy = dir.resolve("copy");
+        Files.copy(segment, copy);
+        long size = instance.getSize();
+        long dead = instance.getDeadBytes();
+        assertTrue(dead > size / 2);
+        assertEquals(0L, instance.compact(0.5d));
+        assertEquals(dead, instance.compact());
+        assertEquals(0L, instance.getDeadBytes());
+        assertEquals(size - dead, instance.getSize());
+        Data_Collection result = instance.read(new Data_CollectionID(3));
+        assertEquals(5, getX(result, 0L));
+        instance.close();
+        // Test 2
+        Data_PackedCollectionStore instance2 = new Data_PackedCollectionStore(
+                dir, null, null, 1 << 20);
+        assertEquals(1, instance2.getSegmentCount());
+        assertEquals(5, getX(instance2.read(new Data_CollectionID(3)), 0L));
+        instance2.write(new Data_CollectionID(3), getCollection(-1, 50));
+        instance2.close();
+        // Test 3: a compacted segment left behind by a crash is deleted.
+        Files.move(copy, segment);
+        Data_PackedCollectionStore instance3 = new Data_PackedCollectionStore(
+                dir, null, null, 1 << 20);
+        assertEquals(1, instance3.getSegmentCount());
+        assertFalse(Files.exists(segment));
+        assertEquals(-1, getX(instance3.read(new Data_CollectionID(3)), 0L));
+        assertEquals(6, getX(instance3.read(new Data_CollectionID(4)), 0L));
+        instance3.close();
+    }
+}
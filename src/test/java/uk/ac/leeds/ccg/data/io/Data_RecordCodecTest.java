@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.Data_Record;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_ID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import uk.ac.leeds.ccg.data.id.Data_Varint;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_RecordCodecTest {
+
+    public Data_RecordCodecTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * A record with primitive fields.
+     */
+    public static class Record extends Data_Record {
+
+        private static final long serialVersionUID = 1L;
+
+        public final int count;
+
+        public final double value;
+
+        public Record(Data_RecordID id, int count, double value) {
+            super(id);
+            this.count = count;
+            this.value = value;
+        }
+
+        @Override
+        public Data_ID getId() {
+            return id;
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeInt(count);
+            out.writeDouble(value);
+        }
+
+        public static Record read(Data_RecordID id, ByteBuffer in) {
+            return new Record(id, in.getInt(), in.getDouble());
+        }
+    }
+
+    private static byte[] encode(Data_RecordCodec codec, Data_Collection c)
+            throws IOException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(b)) {
+            codec.encode(c, dos);
+        }
+        return b.toByteArray();
+    }
+
+    /**
+     * Test of encode and decode methods, of class Data_RecordCodec.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    @Test
+    public void testEncodeDecode() throws IOException {
+        System.out.println("encodeDecode");
+        Data_CollectionID cID = new Data_CollectionID(3);
+        Data_Collection c = new Data_Collection(cID);
+        for (int i = 0; i < 1000; i++) {
+            Data_RecordID rID = new Data_RecordID(i - 10);
+            c.data.put(rID, new Record(rID, i, i / 4d));
+        }
+        Data_RecordCodec instance = new Data_RecordCodec(Record::read);
+        byte[] b = encode(instance, c);
+        Data_Collection result = instance.decode(cID, ByteBuffer.wrap(b));
+        assertEquals(1000, result.getN());
+        Record r = (Record) result.getRecord(new Data_RecordID(-5L));
+        assertEquals(5, r.count);
+        assertEquals(1.25d, r.value);
+        // Test 2: much smaller than Java serialization.
+        ByteArrayOutputStream s = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(s)) {
+            oos.writeObject(c);
+        }
+        assertTrue(b.length * 2 < s.size());
+        // Test 3
+        b[0] = 9;
+        assertThrows(IOException.class,
+                () -> instance.decode(cID, ByteBuffer.wrap(b)));
+    }
+
+    /**
+     * Test of write and read methods of the ID classes and Data_Varint.
+     *
+     * @throws java.io.IOException If encountered.
+     */
+    @Test
+    public void testVarint() throws IOException {
+        System.out.println("varint");
+        long[] ls = {0L, 1L, -1L, 63L, -64L, 64L, 300L, Long.MAX_VALUE,
+            Long.MIN_VALUE, Integer.MIN_VALUE};
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        try (DataOutputStream dos = new DataOutputStream(b)) {
+            for (long l : ls) {
+                new Data_RecordID(l).write(dos);
+                new Data_CollectionID((int) l).write(dos);
+            }
+        }
+        ByteBuffer in = ByteBuffer.wrap(b.toByteArray());
+        for (long l : ls) {
+            assertEquals(new Data_RecordID(l), Data_RecordID.read(in));
+            assertEquals(new Data_CollectionID((int) l),
+                    Data_CollectionID.read(in));
+        }
+        assertFalse(in.hasRemaining());
+        // Test 2
+        b.reset();
+        try (DataOutputStream dos = new DataOutputStream(b)) {
+            Data_Varint.writeLong(dos, -64L);
+        }
+        assertEquals(1, b.size());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_WriteBehindStoreTest {
+
+    public Data_WriteBehindStoreTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * An in memory store where writes wait for {@link #latch}.
+     */
+    static class Store implements Data_CollectionStore {
+
+        final ConcurrentHashMap<Data_CollectionID, Data_Collection> m
+                = new ConcurrentHashMap<>();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public void write(Data_CollectionID cID, Data_Collection c)
+                throws IOException {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            m.put(cID, c);
+        }
+
+        @Override
+        public Data_Collection read(Data_CollectionID cID) {
+            return m.get(cID);
+        }
+
+        @Override
+        public boolean contains(Data_CollectionID cID) {
+            return m.containsKey(cID);
+        }
+    }
+
+    /**
+     * Test of write, read and flush methods, of class Data_WriteBehindStore.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testWriteReadFlush() throws Exception {
+        System.out.println("writeReadFlush");
+        Store s = new Store();
+        Data_WriteBehindStore instance = new Data_WriteBehindStore(s, 1, 4);
+        Data_CollectionID cID = new Data_CollectionID(1);
+        Data_Collection c = new Data_Collection(cID);
+        instance.write(cID, c);
+        // The write is blocked, so the read is served from the buffer.
+        assertEquals(1, instance.getPendingCount());
+        assertTrue(instance.contains(cID));
+        assertFalse(s.contains(cID));
+        assertSame(c, instance.read(cID));
+        s.latch.countDown();
+        instance.flush();
+        assertEquals(0, instance.getPendingCount());
+        assertSame(c, s.read(cID));
+        assertSame(c, instance.read(cID));
+        instance.shutdown();
+    }
+
+    /**
+     * Test of write method, of class Data_WriteBehindStore, rewriting a
+     * collection that is still pending.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testWrite_rewrite() throws Exception {
+        System.out.println("write rewrite");
+        Store s = new Store();
+        Data_WriteBehindStore instance = new Data_WriteBehindStore(s, 2, 4);
+        Data_CollectionID cID = new Data_CollectionID(1);
+        Data_Collection c1 = new Data_Collection(cID);
+        Data_Collection c2 = new Data_Collection(cID);
+        instance.write(cID, c1);
+        instance.write(cID, c2);
+        assertSame(c2, instance.read(cID));
+        s.latch.countDown();
+        instance.flush();
+        assertSame(c2, s.read(cID));
+        instance.shutdown();
+    }
+
+    /**
+     * Test of write method, of class Data_WriteBehindStore, rewriting a
+     * pending collection that has been read and changed while it is being
+     * written.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testWrite_rewriteChanged() throws Exception {
+        System.out.println("write rewrite changed");
+        CountDownLatch started = new CountDownLatch(1);
+        List<Integer> ns = Collections.synchronizedList(new ArrayList<>());
+        Store s = new Store() {
+
+            @Override
+            public void write(Data_CollectionID cID, Data_Collection c)
+                    throws IOException {
+                ns.add(c.getN());
+                started.countDown();
+                super.write(cID, c);
+            }
+        };
+        Data_WriteBehindStore instance = new Data_WriteBehindStore(s, 1, 4);
+        Data_CollectionID cID = new Data_CollectionID(1);
+        Data_Collection c = new Data_Collection(cID);
+        instance.write(cID, c);
+        started.await();
+        // The first write is blocked, change the pending collection and
+        // write it again.
+        Data_Collection r = instance.read(cID);
+        Data_RecordID rID = new Data_RecordID(0L);
+        r.data.put(rID, new Data_MappedCollectionStoreTest.Record(rID, 1));
+        instance.write(cID, r);
+        assertEquals(1, instance.getPendingCount());
+        s.latch.countDown();
+        instance.flush();
+        assertEquals(0, instance.getPendingCount());
+        assertEquals(List.of(0, 1), ns);
+        assertEquals(1, s.read(cID).getN());
+        instance.shutdown();
+    }
+
+    /**
+     * Test of flush method, of class Data_WriteBehindStore, after background
+     * writes fail.
+     *
+     * @throws java.lang.Exception If encountered.
+     */
+    @Test
+    public void testFlush_failure() throws Exception {
+        System.out.println("flush failure");
+        AtomicBoolean fail = new AtomicBoolean(true);
+        Store s = new Store() {
+
+            @Override
+            public void write(Data_CollectionID cID, Data_Collection c)
+                    throws IOException {
+                if (fail.get()) {
+                    throw new IOException("Test failure");
+                }
+                super.write(cID, c);
+            }
+        };
+        s.latch.countDown();
+        Data_WriteBehindStore instance = new Data_WriteBehindStore(s, 1, 2);
+        Data_CollectionID cID1 = new Data_CollectionID(1);
+        Data_CollectionID cID2 = new Data_CollectionID(2);
+        instance.write(cID1, new Data_Collection(cID1));
+        instance.write(cID2, new Data_Collection(cID2));
+        assertThrows(IOException.class, () -> instance.flush());
+        assertEquals(2, instance.getPendingCount());
+        assertEquals(2, instance.getFailedCount());
+        // The buffer is full of failed writes so writing another fails.
+        Data_CollectionID cID3 = new Data_CollectionID(3);
+        assertThrows(IOException.class, () -> instance.write(cID3,
+                new Data_Collection(cID3)));
+        assertFalse(instance.contains(cID3));
+        // Test 2
+        fail.set(false);
+        instance.flush();
+        assertEquals(0, instance.getPendingCount());
+        assertTrue(s.contains(cID1));
+        assertTrue(s.contains(cID2));
+        instance.shutdown();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_CacheStatsTest {
+
+    public Data_CacheStatsTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getPercentile method, of class Data_CacheStats.Histogram.
+     */
+    @Test
+    public void testGetPercentile() {
+        System.out.println("getPercentile");
+        Data_CacheStats.Histogram instance = new Data_CacheStats.Histogram();
+        assertEquals(0L, instance.getPercentile(50d));
+        for (int i = 0; i < 99; i++) {
+            instance.record(1000L);
+        }
+        instance.record(1000000L);
+        assertEquals(100L, instance.getCount());
+        assertEquals(1000000L, instance.getMax());
+        assertEquals(10990d, instance.getMean(), 1e-9);
+        long p50 = instance.getPercentile(50d);
+        assertTrue(p50 >= 1000L && p50 < 2000L);
+        assertEquals(p50, instance.getPercentile(99d));
+        assertEquals(1000000L, instance.getPercentile(100d));
+        // Test 2
+        instance.reset();
+        assertEquals(0L, instance.getCount());
+        assertEquals(0L, instance.getMax());
+    }
+
+    /**
+     * Test of snapshot method, of class Data_CacheStats.
+     */
+    @Test
+    public void testSnapshot() {
+        System.out.println("snapshot");
+        Data_CacheStats instance = new Data_CacheStats(null);
+        instance.hit();
+        instance.hit();
+        instance.hit();
+        instance.miss();
+        instance.loaded(2000000L, 100L);
+        instance.written(50L);
+        instance.written(-1L);
+        instance.skippedWrite();
+        instance.evicted(Data_CacheStats.Reason.MEMORY);
+        instance.evicted(Data_CacheStats.Reason.EXPLICIT);
+        Data_CacheStats.Snapshot s = instance.snapshot();
+        assertEquals(3L, s.hits);
+        assertEquals(1L, s.misses);
+        assertEquals(0.75d, s.getHitRate(), 1e-9);
+        assertEquals(1L, s.loads);
+        assertEquals(2d, s.meanLoadMillis, 1e-9);
+        assertEquals(100L, s.bytesRead);
+        assertEquals(2L, s.writes);
+        assertEquals(50L, s.bytesWritten);
+        assertEquals(1L, s.skippedWrites);
+        assertEquals(1L, s.getEvictionCount(Data_CacheStats.Reason.MEMORY));
+        assertEquals(0L, s.getEvictionCount(Data_CacheStats.Reason.CLEAR_ALL));
+        // Test 2: snapshots do not change.
+        instance.reset();
+        assertEquals(3L, s.hits);
+        assertEquals(0L, instance.getHitCount());
+        s.getEvictions()[Data_CacheStats.Reason.MEMORY.ordinal()] = 7L;
+        assertEquals(1L, s.getEvictionCount(Data_CacheStats.Reason.MEMORY));
+    }
+
+    /**
+     * Test of register method, of class Data_CacheStats.
+     *
+     * @throws javax.management.JMException If encountered.
+     */
+    @Test
+    public void testRegister() throws JMException {
+        System.out.println("register");
+        Data_CacheStats instance = new Data_CacheStats(null);
+        instance.miss();
+        ObjectName n = instance.register("test");
+        try {
+            MBeanServer s = ManagementFactory.getPlatformMBeanServer();
+            assertTrue(s.isRegistered(n));
+            assertEquals(1L, s.getAttribute(n, "MissCount"));
+            s.invoke(n, "reset", null, null);
+            assertEquals(0L, instance.getMissCount());
+        } finally {
+            instance.unregister();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(n));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import uk.ac.leeds.ccg.data.id.Data_RecordID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@link Data_EvictionPolicy} implementations.
+ *
+ * @author Andy Turner
+ */
+public class Data_EvictionPolicyTest {
+
+    public Data_EvictionPolicyTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    private static Data_Collection getCollection(int id, int n) {
+        Data_Collection r = new Data_Collection(new Data_CollectionID(id));
+        for (int i = 0; i < n; i++) {
+            r.data.put(new Data_RecordID(i), null);
+        }
+        return r;
+    }
+
+    /**
+     * Test of selectVictim method, of class Data_LRUEvictionPolicy.
+     */
+    @Test
+    public void testSelectVictim_LRU() {
+        System.out.println("selectVictim LRU");
+        Data_EvictionPolicy instance = new Data_LRUEvictionPolicy();
+        assertNull(instance.selectVictim());
+        Data_Collection c0 = getCollection(0, 1);
+        Data_Collection c1 = getCollection(1, 1);
+        Data_Collection c2 = getCollection(2, 1);
+        instance.accessed(c0.ID, c0.getSizeEstimate());
+        instance.accessed(c1.ID, c1.getSizeEstimate());
+        instance.accessed(c2.ID, c2.getSizeEstimate());
+        instance.accessed(c0.ID, c0.getSizeEstimate());
+        assertEquals(c1.ID, instance.selectVictim());
+        instance.removed(c1.ID);
+        assertEquals(c2.ID, instance.selectVictim());
+        instance.clear();
+        assertNull(instance.selectVictim());
+    }
+
+    /**
+     * Test of selectVictim method, of class Data_LFUEvictionPolicy.
+     */
+    @Test
+    public void testSelectVictim_LFU() {
+        System.out.println("selectVictim LFU");
+        Data_EvictionPolicy instance = new Data_LFUEvictionPolicy();
+        Data_Collection c0 = getCollection(0, 1);
+        Data_Collection c1 = getCollection(1, 1);
+        Data_Collection c2 = getCollection(2, 1);
+        instance.accessed(c0.ID, c0.getSizeEstimate());
+        instance.accessed(c0.ID, c0.getSizeEstimate());
+        instance.accessed(c1.ID, c1.getSizeEstimate());
+        instance.accessed(c1.ID, c1.getSizeEstimate());
+        instance.accessed(c2.ID, c2.getSizeEstimate());
+        assertEquals(c2.ID, instance.selectVictim());
+        instance.removed(c2.ID);
+        // Tie broken by least recently used.
+        assertEquals(c0.ID, instance.selectVictim());
+    }
+
+    /**
+     * Test of selectVictim method, of class Data_SizeEvictionPolicy.
+     */
+    @Test
+    public void testSelectVictim_Size() {
+        System.out.println("selectVictim Size");
+        Data_EvictionPolicy instance = new Data_SizeEvictionPolicy();
+        Data_Collection small = getCollection(0, 10);
+        Data_Collection big = getCollection(1, 1000);
+        instance.accessed(small.ID, small.getSizeEstimate());
+        instance.accessed(big.ID, big.getSizeEstimate());
+        instance.accessed(big.ID, big.getSizeEstimate());
+        assertEquals(big.ID, instance.selectVictim());
+    }
+}
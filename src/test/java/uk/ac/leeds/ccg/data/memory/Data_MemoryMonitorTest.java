@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.lang.management.MemoryUsage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_MemoryMonitorTest {
+
+    public Data_MemoryMonitorTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of getBytesToClear method, of class Data_MemoryMonitor.
+     */
+    @Test
+    public void testGetBytesToClear() {
+        System.out.println("getBytesToClear");
+        Data_MemoryMonitor instance = new Data_MemoryMonitor(null, 0.9d, 0.5d);
+        assertEquals(400L, instance.getBytesToClear(
+                new MemoryUsage(0L, 900L, 1000L, 1000L)));
+        assertTrue(instance.getBytesToClear(
+                new MemoryUsage(0L, 100L, 1000L, 1000L)) < 0L);
+        assertEquals(0L, instance.relieve());
+        // Test 2
+        assertThrows(IllegalArgumentException.class,
+                () -> new Data_MemoryMonitor(null, 0.5d, 0.9d));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Data_MemoryMonitor(null, 1d, 0.5d));
+    }
+
+    /**
+     * Test of start and stop methods, of class Data_MemoryMonitor.
+     */
+    @Test
+    public void testStartStop() {
+        System.out.println("startStop");
+        Data_MemoryMonitor instance = new Data_MemoryMonitor(null, 0.99d,
+                0.9d);
+        assertFalse(instance.isStarted());
+        int n = instance.start();
+        assertTrue(n >= 0);
+        assertTrue(instance.isStarted());
+        assertEquals(n, instance.start());
+        instance.stop();
+        assertFalse(instance.isStarted());
+    }
+}
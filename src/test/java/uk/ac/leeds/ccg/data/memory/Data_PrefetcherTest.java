@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import java.util.List;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_PrefetcherTest {
+
+    public Data_PrefetcherTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of predict method, of class Data_Prefetcher.
+     */
+    @Test
+    public void testPredict() {
+        System.out.println("predict");
+        Data_Prefetcher instance = new Data_Prefetcher(null, 2, 0L);
+        assertTrue(instance.predict(new Data_CollectionID(0)).isEmpty());
+        assertTrue(instance.predict(new Data_CollectionID(0)).isEmpty());
+        assertTrue(instance.predict(new Data_CollectionID(1)).isEmpty());
+        List<Data_CollectionID> result = instance.predict(
+                new Data_CollectionID(2));
+        assertEquals(2, result.size());
+        assertEquals(new Data_CollectionID(3), result.get(0));
+        assertEquals(new Data_CollectionID(4), result.get(1));
+        // Repeated access to the same collection predicts nothing.
+        assertTrue(instance.predict(new Data_CollectionID(2)).isEmpty());
+        // Test 2: a change of stride resets the prediction.
+        assertTrue(instance.predict(new Data_CollectionID(5)).isEmpty());
+        result = instance.predict(new Data_CollectionID(8));
+        assertEquals(new Data_CollectionID(11), result.get(0));
+        assertEquals(new Data_CollectionID(14), result.get(1));
+        instance.shutdown();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 Centre for Computational Geography, University of Leeds.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.ac.leeds.ccg.data.memory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import uk.ac.leeds.ccg.data.Data_Collection;
+import uk.ac.leeds.ccg.data.id.Data_CollectionID;
+
+/**
+ *
+ * @author Andy Turner
+ */
+public class Data_SoftCacheTest {
+
+    public Data_SoftCacheTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() {
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+    }
+
+    @BeforeEach
+    public void setUp() {
+    }
+
+    @AfterEach
+    public void tearDown() {
+    }
+
+    /**
+     * Test of take and get methods, of class Data_SoftCache.
+     */
+    @Test
+    public void testTake() {
+        System.out.println("take");
+        Data_SoftCache instance = new Data_SoftCache();
+        Data_CollectionID cID = new Data_CollectionID(1);
+        Data_Collection c = new Data_Collection(cID);
+        instance.put(cID, c);
+        assertSame(c, instance.get(cID));
+        assertSame(c, instance.take(cID));
+        assertNull(instance.take(cID));
+        assertEquals(2L, instance.getHitCount());
+        assertEquals(1L, instance.getMissCount());
+        assertEquals(2d / 3d, instance.getHitRate(), 1e-9);
+        // Test 2
+        instance.put(cID, c);
+        instance.remove(cID);
+        assertNull(instance.get(cID));
+        assertEquals(0, instance.size());
+    }
+
+    /**
+     * Test of clear method, of class Data_SoftCache.
+     */
+    @Test
+    public void testClear() {
+        System.out.println("clear");
+        Data_SoftCache instance = new Data_SoftCache(true);
+        Data_Collection c0 = new Data_Collection(new Data_CollectionID(0));
+        Data_Collection c1 = new Data_Collection(new Data_CollectionID(1));
+        instance.put(c0.ID, c0);
+        instance.put(c1.ID, c1);
+        assertEquals(2, instance.size());
+        long result = instance.clear();
+        assertEquals(c0.getSizeEstimate() + c1.getSizeEstimate(), result);
+        assertEquals(0, instance.size());
+        assertNull(instance.take(c0.ID));
+    }
+}